@@ -9,11 +9,17 @@ package edu.duke.ece651.factorysim;
 import edu.duke.ece651.factorysim.client.*;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents the app that runs the simulation.
  */
 public class App {
+  private static final int DEFAULT_SWEEP_TIME_LIMIT = 1000000;
+
   private final Simulation sim;
   private final CommandHandler commandHandler;
   private final BufferedReader inputReader;
@@ -71,6 +77,29 @@ public class App {
     }
   }
 
+  /**
+   * Runs every combination of request and source policies on the same
+   * configuration and workload at once, and prints a table of the results.
+   *
+   * @param filePath     is the path to the JSON configuration.
+   * @param workloadPath is the path to the commands every run executes, one
+   *                     per line.
+   * @param timeLimit    is the time step at which unfinished runs give up.
+   * @param out          is where to print the table.
+   * @throws IOException if the workload cannot be read.
+   */
+  public static void runSweep(String filePath, String workloadPath, int timeLimit, PrintStream out)
+      throws IOException {
+    List<String> workload = new ArrayList<>();
+    for (String line : Files.readAllLines(Paths.get(workloadPath))) {
+      if (!line.trim().isEmpty()) {
+        workload.add(line);
+      }
+    }
+    SweepRunner runner = new SweepRunner(filePath, workload, timeLimit);
+    out.print(SweepRunner.formatTable(runner.run(SweepVariant.policyGrid())));
+  }
+
   /**
    * Runs the simulation, processing user commands until finished.
    *
@@ -122,6 +151,12 @@ public class App {
     // actualMain(filePath, inputReader);
     // DBInitializer.init();
 
+    if (args.length >= 3 && args.length <= 4 && args[0].equals("sweep")) {
+      int timeLimit = args.length == 4 ? Integer.parseInt(args[3]) : DEFAULT_SWEEP_TIME_LIMIT;
+      runSweep(args[1], args[2], timeLimit, System.out);
+      return;
+    }
+
     BufferedReader inputReader = new BufferedReader(new InputStreamReader(System.in));
     if (args.length == 1) {
       String filePath = args[0];
@@ -154,6 +189,7 @@ public class App {
       System.err.println("Usages: app <file_path>");
       System.err.println("        app <host> <port> <preset_path>");
       System.err.println("        app <host> <port> <username> <password>");
+      System.err.println("        app sweep <file_path> <workload_path> [time_limit]");
       System.exit(1);
     }
 
@@ -12,14 +12,30 @@ public abstract class Building {
   private final String name;
   private final List<Building> sources;
   private final Simulation simulation;
-
-  private HashMap<Item, Integer> storage;
+  // the sources that can produce each item asked for, see
+  // `getAvailableSourcesForItem`
+  private final Map<Item, List<Building>> availableSources = new HashMap<>();
+  // the sources when `availableSources` was last cleared
+  private Building[] sourcesSeen = new Building[0];
+  // reused by `requestMissingIngredients`, or null while it is in use
+  private int[] ingredientCounts = new int[0];
+
+  private final Inventory storage = new Inventory();
+  // changes whenever the storage does, see `getStorageVersion`
+  private int storageVersion = 0;
   private Request currentRequest = null;
-  private List<Request> pendingRequests;
+  private final RequestQueue pendingRequests;
+  // the number of requests pending in any building that deliver each item here
+  private final Map<Item, Integer> incomingRequests = new HashMap<>();
   protected RequestPolicy requestPolicy;
   protected SourcePolicy sourcePolicy;
   private boolean pendingRemoval = false;
 
+  // the outcome of `planStep`, valid until the building's own state changes
+  private boolean isPlanned = false;
+  private Request plannedRequest = null;
+  private boolean plannedHasIngredients = false;
+
   private Coordinate location;
 
   /**
@@ -39,19 +55,30 @@ public abstract class Building {
     this.name = name;
     this.sources = sources;
     this.simulation = simulation;
-    this.storage = new HashMap<>();
-    this.pendingRequests = new LinkedList<>();
+    this.pendingRequests = new RequestQueue();
+    this.pendingRequests.addListener(new RequestQueue.Listener() {
+      @Override
+      public void onAdded(Request request) {
+        countIncomingRequest(request, 1);
+      }
+
+      @Override
+      public void onRemoved(Request request) {
+        countIncomingRequest(request, -1);
+      }
+    });
     this.requestPolicy = simulation.getRequestPolicy(name);
     this.sourcePolicy = simulation.getSourcePolicy(name);
   }
 
   /**
-   * Gets the building's storage.
+   * Gets a read-only view of the building's storage, in the order the items
+   * were first stored.
    *
    * @return the storage of the building.
    */
   public Map<Item, Integer> getStorage() {
-    return storage;
+    return storage.asMap();
   }
 
   /**
@@ -99,6 +126,10 @@ public abstract class Building {
   public void updateSources(List<Building> newSources) {
     sources.clear();
     sources.addAll(newSources);
+    availableSources.clear();
+    sourcesSeen = sources.toArray(new Building[0]);
+    simulation.onSourcesChanged();
+    simulation.wakeUp(this);
   }
 
   /**
@@ -109,11 +140,17 @@ public abstract class Building {
    *         storage number of that item.
    */
   public int getStorageNumberOf(Item item) {
-    if (storage.containsKey(item) == false) {
-      return -1;
-    } else {
-      return storage.get(item);
-    }
+    return storage.get(item.getId());
+  }
+
+  /**
+   * Gets a number that changes whenever the storage changes, so that things
+   * worked out from the storage can be kept until it changes.
+   *
+   * @return the version of the storage.
+   */
+  int getStorageVersion() {
+    return storageVersion;
   }
 
   /**
@@ -124,10 +161,13 @@ public abstract class Building {
    */
   public void addToStorage(Item item, int quantity) {
     int existingNum = 0;
-    if (storage.containsKey(item)) {
-      existingNum = storage.get(item);
+    if (storage.contains(item.getId())) {
+      existingNum = storage.get(item.getId());
     }
-    storage.put(item, existingNum + quantity);
+    storage.put(item.getId(), existingNum + quantity);
+    storageVersion++;
+    isPlanned = false;
+    simulation.wakeUp(this);
   }
 
   /**
@@ -139,21 +179,23 @@ public abstract class Building {
    *                                  there isn't enough number to be taken out.
    */
   public void takeFromStorage(Item item, int quantity) {
-    if (storage.containsKey(item) == false) {
+    if (storage.contains(item.getId()) == false) {
       throw new IllegalArgumentException(
           "Cannot take " + item.getName() + " out of " + name + "'s storage, because it's not in stock.");
     }
-    int storageNum = storage.get(item);
+    int storageNum = storage.get(item.getId());
     if (storageNum < quantity) {
       throw new IllegalArgumentException("Cannot take " + quantity + " " + item.getName() + " out of " + name
           + "'s storage, because there isn't enough stock.");
     }
     int updatedStorageNum = storageNum - quantity;
+    storageVersion++;
+    isPlanned = false;
     // if there is no storage left, delete the item from storage
     if (updatedStorageNum == 0) {
-      storage.remove(item);
+      storage.remove(item.getId());
     } else {
-      storage.put(item, updatedStorageNum);
+      storage.put(item.getId(), updatedStorageNum);
     }
   }
 
@@ -196,7 +238,9 @@ public abstract class Building {
    * @param request the request to be added.
    */
   public void prependPendingRequest(Request request) {
-    pendingRequests.addLast(request);
+    pendingRequests.add(request);
+    isPlanned = false;
+    simulation.wakeUp(this);
   }
 
   /**
@@ -209,7 +253,9 @@ public abstract class Building {
    * @param request the request to be added.
    */
   public void appendPendingRequest(Request request) {
-    pendingRequests.addLast(request);
+    pendingRequests.add(request);
+    isPlanned = false;
+    simulation.wakeUp(this);
   }
 
   /**
@@ -242,6 +288,44 @@ public abstract class Building {
 
   public void setCurrentRequest(Request request) {
     currentRequest = request;
+    isPlanned = false;
+    simulation.wakeUp(this);
+  }
+
+  /**
+   * Removes a request from the pending request list, e.g. when it starts being
+   * processed. The building waiting for the request is woken up, because it no
+   * longer counts this request as an incoming ingredient.
+   *
+   * @param request the request to be removed.
+   */
+  protected void removePendingRequest(Request request) {
+    pendingRequests.remove(request);
+    isPlanned = false;
+    if (request.getDeliverTo() != null) {
+      simulation.wakeUp(request.getDeliverTo());
+    }
+  }
+
+  /**
+   * Updates the number of incoming requests of the building a pending request
+   * delivers to. Called whenever the pending request queue changes.
+   *
+   * @param request is the request added to or removed from the pending queue.
+   * @param delta   is 1 if it was added, -1 if it was removed.
+   */
+  private static void countIncomingRequest(Request request, int delta) {
+    Building destination = request.getDeliverTo();
+    if (destination == null) {
+      return;
+    }
+    Map<Item, Integer> incoming = destination.incomingRequests;
+    int count = incoming.getOrDefault(request.getItem(), 0) + delta;
+    if (count == 0) {
+      incoming.remove(request.getItem());
+    } else {
+      incoming.put(request.getItem(), count);
+    }
   }
 
   /**
@@ -273,6 +357,8 @@ public abstract class Building {
    */
   public void setRequestPolicy(RequestPolicy requestPolicy) {
     this.requestPolicy = requestPolicy;
+    isPlanned = false;
+    simulation.wakeUp(this);
   }
 
   /**
@@ -311,8 +397,12 @@ public abstract class Building {
     }
     // else, try to fetch the next one and work on it
     else if (pendingRequests.isEmpty() == false) {
-      // Select a request based on the current policy
-      Request selectedRequest = requestPolicy.selectRequest(this, pendingRequests);
+      // Select a request based on the current policy, unless it's already planned
+      if (!isPlanned) {
+        planStep();
+      }
+      isPlanned = false;
+      Request selectedRequest = plannedRequest;
 
       // If no request can be selected, especially when the policy is "ready",
       // we just skip this step
@@ -326,11 +416,9 @@ public abstract class Building {
       simulation.onRecipeSelected(this, requestPolicy, pendingRequests, selectedRequest);
 
       // Start processing request if has all the ingredients for it
-      boolean hasIngredients = hasAllIngredientsFor(selectedRecipe);
-
-      if (hasIngredients) {
+      if (plannedHasIngredients) {
         consumeIngredientsFor(selectedRecipe);
-        pendingRequests.remove(selectedRequest);
+        removePendingRequest(selectedRequest);
         currentRequest = selectedRequest;
         currentRequest.setStatus("current");
       } else {
@@ -340,6 +428,79 @@ public abstract class Building {
     }
   }
 
+  /**
+   * Works out ahead of time which pending request the next `processRequest`
+   * selects and whether it has all the ingredients for it. This only reads the
+   * building's own requests and storage, so buildings can plan their steps in
+   * parallel. The plan is dropped as soon as the building's state changes, e.g.
+   * when another building adds a request to it earlier in the same time step.
+   */
+  public void planStep() {
+    isPlanned = !isProcessing() && !pendingRequests.isEmpty();
+    if (isPlanned) {
+      plannedRequest = requestPolicy.selectRequest(this, pendingRequests);
+      plannedHasIngredients = plannedRequest != null && hasAllIngredientsFor(plannedRequest.getRecipe());
+    }
+  }
+
+  /**
+   * Gets the number of time steps until this building next does something other
+   * than counting down its current request. The steps before that can be
+   * skipped with `advance`, and the building may sleep through them.
+   * Subclasses that change `step` must override this accordingly.
+   *
+   * @return the number of steps until the next event (at least 1), or
+   *         Integer.MAX_VALUE if the building will stay idle until another
+   *         building or a delivery changes it.
+   */
+  public int getStepsToNextEvent() {
+    if (isProcessing()) {
+      return Math.max(1, currentRequest.getRemainingSteps());
+    }
+    if (pendingRequests.isEmpty() || isWaitingQuietly()) {
+      return Integer.MAX_VALUE;
+    }
+    return 1;
+  }
+
+  /**
+   * Checks if the next `processRequest` would neither start a request, log, nor
+   * send out new sub-requests, i.e. the building is just waiting for
+   * ingredients that are already requested.
+   *
+   * @return true if the building is waiting without doing anything.
+   */
+  private boolean isWaitingQuietly() {
+    Request selectedRequest = requestPolicy.selectRequest(this, pendingRequests);
+    if (selectedRequest == null) {
+      return true;
+    }
+    Recipe selectedRecipe = selectedRequest.getRecipe();
+    if (simulation.getVerbosity() >= 2 || hasAllIngredientsFor(selectedRecipe)) {
+      return false;
+    }
+    Recipe.Compiled ingredients = selectedRecipe.compile();
+    for (int i = 0; i < ingredients.ids.length; i++) {
+      int missing = getNumOfMissing(ingredients, i);
+      if (missing > 0 && missing > getNumOfIncomingRequests(ingredients.items[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Skips the given number of idle steps at once.
+   * Precondition: steps < getStepsToNextEvent()
+   *
+   * @param steps is the number of steps to skip.
+   */
+  public void advance(int steps) {
+    if (isProcessing()) {
+      currentRequest.setRemainingSteps(currentRequest.getRemainingSteps() - steps);
+    }
+  }
+
   /**
    * Checks if the things in storage are enough to produce the output of a recipe.
    *
@@ -347,11 +508,10 @@ public abstract class Building {
    * @return true if the things in storage are enough, false otherwise.
    */
   public boolean hasAllIngredientsFor(Recipe recipe) {
-    for (Item item : recipe.getIngredients().keySet()) {
-      int numNeeded = recipe.getIngredients().get(item);
-      int numInStorage = getStorageNumberOf(item);
+    Recipe.Compiled ingredients = recipe.compile();
+    for (int i = 0; i < ingredients.items.length; i++) {
       // num in storage will be -1 if item not exists in storage
-      if (numInStorage < numNeeded) {
+      if (getStorageNumberOf(ingredients.items[i]) < ingredients.quantities[i]) {
         return false;
       }
     }
@@ -365,8 +525,9 @@ public abstract class Building {
    * @param recipe is the recipe to be consumed.
    */
   public void consumeIngredientsFor(Recipe recipe) {
-    for (Item item : recipe.getIngredients().keySet()) {
-      takeFromStorage(item, recipe.getIngredients().get(item));
+    Recipe.Compiled ingredients = recipe.compile();
+    for (int i = 0; i < ingredients.items.length; i++) {
+      takeFromStorage(ingredients.items[i], ingredients.quantities[i]);
     }
   }
 
@@ -425,7 +586,12 @@ public abstract class Building {
    * @return an available waste disposal building, or null if none is found.
    */
   private WasteDisposalBuilding findWasteDisposalBuilding(Item wasteType, int quantity) {
-    for (Building building : simulation.getWorld().getBuildings()) {
+    // the disposals of a waste type are among its producers, but while sharded
+    // only the buildings of this component may be looked at
+    List<Building> candidates = Shard.current() == null
+        ? simulation.getWorld().getProducers(wasteType)
+        : simulation.getReachableBuildings();
+    for (Building building : candidates) {
       if (building instanceof WasteDisposalBuilding) {
         WasteDisposalBuilding disposalBuilding = (WasteDisposalBuilding) building;
         if (disposalBuilding.canProduce(wasteType) && disposalBuilding.hasCapacityFor(wasteType, quantity)) {
@@ -446,15 +612,28 @@ public abstract class Building {
    * @return a list of missing ingredients.
    */
   public List<Tuple<Item, Integer>> findMissingIngredients(Recipe recipe) {
-    List<Tuple<Item, Integer>> ingredients = new ArrayList<>();
-    for (Map.Entry<Item, Integer> entry : recipe.getIngredients().entrySet()) {
-      int need = entry.getValue();
-      int available = storage.getOrDefault(entry.getKey(), 0);
-      if (need > available) {
-        ingredients.add(new Tuple<>(entry.getKey(), need - available));
+    List<Tuple<Item, Integer>> missingIngredients = new ArrayList<>();
+    Recipe.Compiled ingredients = recipe.compile();
+    for (int i = 0; i < ingredients.ids.length; i++) {
+      int missing = getNumOfMissing(ingredients, i);
+      if (missing > 0) {
+        missingIngredients.add(new Tuple<>(ingredients.items[i], missing));
       }
     }
-    return ingredients;
+    return missingIngredients;
+  }
+
+  /**
+   * Gets how many of an ingredient of a recipe are missing from storage.
+   *
+   * @param ingredients is the compiled ingredients of the recipe.
+   * @param index       is the index of the ingredient.
+   * @return the number missing, which is 0 or less if there are enough.
+   */
+  private int getNumOfMissing(Recipe.Compiled ingredients, int index) {
+    int id = ingredients.ids[index];
+    int available = storage.contains(id) ? storage.get(id) : 0;
+    return ingredients.quantities[index] - available;
   }
 
   /**
@@ -466,38 +645,37 @@ public abstract class Building {
    *                                  enough to give missing items.
    */
   public void requestMissingIngredients(Recipe recipe) {
-    List<Tuple<Item, Integer>> missingIngredients = findMissingIngredients(recipe);
-
-    // Create a map to track pending ingredient requests
-    Map<Item, Integer> pendingIngredientRequests = new HashMap<>();
-
-    // Check if simulation and world are properly initialized
-    if (simulation == null || simulation.getWorld() == null) {
-      throw new IllegalArgumentException("Simulation or world is not properly initialized");
+    Recipe.Compiled ingredients = recipe.compile();
+
+    // Count the missing ingredients, and the pending requests for each of them
+    // across all buildings, before any new ones are sent out: the missing
+    // quantity of ingredient i is at counts[2 * i], and its pending quantity
+    // right after. The array is taken from the building while in use, in case
+    // sending out requests comes back here.
+    int numOfIngredients = ingredients.ids.length;
+    int[] counts = ingredientCounts;
+    ingredientCounts = null;
+    if (counts == null || counts.length < 2 * numOfIngredients) {
+      counts = new int[2 * numOfIngredients];
     }
-
-    List<Building> allBuildings = simulation.getWorld().getBuildings();
-
-    // Count pending requests for each ingredient across all buildings
-    for (Building building : allBuildings) {
-      // Find pending requests that will deliver to this building
-      for (Request pendingRequest : building.getPendingRequests()) {
-        if (pendingRequest.getDeliverTo() == this) {
-          Item requestedItem = pendingRequest.getItem();
-          int currentCount = pendingIngredientRequests.getOrDefault(requestedItem, 0);
-          pendingIngredientRequests.put(requestedItem, currentCount + 1);
-        }
-      }
+    for (int i = 0; i < numOfIngredients; i++) {
+      counts[2 * i] = getNumOfMissing(ingredients, i);
+      counts[2 * i + 1] = counts[2 * i] > 0 ? getNumOfIncomingRequests(ingredients.items[i]) : 0;
     }
 
     // Process each missing ingredient
-    for (int index = 0; index < missingIngredients.size(); index++) {
-      Tuple<Item, Integer> entry = missingIngredients.get(index);
-      Item item = entry.first();
-      int numNeeded = entry.second();
+    int index = -1;
+    for (int ingredient = 0; ingredient < numOfIngredients; ingredient++) {
+      if (counts[2 * ingredient] <= 0) {
+        continue;
+      }
+      // the index among the missing ingredients
+      index++;
+      Item item = ingredients.items[ingredient];
+      int numNeeded = counts[2 * ingredient];
 
       // Account for pending requests
-      int pendingQuantity = pendingIngredientRequests.getOrDefault(item, 0);
+      int pendingQuantity = counts[2 * ingredient + 1];
       int actualNeeded = Math.max(0, numNeeded - pendingQuantity);
 
       // If we already have enough pending, skip requesting more
@@ -540,6 +718,18 @@ public abstract class Building {
         }
       }
     }
+    ingredientCounts = counts;
+  }
+
+  /**
+   * Gets the number of requests pending in any building that will deliver an
+   * item to this building.
+   *
+   * @param item is the item to be delivered.
+   * @return the number of pending requests delivering the item here.
+   */
+  int getNumOfIncomingRequests(Item item) {
+    return incomingRequests.getOrDefault(item, 0);
   }
 
   /**
@@ -600,7 +790,7 @@ public abstract class Building {
         return;
       }
 
-      pendingRequests.remove(currentRequest);
+      removePendingRequest(currentRequest);
       currentRequest.setStatus("current");
     }
 
@@ -624,19 +814,54 @@ public abstract class Building {
   }
 
   /**
-   * Gets the list of source buildings that can produce a given item.
+   * Gets the list of source buildings that can produce a given item.<br/>
+   * The list for each item is worked out on first use and kept until the
+   * sources change. The list of sources is handed out by `getSources` and may
+   * be shared with whoever constructed the building, so it is compared with
+   * the sources the lists were worked out for, which only takes a look at
+   * each source. What a building can produce never changes, so nothing else
+   * can make the lists stale.
    *
    * @param item is the item to be checked.
-   * @return the list of available source buildings.
+   * @return the unmodifiable list of available source buildings, in the order
+   *         of the sources.
    */
   public List<Building> getAvailableSourcesForItem(Item item) {
-    List<Building> availableSources = new ArrayList<>();
-    for (Building source : sources) {
-      if (source.canProduce(item)) {
-        availableSources.add(source);
+    if (haveSourcesChanged()) {
+      // the sources were changed without `updateSources`
+      availableSources.clear();
+      sourcesSeen = sources.toArray(new Building[0]);
+    }
+    List<Building> available = availableSources.get(item);
+    if (available == null) {
+      List<Building> found = new ArrayList<>();
+      for (Building source : sources) {
+        if (source.canProduce(item)) {
+          found.add(source);
+        }
+      }
+      available = found.isEmpty() ? List.of() : Collections.unmodifiableList(found);
+      availableSources.put(item, available);
+    }
+    return available;
+  }
+
+  /**
+   * Checks if the sources are not the ones the available sources were last
+   * worked out for, in any way: added, removed or replaced.
+   *
+   * @return true if the sources changed.
+   */
+  private boolean haveSourcesChanged() {
+    if (sources.size() != sourcesSeen.length) {
+      return true;
+    }
+    for (int i = 0; i < sourcesSeen.length; i++) {
+      if (sources.get(i) != sourcesSeen[i]) {
+        return true;
       }
     }
-    return availableSources;
+    return false;
   }
 
   /**
@@ -661,7 +886,7 @@ public abstract class Building {
    *
    * @return the list of pending requests.
    */
-  public List<Request> getPendingRequests() {
+  public RequestQueue getPendingRequests() {
     return pendingRequests;
   }
 
@@ -673,6 +898,41 @@ public abstract class Building {
    */
   public abstract boolean canProduce(Item item);
 
+  /**
+   * Creates a copy of this building for another simulation, with the same
+   * configuration but none of its state, which `copyStateFrom` fills in.
+   * Used by `Simulation.fork`.
+   *
+   * @param simulation is the simulation the copy is in.
+   * @return the copy of this building.
+   */
+  abstract Building copyFor(Simulation simulation);
+
+  /**
+   * Copies the state of the building this is a copy of: its sources, storage,
+   * requests, policies and location. Requests are copied, while the policies
+   * are shared since they keep no state.
+   *
+   * @param original is the building this is a copy of.
+   * @param copies   is the copy of each building of the original simulation.
+   */
+  void copyStateFrom(Building original, Map<Building, Building> copies) {
+    for (Building source : original.sources) {
+      sources.add(copies.get(source));
+    }
+    storage.copyFrom(original.storage);
+    if (original.currentRequest != null) {
+      currentRequest = original.currentRequest.copyFor(copies);
+    }
+    for (Request request : original.pendingRequests) {
+      pendingRequests.add(request.copyFor(copies));
+    }
+    requestPolicy = original.requestPolicy;
+    sourcePolicy = original.sourcePolicy;
+    pendingRemoval = original.pendingRemoval;
+    location = original.location;
+  }
+
   /**
    * Converts the building object to a JSON representation.
    *
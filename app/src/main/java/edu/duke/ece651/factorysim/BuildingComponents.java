@@ -0,0 +1,196 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.*;
+
+/**
+ * Splits the buildings of a world into connected components, so that the
+ * buildings of one component never affect those of another while stepping.<br/>
+ * Two buildings are connected if one is a source of the other, if one has a
+ * request to deliver to the other, if one can produce waste the other disposes
+ * of, or if one is a drone port covering the other. Everything a building does
+ * in its step (picking sources, sending requests, reserving waste capacity,
+ * taking drones) only involves buildings connected to it this way.<br/>
+ * The components are only valid for the world version they were built for.
+ * Since connecting buildings merges components, they also have to be rebuilt
+ * whenever the sources of a building change.
+ */
+public class BuildingComponents {
+  private final World world;
+  private final List<Building> buildings;
+  private final int worldVersion;
+
+  private final int[] componentOf;
+  private final List<List<Building>> components = new ArrayList<>();
+
+  /**
+   * Builds the connected components of a world's buildings.
+   *
+   * @param world is the world whose buildings to split.
+   */
+  public BuildingComponents(World world) {
+    this.world = world;
+    this.buildings = world.getBuildings();
+    this.worldVersion = world.getVersion();
+
+    int n = buildings.size();
+    IdentityHashMap<Building, Integer> indexes = new IdentityHashMap<>();
+    for (int i = 0; i < n; i++) {
+      indexes.put(buildings.get(i), i);
+    }
+    int[] parents = new int[n];
+    for (int i = 0; i < n; i++) {
+      parents[i] = i;
+    }
+
+    // sources and requests
+    for (int i = 0; i < n; i++) {
+      Building building = buildings.get(i);
+      for (Building source : building.getSources()) {
+        union(parents, i, indexes.get(source));
+      }
+      for (Request request : building.getPendingRequests()) {
+        union(parents, i, indexes.get(request.getDeliverTo()));
+      }
+      if (building.getCurrentRequest() != null) {
+        union(parents, i, indexes.get(building.getCurrentRequest().getDeliverTo()));
+      }
+    }
+
+    // waste producers and the disposals that take their waste
+    Map<Item, Integer> disposals = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      if (buildings.get(i) instanceof WasteDisposalBuilding) {
+        WasteDisposalBuilding disposal = (WasteDisposalBuilding) buildings.get(i);
+        for (Item wasteType : disposal.getWasteTypes()) {
+          Integer other = disposals.putIfAbsent(wasteType, i);
+          union(parents, i, other);
+        }
+      }
+    }
+    for (Recipe recipe : world.getRecipes()) {
+      for (Item wasteType : recipe.getWasteByProducts().keySet()) {
+        Integer disposal = disposals.get(wasteType);
+        if (disposal == null) {
+          continue;
+        }
+        for (Building building : world.getProducers(recipe.getOutput())) {
+          if (!(building instanceof WasteDisposalBuilding)) {
+            union(parents, disposal, indexes.get(building));
+          }
+        }
+      }
+    }
+
+    // drone ports and the buildings they cover
+    DronePortIndex dronePorts = new DronePortIndex(world);
+    for (int j = 0; j < n; j++) {
+      Building building = buildings.get(j);
+      for (DronePortBuilding port : dronePorts.getPortsNear(building.getLocation())) {
+        if (port.getDronePort().isWithinRadius(building)) {
+          union(parents, indexes.get(port), j);
+        }
+      }
+    }
+
+    // number the components in the order of their first building
+    componentOf = new int[n];
+    int[] roots = new int[n];
+    Arrays.fill(roots, -1);
+    for (int i = 0; i < n; i++) {
+      int root = find(parents, i);
+      if (roots[root] == -1) {
+        roots[root] = components.size();
+        components.add(new ArrayList<>());
+      }
+      componentOf[i] = roots[root];
+      components.get(componentOf[i]).add(buildings.get(i));
+    }
+  }
+
+  /**
+   * Checks if the components are still valid for a world, i.e. its buildings
+   * have not changed since they were built.
+   *
+   * @param world is the world to check.
+   * @return true if the components can still be used for the world.
+   */
+  public boolean isUpToDate(World world) {
+    return world == this.world && world.getBuildings() == buildings
+        && world.getBuildings().size() == componentOf.length && world.getVersion() == worldVersion;
+  }
+
+  /**
+   * Gets the number of components.
+   *
+   * @return the number of components.
+   */
+  public int getNumOfComponents() {
+    return components.size();
+  }
+
+  /**
+   * Gets the component of the building at an index of the world's building
+   * list.
+   *
+   * @param index is the index of the building.
+   * @return the component of the building.
+   */
+  public int getComponentOf(int index) {
+    return componentOf[index];
+  }
+
+  /**
+   * Gets the buildings of a component, in world order.
+   *
+   * @param component is the component.
+   * @return the buildings of the component.
+   */
+  public List<Building> getBuildings(int component) {
+    return Collections.unmodifiableList(components.get(component));
+  }
+
+  /**
+   * Checks if two buildings are in the same component.
+   *
+   * @param a is the first building.
+   * @param b is the second building.
+   * @return true if they are in the same component, false otherwise.
+   */
+  public boolean isConnected(Building a, Building b) {
+    int i = indexOf(a);
+    int j = indexOf(b);
+    return i != -1 && j != -1 && componentOf[i] == componentOf[j];
+  }
+
+  private int indexOf(Building building) {
+    for (int i = 0; i < buildings.size(); i++) {
+      if (buildings.get(i) == building) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int find(int[] parents, int i) {
+    while (parents[i] != i) {
+      parents[i] = parents[parents[i]];
+      i = parents[i];
+    }
+    return i;
+  }
+
+  /**
+   * Merges the components of two buildings. Buildings that are not part of the
+   * world (null index) are ignored.
+   */
+  private static void union(int[] parents, int i, Integer j) {
+    if (j == null) {
+      return;
+    }
+    int a = find(parents, i);
+    int b = find(parents, j);
+    if (a != b) {
+      parents[Math.max(a, b)] = Math.min(a, b);
+    }
+  }
+}
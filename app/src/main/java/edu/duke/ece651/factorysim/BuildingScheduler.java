@@ -0,0 +1,417 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps track of the buildings that have work to do, so that a time step only
+ * steps those buildings (still in world order) instead of every building.<br/>
+ * A building is woken up when it gets a request, receives items, or one of the
+ * requests it is waiting for is picked up by a source. It is also woken up when
+ * its own deadline comes, such as a storage refill or the end of a waste
+ * disposal batch. After each time step, every building that stepped goes back
+ * to sleep until its next deadline if `getStepsToNextEvent` says it has nothing
+ * to do for now. Buildings processing a request always stay awake.<br/>
+ * The scheduler also keeps count of the unfinished buildings. Since every
+ * change to a building's requests or waste either happens in its own step or
+ * wakes it up, only the buildings stepped or woken up since the last check need
+ * to be looked at again.<br/>
+ * Given a `ForkJoinPool`, a time step is split into two phases. First, the
+ * awake buildings plan their steps in parallel, which only reads their own
+ * state. Then they step one by one in world order, so that everything they do
+ * to other buildings happens in the same order as without a pool. The checks
+ * for which buildings can go back to sleep are done in parallel too, since
+ * nothing changes while they run.<br/>
+ * Buildings of different connected components never affect each other, so
+ * `stepShards` can step each component on its own thread instead.
+ */
+public class BuildingScheduler {
+  private World world;
+  private List<Building> buildings;
+  private int worldVersion;
+
+  private Building[] order = new Building[0];
+  private final IdentityHashMap<Building, Integer> indexes = new IdentityHashMap<>();
+  private final BitSet active = new BitSet();
+  // the time step at which each sleeping building must wake up
+  private int[] wakeTimes = new int[0];
+  // the last time step each building's countdowns have been applied for
+  private int[] updatedTimes = new int[0];
+  // wake-up timers encoded as (wake time << 32 | index), possibly outdated
+  private final PriorityQueue<Long> timers = new PriorityQueue<>();
+  private final List<Integer> stepped = new ArrayList<>();
+
+  // below this many buildings, running in parallel costs more than it saves
+  private int parallelThreshold = 64;
+
+  // whether each building was finished when last checked
+  private boolean[] finished = new boolean[0];
+  private int numOfUnfinished = 0;
+  // buildings that may have changed since the last check
+  private final BitSet changed = new BitSet();
+
+  /**
+   * Sets the least number of buildings for which planning or checking them is
+   * done in parallel when a pool is given.
+   *
+   * @param parallelThreshold is the least number of buildings.
+   */
+  void setParallelThreshold(int parallelThreshold) {
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /**
+   * Wakes up a building so it steps in the next time step (or later in the
+   * current one, if it comes after the building being stepped).
+   *
+   * @param building is the building to wake up.
+   */
+  public void wakeUp(Building building) {
+    Integer index = indexes.get(building);
+    if (index != null) {
+      // while components step on their own threads, each keeps its own wake-ups
+      Shard shard = Shard.current();
+      (shard == null ? active : shard.active).set(index);
+      (shard == null ? changed : shard.changed).set(index);
+    }
+  }
+
+  /**
+   * Wakes up all buildings, e.g. when something that affects every building
+   * changes.
+   */
+  public void wakeUpAll() {
+    active.set(0, order.length);
+    changed.set(0, order.length);
+  }
+
+  /**
+   * Checks if a building is currently scheduled to step.
+   *
+   * @param building is the building to check.
+   * @return true if the building is awake, false if it is sleeping.
+   */
+  public boolean isAwake(Building building) {
+    Integer index = indexes.get(building);
+    return index != null && active.get(index);
+  }
+
+  /**
+   * Gets the number of buildings currently scheduled to step.
+   *
+   * @return the number of awake buildings.
+   */
+  public int getNumOfAwakeBuildings() {
+    return active.cardinality();
+  }
+
+  /**
+   * Steps all awake buildings of the world in world order for the given time
+   * step. Call `sleepIdleBuildings` once the time step is over.
+   *
+   * @param world is the world whose buildings to step.
+   * @param time  is the current time step.
+   */
+  public void step(World world, int time) {
+    step(world, time, null);
+  }
+
+  /**
+   * Steps all awake buildings of the world in world order for the given time
+   * step, planning their steps in parallel first if a pool is given. Call
+   * `sleepIdleBuildings` once the time step is over.
+   *
+   * @param world is the world whose buildings to step.
+   * @param time  is the current time step.
+   * @param pool  is the pool to plan on, or null to plan while stepping.
+   */
+  public void step(World world, int time, ForkJoinPool pool) {
+    prepare(world, time);
+    if (pool != null && active.cardinality() >= parallelThreshold) {
+      int[] planned = active.stream().toArray();
+      for (int i : planned) {
+        catchUp(i, time);
+      }
+      pool.submit(() -> IntStream.of(planned).parallel().forEach(i -> order[i].planStep())).join();
+    }
+    // buildings woken up by earlier ones are stepped too, without a plan
+    for (int i = active.nextSetBit(0); i >= 0; i = active.nextSetBit(i + 1)) {
+      catchUp(i, time);
+      order[i].step();
+      updatedTimes[i] = time;
+      stepped.add(i);
+      changed.set(i);
+    }
+  }
+
+  /**
+   * Steps all awake buildings of the world for the given time step, each
+   * connected component on its own thread of the pool. Within a component the
+   * buildings still step in world order. If there are too few awake buildings
+   * or only one component has any, they all step on the current thread.<br/>
+   * The wake-ups of every component are merged back before returning, but the
+   * log messages, deliveries and order numbers are left in the returned shards
+   * for the caller to merge. Call `sleepIdleBuildings` once the time step is
+   * over.
+   *
+   * @param world        is the world whose buildings to step.
+   * @param time         is the current time step.
+   * @param pool         is the pool to step on.
+   * @param components   is the connected components of the world.
+   * @param baseOrderNum is the next order number of the simulation.
+   * @return the shards that stepped on the pool, ordered by component, or an
+   *         empty list if all buildings stepped on the current thread.
+   */
+  List<Shard> stepShards(World world, int time, ForkJoinPool pool, BuildingComponents components,
+      int baseOrderNum) {
+    prepare(world, time);
+    Map<Integer, Shard> shardsByComponent = new TreeMap<>();
+    for (int i = active.nextSetBit(0); i >= 0; i = active.nextSetBit(i + 1)) {
+      int component = components.getComponentOf(i);
+      shardsByComponent.computeIfAbsent(component,
+          c -> new Shard(components.getBuildings(c), baseOrderNum)).active.set(i);
+    }
+    if (shardsByComponent.size() < 2 || active.cardinality() < parallelThreshold) {
+      step(world, time);
+      return List.of();
+    }
+
+    List<Shard> shards = new ArrayList<>(shardsByComponent.values());
+    pool.submit(() -> shards.parallelStream().forEach(shard -> stepShard(shard, time))).join();
+
+    for (Shard shard : shards) {
+      active.or(shard.active);
+      changed.or(shard.changed);
+      stepped.addAll(shard.stepped);
+    }
+    Collections.sort(stepped);
+    return shards;
+  }
+
+  /**
+   * Steps the awake buildings of a component in world order, stopping at the
+   * first building that fails.
+   *
+   * @param shard is the shard of the component.
+   * @param time  is the current time step.
+   */
+  private void stepShard(Shard shard, int time) {
+    Shard.setCurrent(shard);
+    try {
+      for (int i = shard.active.nextSetBit(0); i >= 0; i = shard.active.nextSetBit(i + 1)) {
+        shard.startStep(i);
+        catchUp(i, time);
+        order[i].step();
+        updatedTimes[i] = time;
+        shard.stepped.add(i);
+        shard.changed.set(i);
+      }
+    } catch (RuntimeException e) {
+      shard.fail(e);
+    } finally {
+      Shard.setCurrent(null);
+    }
+  }
+
+  /**
+   * Puts the buildings that stepped in the last time step back to sleep if
+   * they have nothing to do for now, setting up timers for their deadlines.
+   *
+   * @param nextTime is the time step that comes next.
+   */
+  public void sleepIdleBuildings(int nextTime) {
+    sleepIdleBuildings(nextTime, null);
+  }
+
+  /**
+   * Puts the buildings that stepped in the last time step back to sleep if
+   * they have nothing to do for now, checking them in parallel if a pool is
+   * given.
+   *
+   * @param nextTime is the time step that comes next.
+   * @param pool     is the pool to check on, or null to check one by one.
+   */
+  public void sleepIdleBuildings(int nextTime, ForkJoinPool pool) {
+    int[] steps = new int[stepped.size()];
+    if (pool != null && steps.length >= parallelThreshold) {
+      pool.submit(() -> IntStream.range(0, steps.length).parallel()
+          .forEach(j -> steps[j] = getStepsToSleep(order[stepped.get(j)]))).join();
+    } else {
+      for (int j = 0; j < steps.length; j++) {
+        steps[j] = getStepsToSleep(order[stepped.get(j)]);
+      }
+    }
+    for (int j = 0; j < steps.length; j++) {
+      int i = stepped.get(j);
+      if (steps[j] > 1) {
+        active.clear(i);
+        if (steps[j] != Integer.MAX_VALUE) {
+          wakeTimes[i] = nextTime + steps[j] - 1;
+          timers.add(((long) wakeTimes[i] << 32) | i);
+        }
+      }
+    }
+    stepped.clear();
+  }
+
+  /**
+   * Gets the number of steps a building that just stepped could sleep for.
+   *
+   * @param building is the building to check.
+   * @return 1 if the building must stay awake, otherwise the number of steps
+   *         until its next event.
+   */
+  private static int getStepsToSleep(Building building) {
+    // buildings processing a request always stay awake
+    return building.isProcessing() ? 1 : building.getStepsToNextEvent();
+  }
+
+  /**
+   * Checks if all buildings of the world have finished all their requests and
+   * waste disposal.
+   *
+   * @param world is the world whose buildings to check.
+   * @param time  is the current time step.
+   * @return true if all buildings are finished, false otherwise.
+   */
+  public boolean allFinished(World world, int time) {
+    prepare(world, time);
+    for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+      boolean isFinished = order[i].isFinished();
+      if (isFinished != finished[i]) {
+        finished[i] = isFinished;
+        numOfUnfinished += isFinished ? -1 : 1;
+      }
+    }
+    changed.clear();
+    return numOfUnfinished == 0;
+  }
+
+  /**
+   * Gets the number of time steps until the next building event.
+   *
+   * @param world is the world whose buildings to check.
+   * @param time  is the current time step.
+   * @return the number of steps until the next event (at least 1), or
+   *         Integer.MAX_VALUE if no building will do anything.
+   */
+  public int getStepsToNextEvent(World world, int time) {
+    prepare(world, time);
+    int steps = Integer.MAX_VALUE;
+    for (int i = active.nextSetBit(0); i >= 0; i = active.nextSetBit(i + 1)) {
+      catchUp(i, time);
+      steps = Math.min(steps, order[i].getStepsToNextEvent());
+    }
+    if (!timers.isEmpty()) {
+      int wakeTime = (int) (timers.peek() >> 32);
+      steps = Math.min(steps, wakeTime - time + 1);
+    }
+    return steps;
+  }
+
+  /**
+   * Applies the countdowns of the skipped idle steps to the awake buildings.
+   * Sleeping buildings catch up when they wake up.
+   *
+   * @param world is the world whose buildings to advance.
+   * @param time  is the current time step.
+   * @param steps is the number of steps being skipped.
+   */
+  public void skip(World world, int time, int steps) {
+    prepare(world, time);
+    for (int i = active.nextSetBit(0); i >= 0; i = active.nextSetBit(i + 1)) {
+      catchUp(i, time + steps);
+    }
+  }
+
+  /**
+   * Applies the countdowns every sleeping building missed so far, so that the
+   * state of all buildings is up to date for the given time step, e.g. before
+   * they are copied.
+   *
+   * @param world is the world whose buildings to update.
+   * @param time  is the current time step.
+   */
+  public void catchUpAll(World world, int time) {
+    prepare(world, time);
+    for (int i = 0; i < order.length; i++) {
+      catchUp(i, time);
+    }
+  }
+
+  /**
+   * Rebuilds the schedule if the buildings of the world changed, and wakes up
+   * the buildings whose deadline has come.
+   *
+   * @param world is the world being simulated.
+   * @param time  is the current time step.
+   */
+  private void prepare(World world, int time) {
+    if (world != this.world || world.getBuildings() != buildings || world.getBuildings().size() != order.length
+        || world.getVersion() != worldVersion) {
+      rebuild(world, time);
+    }
+    while (!timers.isEmpty()) {
+      long timer = timers.peek();
+      int wakeTime = (int) (timer >> 32);
+      int index = (int) timer;
+      if (active.get(index) || wakeTimes[index] != wakeTime) {
+        // outdated timer of a building that has been woken up since
+        timers.poll();
+      } else if (wakeTime <= time) {
+        timers.poll();
+        active.set(index);
+      } else {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Rebuilds the schedule from the world's buildings. Every building is woken
+   * up, while buildings already known keep track of their pending countdowns.
+   *
+   * @param world is the world being simulated.
+   * @param time  is the current time step.
+   */
+  private void rebuild(World world, int time) {
+    int[] oldUpdatedTimes = updatedTimes;
+    IdentityHashMap<Building, Integer> oldIndexes = new IdentityHashMap<>(indexes);
+
+    this.world = world;
+    this.buildings = world.getBuildings();
+    this.worldVersion = world.getVersion();
+    order = buildings.toArray(new Building[0]);
+    wakeTimes = new int[order.length];
+    updatedTimes = new int[order.length];
+    finished = new boolean[order.length];
+    numOfUnfinished = order.length;
+    indexes.clear();
+    for (int i = 0; i < order.length; i++) {
+      indexes.put(order[i], i);
+      Integer oldIndex = oldIndexes.get(order[i]);
+      updatedTimes[i] = oldIndex == null ? time - 1 : oldUpdatedTimes[oldIndex];
+    }
+    timers.clear();
+    active.clear();
+    active.set(0, order.length);
+    changed.clear();
+    changed.set(0, order.length);
+  }
+
+  /**
+   * Applies the countdowns a building missed while sleeping, so that its state
+   * is up to date for the given time step.
+   *
+   * @param index is the index of the building.
+   * @param time  is the time step about to be simulated.
+   */
+  private void catchUp(int index, int time) {
+    int missed = time - updatedTimes[index] - 1;
+    if (missed > 0) {
+      order[index].advance(missed);
+      updatedTimes[index] = time - 1;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package edu.duke.ece651.factorysim;
+
+/**
+ * Stores the tiles of a board in square chunks of CHUNK_SIZE x CHUNK_SIZE
+ * tiles, only for the chunks where some tile is not at code 0 with no flow.
+ * Other chunks take a null reference each, so very large boards that are
+ * mostly empty road fit in memory.<br/>
+ * A chunk is made when one of its tiles is first set to something else, and
+ * dropped again once all of its tiles are back to the default.
+ */
+final class ChunkedTileStorage implements TileStorage {
+  static final int CHUNK_BITS = 6;
+  static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int MASK = CHUNK_SIZE - 1;
+
+  /**
+   * The tiles of one chunk, indexed by (y % CHUNK_SIZE) * CHUNK_SIZE +
+   * x % CHUNK_SIZE.
+   */
+  private static final class Chunk {
+    final byte[] types = new byte[CHUNK_SIZE * CHUNK_SIZE];
+    final byte[] flows = new byte[CHUNK_SIZE * CHUNK_SIZE];
+    // the number of tiles that are not at the default
+    int numOfSet = 0;
+
+    Chunk copy() {
+      Chunk copy = new Chunk();
+      System.arraycopy(types, 0, copy.types, 0, types.length);
+      System.arraycopy(flows, 0, copy.flows, 0, flows.length);
+      copy.numOfSet = numOfSet;
+      return copy;
+    }
+  }
+
+  private final int chunksPerRow;
+  private final Chunk[] chunks;
+  private int numOfChunks = 0;
+
+  /**
+   * Constructs the storage of a board, with every tile at code 0 and no flow.
+   *
+   * @param width  is the width of the board.
+   * @param height is the height of the board.
+   * @throws IllegalArgumentException if the board has too many chunks.
+   */
+  ChunkedTileStorage(int width, int height) {
+    this.chunksPerRow = (width + MASK) >> CHUNK_BITS;
+    long numOfChunkSlots = (long) chunksPerRow * ((height + MASK) >> CHUNK_BITS);
+    if (numOfChunkSlots > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Board of " + width + " x " + height + " is too large");
+    }
+    this.chunks = new Chunk[(int) numOfChunkSlots];
+  }
+
+  private ChunkedTileStorage(ChunkedTileStorage original) {
+    this.chunksPerRow = original.chunksPerRow;
+    this.chunks = new Chunk[original.chunks.length];
+    for (int i = 0; i < chunks.length; i++) {
+      if (original.chunks[i] != null) {
+        chunks[i] = original.chunks[i].copy();
+      }
+    }
+    this.numOfChunks = original.numOfChunks;
+  }
+
+  /**
+   * Gets the number of chunks that are allocated.
+   *
+   * @return the number of allocated chunks.
+   */
+  int getNumOfChunks() {
+    return numOfChunks;
+  }
+
+  private int chunkIndexOf(int x, int y) {
+    return (y >> CHUNK_BITS) * chunksPerRow + (x >> CHUNK_BITS);
+  }
+
+  private static int tileIndexOf(int x, int y) {
+    return (y & MASK) << CHUNK_BITS | (x & MASK);
+  }
+
+  @Override
+  public int getType(int x, int y) {
+    Chunk chunk = chunks[chunkIndexOf(x, y)];
+    return chunk == null ? 0 : chunk.types[tileIndexOf(x, y)];
+  }
+
+  @Override
+  public void setType(int x, int y, int code) {
+    set(x, y, code, true);
+  }
+
+  @Override
+  public int getFlows(int x, int y) {
+    Chunk chunk = chunks[chunkIndexOf(x, y)];
+    return chunk == null ? 0 : chunk.flows[tileIndexOf(x, y)] & 0xff;
+  }
+
+  @Override
+  public void setFlows(int x, int y, int flows) {
+    set(x, y, flows, false);
+  }
+
+  private void set(int x, int y, int value, boolean isType) {
+    int chunkIndex = chunkIndexOf(x, y);
+    Chunk chunk = chunks[chunkIndex];
+    if (chunk == null) {
+      if (value == 0) {
+        return;
+      }
+      chunk = new Chunk();
+      chunks[chunkIndex] = chunk;
+      numOfChunks++;
+    }
+    int i = tileIndexOf(x, y);
+    boolean wasSet = chunk.types[i] != 0 || chunk.flows[i] != 0;
+    if (isType) {
+      chunk.types[i] = (byte) value;
+    } else {
+      chunk.flows[i] = (byte) value;
+    }
+    boolean isSet = chunk.types[i] != 0 || chunk.flows[i] != 0;
+    if (wasSet != isSet) {
+      chunk.numOfSet += isSet ? 1 : -1;
+      if (chunk.numOfSet == 0) {
+        chunks[chunkIndex] = null;
+        numOfChunks--;
+      }
+    }
+  }
+
+  /**
+   * Lists the tiles that are set chunk by chunk, skipping the chunks that are
+   * not allocated.
+   */
+  @Override
+  public void forEachSet(TileVisitor visitor) {
+    for (int chunkIndex = 0; chunkIndex < chunks.length; chunkIndex++) {
+      Chunk chunk = chunks[chunkIndex];
+      if (chunk == null) {
+        continue;
+      }
+      int baseX = (chunkIndex % chunksPerRow) << CHUNK_BITS;
+      int baseY = (chunkIndex / chunksPerRow) << CHUNK_BITS;
+      for (int i = 0; i < chunk.types.length; i++) {
+        if (chunk.types[i] != 0 || chunk.flows[i] != 0) {
+          visitor.visit(baseX + (i & MASK), baseY + (i >> CHUNK_BITS));
+        }
+      }
+    }
+  }
+
+  @Override
+  public TileStorage copy() {
+    return new ChunkedTileStorage(this);
+  }
+}
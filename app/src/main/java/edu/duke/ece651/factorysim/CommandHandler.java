@@ -25,6 +25,9 @@ public class CommandHandler {
         registerCommand(new ConnectCommand());
         registerCommand(new DBSaveCommand());
         registerCommand(new DBLoadCommand());
+        registerCommand(new EngineCommand());
+        registerCommand(new SnapshotCommand());
+        registerCommand(new RestoreCommand());
     }
 
     /**
@@ -45,6 +45,9 @@ public class Coordinate {
    */
   @Override
   public boolean equals(Object object) {
+    if (object == this) {
+      return true;
+    }
     if (object.getClass().equals(getClass())) {
       Coordinate coordinate = (Coordinate) object;
       return x == coordinate.x && y == coordinate.y;
@@ -63,14 +66,14 @@ public class Coordinate {
   }
 
   /**
-   * Generates hashcode for a Coordinate.
-   * (Use the fact that Java's String have a good hashcode)
+   * Generates hashcode for a Coordinate by packing x and y into an int, which
+   * is distinct for every coordinate on the board and needs no allocation.
    * 
    * @return hashcode of a Coordinate.
    */
   @Override
   public int hashCode() {
-    return toString().hashCode();
+    return (x << 16) ^ y;
   }
 
   public Coordinate getNextCoord(int dir) {
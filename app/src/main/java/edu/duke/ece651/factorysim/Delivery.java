@@ -3,21 +3,38 @@ package edu.duke.ece651.factorysim;
 import com.google.gson.JsonObject;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a delivery of a specific item from a source building to a
  * destination building.
  * Each delivery contains an item, its quantity, and a remaining delivery time.
+ * Units of the same item that leave for the same destination together travel
+ * as one delivery, which arrives as each of them would have one by one.
  */
 public class Delivery {
   final Building source;
   final Building destination;
   final Item item;
-  final int quantity;
+  int quantity;
+  // the number of units travelling together, each of quantity / numOfUnits
+  int numOfUnits = 1;
   int deliveryTime;
   int pathIndex;
   int stepIndex;
+  // the coordinate of a delivery without a path, e.g. a drone's
   Coordinate currentCoordinate;
+  // the path the delivery travels along, found on first use if not given
+  Path path = null;
+
+  // while in a schedule, deliveryTime and stepIndex are as of the schedule's
+  // time syncedAt, and are brought up to date when they are read
+  DeliverySchedule schedule = null;
+  long syncedAt = 0;
+  // the schedule's time at which the delivery's next event happens
+  long eventTime = 0;
+  // the index of the delivery among the deliveries of its schedule
+  int indexInSchedule = -1;
 
   /**
    * Constructs a Delivery object with specified source, destination, item,
@@ -52,6 +69,21 @@ public class Delivery {
     this.currentCoordinate = source.getLocation();
   }
 
+  /**
+   * Constructs a delivery along a path, taking as long as the path.
+   *
+   * @param source      the source building from which the item originates
+   * @param destination the destination building to which the item is delivered
+   * @param item        the item being delivered
+   * @param quantity    the number of items being delivered
+   * @param path        the path between the buildings
+   * @param pathIndex   the index of the path in the simulation's path list
+   */
+  Delivery(Building source, Building destination, Item item, int quantity, Path path, int pathIndex) {
+    this(source, destination, item, quantity, path.getDeliveryTime(), pathIndex);
+    this.path = path;
+  }
+
   public Delivery(Building source, Building destination, Item item, int quantity, int deliveryTime, int pathIndex,
       int stepIndex, Coordinate currentCoordinate) {
     this.source = source;
@@ -64,6 +96,58 @@ public class Delivery {
     this.currentCoordinate = currentCoordinate;
   }
 
+  /**
+   * Copies this delivery for a copy of the simulation.
+   *
+   * @param copies is the copy of each building of the original simulation.
+   * @return the copy of this delivery, between the copied buildings.
+   */
+  Delivery copyFor(Map<Building, Building> copies) {
+    sync();
+    Delivery copy = new Delivery(copies.get(source), copies.get(destination), item, quantity, deliveryTime, pathIndex,
+        stepIndex, currentCoordinate);
+    // paths never change, so the copy of the simulation shares them
+    copy.path = path;
+    copy.numOfUnits = numOfUnits;
+    return copy;
+  }
+
+  /**
+   * Brings the delivery time and step index up to date with the time of the
+   * schedule the delivery is in, short of its next event, which the schedule
+   * steps itself.
+   */
+  void sync() {
+    if (schedule != null) {
+      long elapsed = Math.min(schedule.getTime(), eventTime - 1) - syncedAt;
+      if (elapsed > 0) {
+        syncedAt += elapsed;
+        advance((int) elapsed);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of cycles left until the delivery arrives, or until the
+   * current flight of a drone ends.
+   *
+   * @return the remaining delivery time.
+   */
+  public int getDeliveryTime() {
+    sync();
+    return deliveryTime;
+  }
+
+  /**
+   * Gets the number of steps the delivery has made along its path.
+   *
+   * @return the step index.
+   */
+  public int getStepIndex() {
+    sync();
+    return stepIndex;
+  }
+
   /**
    * Decreases the delivery time by one cycle, simulating one timestep in the
    * simulation.
@@ -75,12 +159,34 @@ public class Delivery {
     }
   }
 
+  /**
+   * Gets the number of time steps until this delivery arrives.
+   *
+   * @return the number of steps until arrival, at least 1.
+   */
+  public int getStepsToNextEvent() {
+    sync();
+    return Math.max(1, deliveryTime);
+  }
+
+  /**
+   * Moves the delivery forward by several cycles at once.
+   * Precondition: steps < getStepsToNextEvent()
+   *
+   * @param steps the number of cycles to move forward.
+   */
+  public void advance(int steps) {
+    deliveryTime -= steps;
+    stepIndex += steps;
+  }
+
   /**
    * Checks whether the delivery has arrived at its destination.
    *
    * @return true if deliveryTime is 0, indicating arrival; false otherwise
    */
   public boolean isArrive() {
+    sync();
     return deliveryTime == 0;
   }
 
@@ -90,23 +196,104 @@ public class Delivery {
    * Should only be called when the delivery has arrived.
    */
   public void finishDelivery() {
-    destination.addToStorage(item, quantity);
+    deliver(source, destination, item, quantity, numOfUnits);
+  }
+
+  /**
+   * Hands the units of an arrived delivery over to its destination, one by one.
+   *
+   * @param source      the source building of the delivery
+   * @param destination the destination building of the delivery
+   * @param item        the item delivered
+   * @param quantity    the quantity of all units together
+   * @param numOfUnits  the number of units
+   */
+  static void deliver(Building source, Building destination, Item item, int quantity, int numOfUnits) {
+    int unitQuantity = quantity / numOfUnits;
+    for (int i = 0; i < numOfUnits; i++) {
+      destination.addToStorage(item, unitQuantity);
 
-    // if delivering to a waste disposal building, release reserved capacity
-    if (destination instanceof WasteDisposalBuilding) {
-      WasteDisposalBuilding wasteDisposal = (WasteDisposalBuilding) destination;
-      wasteDisposal.releaseReservedCapacity(item, quantity);
+      // if delivering to a waste disposal building, release reserved capacity
+      if (destination instanceof WasteDisposalBuilding) {
+        WasteDisposalBuilding wasteDisposal = (WasteDisposalBuilding) destination;
+        wasteDisposal.releaseReservedCapacity(item, unitQuantity);
+      }
+
+      source.getSimulation().onIngredientDelivered(item, destination, source);
     }
+  }
+
+  /**
+   * Checks if a unit can join this delivery, i.e. if it would travel the same
+   * path from the start, with the same quantity as each unit of this delivery.
+   *
+   * @param src      the source building of the unit
+   * @param dst      the destination building of the unit
+   * @param item     the item of the unit
+   * @param quantity the quantity of the unit
+   * @param path     the path the unit would travel along
+   * @return true if the unit can join, false otherwise
+   */
+  boolean canJoin(Building src, Building dst, Item item, int quantity, Path path) {
+    return this.path == path && source == src && destination == dst && this.item.equals(item)
+        && this.quantity == quantity * numOfUnits && getStepIndex() == 0
+        && getDeliveryTime() == path.getDeliveryTime();
+  }
 
-    source.getSimulation().onIngredientDelivered(item, destination, source);
+  /**
+   * Adds a unit to this delivery. The unit must be able to join it.
+   *
+   * @param quantity the quantity of the unit
+   */
+  void join(int quantity) {
+    this.quantity += quantity;
+    numOfUnits++;
+  }
+
+  /**
+   * Gets the number of units travelling together in this delivery.
+   *
+   * @return the number of units
+   */
+  public int getNumOfUnits() {
+    return numOfUnits;
   }
 
+  /**
+   * Looks the delivery's path up among the given paths, if the delivery does
+   * not have it yet. The delivery's coordinate follows from its path and step
+   * index whenever it is read, so nothing else needs updating.
+   *
+   * @param pathList the paths between buildings.
+   */
   public void updateCurrentCoordinate(List<Path> pathList) {
-    for (Path path : pathList) {
-        if (path.isMatch(source.getLocation(), destination.getLocation())) {
-            currentCoordinate=path.getSteps().get(stepIndex);
-        }
+    hasPathFrom(pathList);
+  }
+
+  /**
+   * Looks the delivery's path up among the given paths if it does not have it
+   * yet, and keeps it from then on.
+   *
+   * @param pathList the paths between buildings.
+   * @return true if the delivery has its path, or does not travel on one.
+   */
+  boolean hasPathFrom(List<Path> pathList) {
+    if (path == null) {
+      path = findPath(pathList);
+    }
+    return path != null;
+  }
+
+  private Path findPath(List<Path> pathList) {
+    if (pathList instanceof RouteTable) {
+      return ((RouteTable) pathList).get(source.getLocation(), destination.getLocation());
+    }
+    for (Path candidate : pathList) {
+      if (candidate.isMatch(source.getLocation(), destination.getLocation())) {
+        return candidate;
+      }
     }
+    return null;
   }
 
     /**
@@ -119,8 +306,17 @@ public class Delivery {
         return path.isMatch(source.getLocation(), destination.getLocation());
     }
 
+  /**
+   * Gets the coordinate of the delivery: its current step along its path, or
+   * where it started while its path is not known.
+   *
+   * @return the current coordinate.
+   */
   public Coordinate getCurrentCoordinate() {
-    return currentCoordinate;
+    if (path == null) {
+      return currentCoordinate;
+    }
+    return path.getSteps().get(getStepIndex());
   }
 
   /**
@@ -130,17 +326,20 @@ public class Delivery {
    *         name, quantity, and delivery time
    */
   public JsonObject toJson() {
+    sync();
     JsonObject json = new JsonObject();
 
     json.addProperty("source", source.getName());
     json.addProperty("destination", destination.getName());
     json.addProperty("item", item.getName());
     json.addProperty("quantity", quantity);
+    json.addProperty("units", numOfUnits);
     json.addProperty("deliveryTime", deliveryTime);
     json.addProperty("pathIndex", pathIndex);
     json.addProperty("stepIndex", stepIndex);
-    json.addProperty("x", currentCoordinate.getX());
-    json.addProperty("y", currentCoordinate.getY());
+    Coordinate coordinate = getCurrentCoordinate();
+    json.addProperty("x", coordinate.getX());
+    json.addProperty("y", coordinate.getY());
     return json;
   }
 }
@@ -3,24 +3,154 @@ package edu.duke.ece651.factorysim;
 import com.google.gson.JsonArray;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 
 /**
  * Represents a schedule of deliveries in the simulation.
- * Manages a list of deliveries and updates them over simulation time.
+ * Manages a list of deliveries and updates them over simulation time.<br/>
+ * Deliveries are kept in a calendar keyed by the time of their next event
+ * (an arrival, or the end of a drone's flight), with one bucket per time step
+ * for the next WHEEL_SIZE steps and a priority queue for later events. A step
+ * only touches the deliveries whose event is due; the delivery time and step
+ * index of the others are brought up to date when they are read. The events of
+ * a step happen in the order the deliveries were added, as if every delivery
+ * were stepped in turn.<br/>
+ * Each delivery takes a slot, in the order they were added. A delivery added
+ * as an object, like a drone delivery, keeps its object in its slot. A road
+ * delivery sent by a building is only kept as data, in primitive columns
+ * indexed by slot, and its arrival is processed from the columns. It is made
+ * into a Delivery object, which then takes over its slot, once something asks
+ * for the deliveries themselves. Listeners are handed such a delivery as an
+ * object that is not in the schedule, holding its state at the time of the
+ * event.
  */
 public class DeliverySchedule {
-    List<Delivery> deliveryList= new ArrayList<>();
+    private static final int WHEEL_BITS = 10;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * An event later than the wheel reaches.
+     */
+    private static final class Event {
+        final long time;
+        final int slot;
+
+        Event(long time, int slot) {
+            this.time = time;
+            this.slot = slot;
+        }
+    }
+
+    /**
+     * Numbers the buildings, items and paths the columns refer to, by
+     * identity.
+     */
+    private static final class Table<T> {
+        final List<T> values = new ArrayList<>();
+        final Map<T, Integer> ids = new IdentityHashMap<>();
+
+        int idOf(T value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = values.size();
+                values.add(value);
+                ids.put(value, id);
+            }
+            return id;
+        }
+
+        T get(int id) {
+            return values.get(id);
+        }
+
+        void clear() {
+            values.clear();
+            ids.clear();
+        }
+    }
+
+    // the slots in use, in the order their deliveries were added; removed
+    // deliveries leave a gap until the gaps make up half of the slots
+    private int numOfSlots = 0;
+    private int numOfDeliveries = 0;
+    // the delivery object of each slot, or null for a road delivery kept as data
+    private Delivery[] objects = new Delivery[INITIAL_CAPACITY];
+    // the columns of the road deliveries kept as data; numOfUnits is 0 once the
+    // delivery is removed
+    private int[] sources = new int[INITIAL_CAPACITY];
+    private int[] destinations = new int[INITIAL_CAPACITY];
+    private int[] items = new int[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private int[] numsOfUnits = new int[INITIAL_CAPACITY];
+    private int[] routes = new int[INITIAL_CAPACITY];
+    private int[] pathIndexes = new int[INITIAL_CAPACITY];
+    // the delivery time and step index as of the time syncedAt, as in Delivery
+    private int[] deliveryTimes = new int[INITIAL_CAPACITY];
+    private int[] stepIndexes = new int[INITIAL_CAPACITY];
+    private long[] syncedAts = new long[INITIAL_CAPACITY];
+    private long[] eventTimes = new long[INITIAL_CAPACITY];
+    // rebuilt from the live slots when the slots are compacted
+    private Table<Building> buildingTable = new Table<>();
+    private Table<Item> itemTable = new Table<>();
+    private Table<Path> routeTable = new Table<>();
+
+    // the slots whose event is at each of the next WHEEL_SIZE times
+    private final int[][] wheel = new int[WHEEL_SIZE][];
+    private final int[] bucketSizes = new int[WHEEL_SIZE];
+    private final PriorityQueue<Event> later = new PriorityQueue<>(Comparator.comparingLong(event -> event.time));
+    // the deliveries that may still need to look up their path
+    private final List<Delivery> pathless = new ArrayList<>();
+    // the number of steps taken
+    private long time = 0;
+    // the slot added last, and the time it was added at
+    private int lastSlot = -1;
+    private long lastAddedAt = -1;
+    // slots keep their indexes while a step goes through the due ones
+    private boolean isStepping = false;
 
     private final List<DeliveryListener> listeners = new ArrayList<>();
 
+    /**
+     * Constructs an empty schedule.
+     */
+    public DeliverySchedule() {
+    }
+
+    /**
+     * Gets the number of steps taken by the schedule, against which deliveries
+     * keep their times.
+     *
+     * @return the number of steps taken
+     */
+    long getTime() {
+        return time;
+    }
+
     /**
      * Adds a delivery to the schedule.
      *
      * @param delivery the Delivery to be added
      */
     public void addDelivery(Delivery delivery) {
-        deliveryList.add(delivery);
+        int slot = newSlot();
+        objects[slot] = delivery;
+        delivery.schedule = this;
+        delivery.syncedAt = time;
+        delivery.indexInSchedule = slot;
+        numOfDeliveries++;
+        delivery.eventTime = time + delivery.getStepsToNextEvent();
+        scheduleEvent(slot, delivery.eventTime);
+        if (delivery.path == null) {
+            pathless.add(delivery);
+        }
 
         // Tell all listeners a delivery has been added
         for (DeliveryListener listener : listeners) {
@@ -28,40 +158,496 @@ public class DeliverySchedule {
         }
     }
 
+    /**
+     * Adds a road delivery of one unit that starts at the beginning of its
+     * path. If the delivery added last was added in this step and the unit can
+     * join it, it joins it instead.
+     *
+     * @param source      the source building
+     * @param destination the destination building
+     * @param item        the item being delivered
+     * @param quantity    the quantity of the unit
+     * @param path        the path between the buildings
+     * @param pathIndex   the index of the path in the simulation's path list
+     */
+    void addRoadDelivery(Building source, Building destination, Item item, int quantity, Path path, int pathIndex) {
+        if (!joinLast(source, destination, item, quantity, path)) {
+            addRoad(source, destination, item, quantity, 1, path, pathIndex, path.getDeliveryTime(), 0);
+        }
+    }
+
+    /**
+     * Adds a delivery that nothing else refers to. A road delivery is only
+     * kept as data, and the object is dropped.
+     *
+     * @param delivery the Delivery to be added
+     */
+    void adopt(Delivery delivery) {
+        if (!isRoadDelivery(delivery) || delivery.schedule != null) {
+            addDelivery(delivery);
+            return;
+        }
+        addRoad(delivery.source, delivery.destination, delivery.item, delivery.quantity, delivery.numOfUnits,
+                delivery.path, delivery.pathIndex, delivery.deliveryTime, delivery.stepIndex);
+    }
+
+    private static boolean isRoadDelivery(Delivery delivery) {
+        return delivery.getClass() == Delivery.class && delivery.path != null;
+    }
+
+    /**
+     * Adds copies of the deliveries of another schedule, for a copy of the
+     * simulation. Road deliveries are copied as data, straight from the
+     * columns or fields of the original.
+     *
+     * @param original the schedule to copy the deliveries of
+     * @param copies   the copy of each building of the original simulation
+     */
+    void addCopiesOf(DeliverySchedule original, Map<Building, Building> copies) {
+        for (int slot = 0; slot < original.numOfSlots; slot++) {
+            if (!original.isLive(slot)) {
+                continue;
+            }
+            Delivery delivery = original.objects[slot];
+            if (delivery == null) {
+                int elapsed = original.elapsedOf(slot);
+                addRoad(copies.get(original.buildingTable.get(original.sources[slot])),
+                        copies.get(original.buildingTable.get(original.destinations[slot])),
+                        original.itemTable.get(original.items[slot]), original.quantities[slot],
+                        original.numsOfUnits[slot], original.routeTable.get(original.routes[slot]),
+                        original.pathIndexes[slot], original.deliveryTimes[slot] - elapsed,
+                        original.stepIndexes[slot] + elapsed);
+            } else if (isRoadDelivery(delivery)) {
+                delivery.sync();
+                // paths never change, so the copy of the simulation shares them
+                addRoad(copies.get(delivery.source), copies.get(delivery.destination), delivery.item,
+                        delivery.quantity, delivery.numOfUnits, delivery.path, delivery.pathIndex,
+                        delivery.deliveryTime, delivery.stepIndex);
+            } else {
+                addDelivery(delivery.copyFor(copies));
+            }
+        }
+    }
+
+    private void addRoad(Building source, Building destination, Item item, int quantity, int numOfUnits, Path path,
+            int pathIndex, int deliveryTime, int stepIndex) {
+        int slot = newSlot();
+        sources[slot] = buildingTable.idOf(source);
+        destinations[slot] = buildingTable.idOf(destination);
+        items[slot] = itemTable.idOf(item);
+        quantities[slot] = quantity;
+        numsOfUnits[slot] = numOfUnits;
+        routes[slot] = routeTable.idOf(path);
+        pathIndexes[slot] = pathIndex;
+        deliveryTimes[slot] = deliveryTime;
+        stepIndexes[slot] = stepIndex;
+        syncedAts[slot] = time;
+        eventTimes[slot] = time + Math.max(1, deliveryTime);
+        numOfDeliveries++;
+        scheduleEvent(slot, eventTimes[slot]);
+
+        if (!listeners.isEmpty()) {
+            Delivery added = viewOf(slot);
+            for (DeliveryListener listener : listeners) {
+                listener.onDeliveryAdded(added);
+            }
+        }
+    }
+
+    private boolean joinLast(Building source, Building destination, Item item, int quantity, Path path) {
+        if (lastAddedAt != time || lastSlot == -1 || !isLive(lastSlot)) {
+            return false;
+        }
+        int slot = lastSlot;
+        Delivery last = objects[slot];
+        if (last != null) {
+            if (!last.canJoin(source, destination, item, quantity, path)) {
+                return false;
+            }
+            last.join(quantity);
+            return true;
+        }
+        // the slot was added in this step, so its columns are up to date
+        if (routeTable.get(routes[slot]) != path || buildingTable.get(sources[slot]) != source
+                || buildingTable.get(destinations[slot]) != destination || !itemTable.get(items[slot]).equals(item)
+                || quantities[slot] != quantity * numsOfUnits[slot] || stepIndexes[slot] != 0
+                || deliveryTimes[slot] != path.getDeliveryTime()) {
+            return false;
+        }
+        quantities[slot] += quantity;
+        numsOfUnits[slot]++;
+        return true;
+    }
+
+    private int newSlot() {
+        if (numOfSlots == objects.length) {
+            int capacity = objects.length * 2;
+            objects = Arrays.copyOf(objects, capacity);
+            sources = Arrays.copyOf(sources, capacity);
+            destinations = Arrays.copyOf(destinations, capacity);
+            items = Arrays.copyOf(items, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            numsOfUnits = Arrays.copyOf(numsOfUnits, capacity);
+            routes = Arrays.copyOf(routes, capacity);
+            pathIndexes = Arrays.copyOf(pathIndexes, capacity);
+            deliveryTimes = Arrays.copyOf(deliveryTimes, capacity);
+            stepIndexes = Arrays.copyOf(stepIndexes, capacity);
+            syncedAts = Arrays.copyOf(syncedAts, capacity);
+            eventTimes = Arrays.copyOf(eventTimes, capacity);
+        }
+        int slot = numOfSlots++;
+        objects[slot] = null;
+        numsOfUnits[slot] = 0;
+        lastSlot = slot;
+        lastAddedAt = time;
+        return slot;
+    }
+
+    private boolean isLive(int slot) {
+        Delivery delivery = objects[slot];
+        if (delivery != null) {
+            return delivery.schedule == this && delivery.indexInSchedule == slot;
+        }
+        return numsOfUnits[slot] > 0;
+    }
+
+    private long eventTimeOf(int slot) {
+        Delivery delivery = objects[slot];
+        return delivery != null ? delivery.eventTime : eventTimes[slot];
+    }
+
     /**
      * Removes a delivery from the schedule.
      *
      * @param delivery the Delivery to be removed
      */
     public void removeDelivery(Delivery delivery) {
-        deliveryList.remove(delivery);
+        if (delivery.schedule != this) {
+            return;
+        }
+        int slot = delivery.indexInSchedule;
+        delivery.sync();
+        delivery.schedule = null;
+        delivery.indexInSchedule = -1;
+        numOfDeliveries--;
+        // a later event is left in the queue, and skipped when it comes up
+        if (delivery.eventTime > time && delivery.eventTime - time < WHEEL_SIZE) {
+            removeFromBucket((int) (delivery.eventTime & WHEEL_MASK), slot);
+        }
+        compactIfSparse();
+    }
+
+    /**
+     * Removes every delivery from the schedule.
+     */
+    void clear() {
+        for (int slot = 0; slot < numOfSlots; slot++) {
+            Delivery delivery = objects[slot];
+            if (delivery != null && isLive(slot)) {
+                delivery.sync();
+                delivery.schedule = null;
+                delivery.indexInSchedule = -1;
+            }
+        }
+        Arrays.fill(objects, 0, numOfSlots, null);
+        numOfSlots = 0;
+        numOfDeliveries = 0;
+        buildingTable.clear();
+        itemTable.clear();
+        routeTable.clear();
+        Arrays.fill(bucketSizes, 0);
+        later.clear();
+        pathless.clear();
+        lastSlot = -1;
+    }
+
+    private void compactIfSparse() {
+        if (!isStepping && numOfDeliveries < numOfSlots / 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Moves the live slots to the front, keeping their order, and files their
+     * events again under their new slots. The tables are rebuilt with only the
+     * buildings, items and paths the remaining columns refer to.
+     */
+    private void compact() {
+        int size = 0;
+        int newLastSlot = -1;
+        for (int slot = 0; slot < numOfSlots; slot++) {
+            if (!isLive(slot)) {
+                continue;
+            }
+            if (slot == lastSlot) {
+                newLastSlot = size;
+            }
+            moveSlot(slot, size++);
+        }
+        Arrays.fill(objects, size, numOfSlots, null);
+        numOfSlots = size;
+        lastSlot = newLastSlot;
+
+        Table<Building> oldBuildings = buildingTable;
+        Table<Item> oldItems = itemTable;
+        Table<Path> oldRoutes = routeTable;
+        buildingTable = new Table<>();
+        itemTable = new Table<>();
+        routeTable = new Table<>();
+        for (int slot = 0; slot < numOfSlots; slot++) {
+            if (objects[slot] == null) {
+                sources[slot] = buildingTable.idOf(oldBuildings.get(sources[slot]));
+                destinations[slot] = buildingTable.idOf(oldBuildings.get(destinations[slot]));
+                items[slot] = itemTable.idOf(oldItems.get(items[slot]));
+                routes[slot] = routeTable.idOf(oldRoutes.get(routes[slot]));
+            }
+        }
+
+        Arrays.fill(bucketSizes, 0);
+        later.clear();
+        for (int slot = 0; slot < numOfSlots; slot++) {
+            scheduleEvent(slot, eventTimeOf(slot));
+        }
+    }
+
+    private void moveSlot(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        objects[to] = objects[from];
+        if (objects[to] != null) {
+            objects[to].indexInSchedule = to;
+        }
+        sources[to] = sources[from];
+        destinations[to] = destinations[from];
+        items[to] = items[from];
+        quantities[to] = quantities[from];
+        numsOfUnits[to] = numsOfUnits[from];
+        routes[to] = routes[from];
+        pathIndexes[to] = pathIndexes[from];
+        deliveryTimes[to] = deliveryTimes[from];
+        stepIndexes[to] = stepIndexes[from];
+        syncedAts[to] = syncedAts[from];
+        eventTimes[to] = eventTimes[from];
+    }
+
+    /**
+     * Makes a Delivery object with the current state of a slot kept as data.
+     * The object is not in any schedule.
+     */
+    private Delivery viewOf(int slot) {
+        int elapsed = elapsedOf(slot);
+        Building source = buildingTable.get(sources[slot]);
+        Delivery view = new Delivery(source, buildingTable.get(destinations[slot]), itemTable.get(items[slot]),
+                quantities[slot], deliveryTimes[slot] - elapsed, pathIndexes[slot], stepIndexes[slot] + elapsed,
+                source.getLocation());
+        view.path = routeTable.get(routes[slot]);
+        view.numOfUnits = numsOfUnits[slot];
+        view.syncedAt = syncedAts[slot] + elapsed;
+        return view;
+    }
+
+    /**
+     * Gets the number of steps a slot kept as data has moved along its path
+     * since its columns were last brought up to date, short of its next event.
+     */
+    private int elapsedOf(int slot) {
+        return (int) Math.max(0, Math.min(time, eventTimes[slot] - 1) - syncedAts[slot]);
+    }
+
+    /**
+     * Makes a slot kept as data into a Delivery object that takes over the
+     * slot, if it is not one yet.
+     */
+    private Delivery materialize(int slot) {
+        if (objects[slot] == null) {
+            Delivery delivery = viewOf(slot);
+            delivery.schedule = this;
+            delivery.eventTime = eventTimes[slot];
+            delivery.indexInSchedule = slot;
+            objects[slot] = delivery;
+        }
+        return objects[slot];
+    }
+
+    /**
+     * Gets the deliveries in the schedule, in the order they were added.
+     *
+     * @return an unmodifiable list of the deliveries
+     */
+    public List<Delivery> getDeliveries() {
+        List<Delivery> deliveries = new ArrayList<>(numOfDeliveries);
+        for (int slot = 0; slot < numOfSlots; slot++) {
+            if (isLive(slot)) {
+                deliveries.add(materialize(slot));
+            }
+        }
+        return Collections.unmodifiableList(deliveries);
+    }
+
+    private void scheduleEvent(int slot, long eventTime) {
+        if (eventTime - time < WHEEL_SIZE) {
+            addToBucket((int) (eventTime & WHEEL_MASK), slot);
+        } else {
+            later.add(new Event(eventTime, slot));
+        }
+    }
+
+    private void addToBucket(int bucket, int slot) {
+        int[] slots = wheel[bucket];
+        if (slots == null) {
+            slots = new int[4];
+            wheel[bucket] = slots;
+        } else if (bucketSizes[bucket] == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+            wheel[bucket] = slots;
+        }
+        slots[bucketSizes[bucket]++] = slot;
+    }
+
+    private void removeFromBucket(int bucket, int slot) {
+        int[] slots = wheel[bucket];
+        for (int i = 0; i < bucketSizes[bucket]; i++) {
+            if (slots[i] == slot) {
+                // the order within a bucket does not matter, since due slots are sorted
+                slots[i] = slots[--bucketSizes[bucket]];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves the events that the wheel now reaches from the queue of later events
+     * into the wheel.
+     */
+    private void turnWheel() {
+        while (!later.isEmpty() && later.peek().time - time < WHEEL_SIZE) {
+            Event event = later.poll();
+            if (isDue(event.slot, event.time)) {
+                addToBucket((int) (event.time & WHEEL_MASK), event.slot);
+            }
+        }
+    }
+
+    private boolean isDue(int slot, long eventTime) {
+        return isLive(slot) && eventTimeOf(slot) == eventTime;
     }
 
     /**
      * Advances the simulation by one timestep.
-     * Each delivery is updated (its delivery time is decreased), and if any delivery arrives,
-     * it is processed and removed from the schedule.
+     * Each delivery whose event is due is stepped, and if it arrives, it is
+     * processed and removed from the schedule.
      */
     public void step(List<Path> pathList) {
-        List<Delivery> deliveriesToRemove = new ArrayList<>();
-        for (Delivery delivery : deliveryList) {
-            delivery.step();
-            if (delivery.isArrive()) {
-                delivery.finishDelivery();
-                deliveriesToRemove.add(delivery);
-
-                // Tell all listeners a delivery has been finished
-                for (DeliveryListener listener : listeners) {
-                  listener.onDeliveryFinished(delivery);
+        time++;
+        turnWheel();
+        int bucket = (int) (time & WHEEL_MASK);
+        int[] due = bucketSizes[bucket] == 0 ? new int[0] : Arrays.copyOf(wheel[bucket], bucketSizes[bucket]);
+        bucketSizes[bucket] = 0;
+        Arrays.sort(due);
+
+        isStepping = true;
+        try {
+            for (int slot : due) {
+                // a listener may have removed the delivery meanwhile
+                if (!isDue(slot, time)) {
+                    continue;
                 }
+                if (objects[slot] == null) {
+                    finishRoadDelivery(slot);
+                } else {
+                    stepDelivery(objects[slot]);
+                }
+            }
+        } finally {
+            isStepping = false;
+        }
+        compactIfSparse();
+        findPaths(pathList);
+    }
+
+    private void stepDelivery(Delivery delivery) {
+        delivery.sync();
+        delivery.step();
+        delivery.syncedAt = time;
+        if (delivery.isArrive()) {
+            delivery.finishDelivery();
+            removeDelivery(delivery);
+
+            // Tell all listeners a delivery has been finished
+            for (DeliveryListener listener : listeners) {
+              listener.onDeliveryFinished(delivery);
+            }
+        } else {
+            delivery.eventTime = time + delivery.getStepsToNextEvent();
+            scheduleEvent(delivery.indexInSchedule, delivery.eventTime);
+        }
+    }
+
+    /**
+     * Processes the arrival of a road delivery kept as data, like
+     * `stepDelivery` does for a delivery object.
+     */
+    private void finishRoadDelivery(int slot) {
+        Delivery.deliver(buildingTable.get(sources[slot]), buildingTable.get(destinations[slot]),
+                itemTable.get(items[slot]), quantities[slot], numsOfUnits[slot]);
+        Delivery arrived = listeners.isEmpty() ? null : viewOf(slot);
+        numsOfUnits[slot] = 0;
+        numOfDeliveries--;
+        if (arrived != null) {
+            arrived.step();
+            // Tell all listeners a delivery has been finished
+            for (DeliveryListener listener : listeners) {
+              listener.onDeliveryFinished(arrived);
             }
         }
-        for (Delivery delivery : deliveryList) {
-            delivery.updateCurrentCoordinate(pathList);
+    }
+
+    /**
+     * Looks up the paths of the deliveries that were added without one. Other
+     * deliveries derive their coordinates from their paths when they are read,
+     * so a step costs nothing for the deliveries that are only moving along.
+     */
+    private void findPaths(List<Path> pathList) {
+        if (pathless.isEmpty()) {
+            return;
         }
-        for (Delivery delivery : deliveriesToRemove) {
-            deliveryList.remove(delivery);
+        // deliveries that arrived in this step still get their path first
+        pathless.removeIf(delivery -> delivery.hasPathFrom(pathList) || delivery.schedule != this);
+    }
+
+    /**
+     * Gets the number of timesteps until the next delivery changes its state.
+     *
+     * @return the number of steps until the next event, or Integer.MAX_VALUE if
+     *         there are no deliveries.
+     */
+    public int getStepsToNextEvent() {
+        if (numOfDeliveries == 0) {
+            return Integer.MAX_VALUE;
+        }
+        for (int steps = 1; steps < WHEEL_SIZE; steps++) {
+            if (bucketSizes[(int) ((time + steps) & WHEEL_MASK)] > 0) {
+                return steps;
+            }
         }
+        while (!later.isEmpty() && !isDue(later.peek().slot, later.peek().time)) {
+            later.poll();
+        }
+        return later.isEmpty() ? Integer.MAX_VALUE : (int) (later.peek().time - time);
+    }
+
+    /**
+     * Advances all deliveries by several timesteps in which none of them arrives.
+     * Precondition: steps < getStepsToNextEvent()
+     *
+     * @param steps    the number of timesteps to advance
+     * @param pathList the paths for deliveries to look theirs up in
+     */
+    public void advance(int steps, List<Path> pathList) {
+        time += steps;
+        turnWheel();
+        findPaths(pathList);
     }
 
     /**
@@ -70,9 +656,16 @@ public class DeliverySchedule {
      * @return a List of Coordinates representing the current locations of all deliveries
      */
     public List<Coordinate> getCurrentCoordinates() {
-        List<Coordinate> coordinates = new ArrayList<>();
-        for (Delivery delivery : deliveryList) {
-            coordinates.add(delivery.getCurrentCoordinate());
+        List<Coordinate> coordinates = new ArrayList<>(numOfDeliveries);
+        for (int slot = 0; slot < numOfSlots; slot++) {
+            if (!isLive(slot)) {
+                continue;
+            }
+            if (objects[slot] != null) {
+                coordinates.add(objects[slot].getCurrentCoordinate());
+            } else {
+                coordinates.add(routeTable.get(routes[slot]).getSteps().get(stepIndexes[slot] + elapsedOf(slot)));
+            }
         }
         return coordinates;
     }
@@ -83,8 +676,14 @@ public class DeliverySchedule {
      * @return true if any delivery is using the path, false otherwise
      */
     public boolean checkUsingPath(Path path) {
-        for (Delivery delivery : deliveryList) {
-            if (delivery.isUsingPath(path)) {
+        for (int slot = 0; slot < numOfSlots; slot++) {
+            if (!isLive(slot)) {
+                continue;
+            }
+            boolean isUsing = objects[slot] != null ? objects[slot].isUsingPath(path)
+                    : path.isMatch(buildingTable.get(sources[slot]).getLocation(),
+                            buildingTable.get(destinations[slot]).getLocation());
+            if (isUsing) {
                 return true;
             }
         }
@@ -98,8 +697,10 @@ public class DeliverySchedule {
      */
     public JsonArray toJson(){
         JsonArray json = new JsonArray();
-        for (Delivery delivery : deliveryList) {
-            json.add(delivery.toJson());
+        for (int slot = 0; slot < numOfSlots; slot++) {
+            if (isLive(slot)) {
+                json.add((objects[slot] != null ? objects[slot] : viewOf(slot)).toJson());
+            }
         }
         return json;
     }
@@ -0,0 +1,69 @@
+package edu.duke.ece651.factorysim;
+
+/**
+ * Stores every tile of a board in two byte arrays indexed by y * width + x.
+ * This is the fastest storage, but takes two bytes per tile up front.
+ */
+final class DenseTileStorage implements TileStorage {
+  private final int width;
+  private final byte[] types;
+  private final byte[] flows;
+
+  /**
+   * Constructs the storage of a board, with every tile at code 0 and no flow.
+   *
+   * @param width  is the width of the board.
+   * @param height is the height of the board.
+   * @throws IllegalArgumentException if the board has too many tiles for an
+   *                                  array.
+   */
+  DenseTileStorage(int width, int height) {
+    long numOfTiles = (long) width * height;
+    if (numOfTiles > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Board of " + width + " x " + height + " is too large to store densely");
+    }
+    this.width = width;
+    this.types = new byte[(int) numOfTiles];
+    this.flows = new byte[(int) numOfTiles];
+  }
+
+  private DenseTileStorage(DenseTileStorage original) {
+    this.width = original.width;
+    this.types = original.types.clone();
+    this.flows = original.flows.clone();
+  }
+
+  @Override
+  public int getType(int x, int y) {
+    return types[y * width + x];
+  }
+
+  @Override
+  public void setType(int x, int y, int code) {
+    types[y * width + x] = (byte) code;
+  }
+
+  @Override
+  public int getFlows(int x, int y) {
+    return flows[y * width + x] & 0xff;
+  }
+
+  @Override
+  public void setFlows(int x, int y, int flows) {
+    this.flows[y * width + x] = (byte) flows;
+  }
+
+  @Override
+  public void forEachSet(TileVisitor visitor) {
+    for (int i = 0; i < types.length; i++) {
+      if (types[i] != 0 || flows[i] != 0) {
+        visitor.visit(i % width, i / width);
+      }
+    }
+  }
+
+  @Override
+  public TileStorage copy() {
+    return new DenseTileStorage(this);
+  }
+}
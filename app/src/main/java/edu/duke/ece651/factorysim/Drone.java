@@ -16,6 +16,17 @@ public class Drone {
   public Drone() {
   }
   
+  /**
+   * Creates a copy of this drone, for a copy of the simulation.
+   *
+   * @return the copy.
+   */
+  Drone copy() {
+    Drone copy = new Drone();
+    copy.inUse = inUse;
+    return copy;
+  }
+
   /**
    * Gets the speed of the drone in tiles per timestep.
    * 
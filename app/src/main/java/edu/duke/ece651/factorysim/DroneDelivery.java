@@ -2,6 +2,8 @@ package edu.duke.ece651.factorysim;
 
 import com.google.gson.JsonObject;
 
+import java.util.Map;
+
 /**
  * Represents a delivery carried out by a drone.
  * This class extends the base Delivery class with drone-specific functionality.
@@ -52,6 +54,28 @@ public class DroneDelivery extends Delivery {
     }
   }
   
+  /**
+   * Creates a copy of a drone delivery between copied buildings, carried by a
+   * copy of its drone.
+   *
+   * @param original is the delivery to copy.
+   * @param copies   is the copy of each building of the original simulation.
+   */
+  private DroneDelivery(DroneDelivery original, Map<Building, Building> copies) {
+    super(copies.get(original.source), copies.get(original.destination), original.item, original.quantity,
+        original.deliveryTime, original.pathIndex, original.stepIndex, original.currentCoordinate);
+    this.dronePort = ((DronePortBuilding) copies.get(original.dronePort.getBuilding())).getDronePort();
+    this.drone = original.drone.copy();
+    this.state = original.state;
+    this.targetCoordinate = original.targetCoordinate;
+  }
+
+  @Override
+  Delivery copyFor(Map<Building, Building> copies) {
+    sync();
+    return new DroneDelivery(this, copies);
+  }
+
   /**
    * Calculates the delivery time between two coordinates.
    *
@@ -128,6 +152,17 @@ public class DroneDelivery extends Delivery {
     }
   }
   
+  /**
+   * Moves the drone forward by several time steps within its current flight.
+   * Precondition: steps < getStepsToNextEvent()
+   *
+   * @param steps the number of time steps to move forward.
+   */
+  @Override
+  public void advance(int steps) {
+    deliveryTime -= steps;
+  }
+
   /**
    * Determines if the drone delivery has completed all of its steps.
    *
@@ -135,6 +170,7 @@ public class DroneDelivery extends Delivery {
    */
   @Override
   public boolean isArrive() {
+    sync();
     return deliveryTime == 0 && state == DeliveryState.RETURNING;
   }
   
@@ -151,6 +187,16 @@ public class DroneDelivery extends Delivery {
   @Override
   public void updateCurrentCoordinate(java.util.List<Path> pathList) {
   }
+
+  /**
+   * Drones fly straight, so they need no path.
+   *
+   * @return true.
+   */
+  @Override
+  boolean hasPathFrom(java.util.List<Path> pathList) {
+    return true;
+  }
   
   /**
    * Gets the current state of the drone delivery.
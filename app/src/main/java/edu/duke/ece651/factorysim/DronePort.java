@@ -134,6 +134,21 @@ public class DronePort {
     return false;
   }
 
+  /**
+   * Copies the drones waiting at another drone port, for a copy of the
+   * simulation.
+   *
+   * @param original is the drone port this is a copy of.
+   */
+  void copyDronesFrom(DronePort original) {
+    radius = original.radius;
+    maxDrones = original.maxDrones;
+    drones = new ArrayList<>();
+    for (Drone drone : original.drones) {
+      drones.add(drone.copy());
+    }
+  }
+
   /**
    * Converts the drone port to a JSON object.
    * 
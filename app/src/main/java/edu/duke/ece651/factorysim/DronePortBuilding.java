@@ -3,7 +3,9 @@ package edu.duke.ece651.factorysim;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a drone port building in the simulation.
@@ -89,6 +91,17 @@ public class DronePortBuilding extends Building {
     return getNumOfPendingRequests() == 0 && !isProcessing();
   }
 
+  @Override
+  Building copyFor(Simulation simulation) {
+    return new DronePortBuilding(getName(), new ArrayList<>(), simulation);
+  }
+
+  @Override
+  void copyStateFrom(Building original, Map<Building, Building> copies) {
+    super.copyStateFrom(original, copies);
+    dronePort.copyDronesFrom(((DronePortBuilding) original).dronePort);
+  }
+
   /**
    * Converts this building to a JSON object.
    *
@@ -0,0 +1,102 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.*;
+
+/**
+ * Maps the tiles of a world to the drone ports whose radius covers them, so
+ * that finding a port for a delivery only looks at the ports near its source
+ * instead of at every building.<br/>
+ * The tiles are grouped into square cells of CELL_SIZE x CELL_SIZE tiles, and
+ * each cell lists the ports whose radius reaches into it, in world order. A
+ * port listed for a cell does not necessarily cover every tile of it, so the
+ * radius is still checked for each listed port.<br/>
+ * Like `BuildingComponents`, the index is only valid for the world version it
+ * was built for. The radius of a port must not change after it is indexed.
+ */
+final class DronePortIndex {
+  static final int CELL_BITS = 4;
+  static final int CELL_SIZE = 1 << CELL_BITS;
+
+  private final World world;
+  private final List<Building> buildings;
+  private final int numOfBuildings;
+  private final int worldVersion;
+
+  private final Map<Coordinate, List<DronePortBuilding>> portsByCell = new HashMap<>();
+
+  /**
+   * Builds the index of the drone ports of a world.
+   *
+   * @param world is the world whose drone ports to index.
+   */
+  DronePortIndex(World world) {
+    this.world = world;
+    this.buildings = world.getBuildings();
+    this.numOfBuildings = buildings.size();
+    this.worldVersion = world.getVersion();
+
+    for (Building building : buildings) {
+      if (!(building instanceof DronePortBuilding) || building.getLocation() == null) {
+        continue;
+      }
+      DronePortBuilding port = (DronePortBuilding) building;
+      Coordinate location = port.getLocation();
+      int radius = port.getDronePort().getRadius();
+      int minX = (location.getX() - radius) >> CELL_BITS;
+      int maxX = (location.getX() + radius) >> CELL_BITS;
+      int minY = (location.getY() - radius) >> CELL_BITS;
+      int maxY = (location.getY() + radius) >> CELL_BITS;
+      for (int y = minY; y <= maxY; y++) {
+        for (int x = minX; x <= maxX; x++) {
+          portsByCell.computeIfAbsent(new Coordinate(x, y), cell -> new ArrayList<>()).add(port);
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks if the index is still valid for a world, i.e. its buildings have
+   * not changed since it was built.
+   *
+   * @param world is the world to check.
+   * @return true if the index can still be used for the world.
+   */
+  boolean isUpToDate(World world) {
+    return world == this.world && world.getBuildings() == buildings
+        && world.getBuildings().size() == numOfBuildings && world.getVersion() == worldVersion;
+  }
+
+  /**
+   * Gets the drone ports whose radius may cover a location.
+   *
+   * @param location is the location.
+   * @return the drone ports, in world order. Every port covering the location
+   *         is among them.
+   */
+  List<DronePortBuilding> getPortsNear(Coordinate location) {
+    if (location == null) {
+      return List.of();
+    }
+    List<DronePortBuilding> ports = portsByCell
+        .get(new Coordinate(location.getX() >> CELL_BITS, location.getY() >> CELL_BITS));
+    return ports == null ? List.of() : Collections.unmodifiableList(ports);
+  }
+
+  /**
+   * Finds the first drone port in world order that covers two buildings and
+   * has an available drone.
+   *
+   * @param src is the source building.
+   * @param dst is the destination building.
+   * @return the drone port building, or null if there is none.
+   */
+  DronePortBuilding findPort(Building src, Building dst) {
+    for (DronePortBuilding port : getPortsNear(src.getLocation())) {
+      DronePort dronePort = port.getDronePort();
+      if (dronePort.isWithinRadius(src) && dronePort.isWithinRadius(dst) && dronePort.hasAvailableDrone()) {
+        return port;
+      }
+    }
+    return null;
+  }
+}
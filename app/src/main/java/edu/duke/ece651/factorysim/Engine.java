@@ -0,0 +1,29 @@
+package edu.duke.ece651.factorysim;
+
+/**
+ * Defines how a simulation advances through time.
+ */
+public interface Engine {
+  /**
+   * Returns the name of the engine, such as tick or event.
+   *
+   * @return the name of the engine.
+   */
+  public String getName();
+
+  /**
+   * Advances the simulation by exactly n time steps.
+   *
+   * @param simulation is the simulation to advance.
+   * @param n          is the number of time steps.
+   */
+  public void step(Simulation simulation, int n);
+
+  /**
+   * Advances the simulation by at least one time step, stopping right after the
+   * next time step in which something other than a countdown happens.
+   *
+   * @param simulation is the simulation to advance.
+   */
+  public void stepToNextEvent(Simulation simulation);
+}
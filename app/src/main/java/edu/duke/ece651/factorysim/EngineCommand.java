@@ -0,0 +1,43 @@
+package edu.duke.ece651.factorysim;
+
+/**
+ * Usage: <code>engine NAME</code>
+ */
+public class EngineCommand implements Command {
+  /**
+   * Gets the name of the command.
+   *
+   * @return the name of this engine command.
+   */
+  @Override
+  public String getName() {
+    return "engine";
+  }
+
+  /**
+   * Executes the command.
+   *
+   * @param args is the list of strings of arguments for the command.
+   * @param sim  is the simulation in which to execute command.
+   */
+  @Override
+  public void execute(String[] args, Simulation sim) {
+    // Check argument count
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Invalid 'engine' command: illegal number of arguments");
+    }
+
+    // Make sure the first argument is "engine"
+    if (!args[0].equals(getName())) {
+      throw new IllegalArgumentException("Invalid 'engine' command: command name doesn't match");
+    }
+
+    String name = args[1];
+    if (Utils.isQuoted(name)) {
+      name = Utils.removeQuotes(name);
+    }
+
+    // Operate on the simulation
+    sim.setEngine(name);
+  }
+}
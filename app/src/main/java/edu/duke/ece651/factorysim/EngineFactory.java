@@ -0,0 +1,27 @@
+package edu.duke.ece651.factorysim;
+
+/**
+ * Factory class for creating simulation engines.
+ */
+public class EngineFactory {
+  /**
+   * Creates an engine based on the engine name.
+   *
+   * @param engineName the name of the engine to create.
+   * @return the created engine.
+   */
+  public static Engine createEngine(String engineName) {
+    switch (engineName.toLowerCase()) {
+      case "tick":
+        return new TickEngine();
+      case "event":
+        return new EventEngine();
+      case "parallel":
+        return new ParallelEngine();
+      case "sharded":
+        return new ShardedEngine();
+      default:
+        throw new IllegalArgumentException("Unknown engine: " + engineName);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package edu.duke.ece651.factorysim;
+
+/**
+ * Discrete-event engine. Time steps in which nothing happens except countdowns
+ * (requests being processed, deliveries travelling, waste being disposed) are
+ * skipped by jumping the clock straight to the next event, which is then
+ * simulated as a regular time step. Logs and state are the same as with
+ * `TickEngine`.
+ */
+public class EventEngine implements Engine {
+  @Override
+  public String getName() {
+    return "event";
+  }
+
+  @Override
+  public void step(Simulation simulation, int n) {
+    int remaining = n;
+    while (remaining > 0) {
+      int idleSteps = Math.min(remaining, simulation.getIdleSteps());
+      simulation.skip(idleSteps);
+      remaining -= idleSteps;
+      if (remaining > 0) {
+        simulation.tick();
+        remaining--;
+      }
+    }
+  }
+
+  /**
+   * Jumps to the next event and simulates it.
+   *
+   * @param simulation is the simulation to advance.
+   * @throws IllegalStateException if no event will ever happen again.
+   */
+  @Override
+  public void stepToNextEvent(Simulation simulation) {
+    int idleSteps = simulation.getIdleSteps();
+    if (idleSteps == Integer.MAX_VALUE) {
+      throw new IllegalStateException(
+          "The simulation cannot make any more progress at time-step " + simulation.getCurrentTime());
+    }
+    simulation.skip(idleSteps);
+    simulation.tick();
+  }
+}
@@ -3,6 +3,7 @@ package edu.duke.ece651.factorysim;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -60,13 +61,7 @@ public class FactoryBuilding extends Building {
    * @return true if this factory can produce this item, false otherwise.
    */
   public boolean canProduce(Item item) {
-    List<Recipe> recipes = factoryType.getRecipes();
-    for (int i = 0; i < recipes.size(); i++) {
-      if (recipes.get(i).getOutput().getName().equals(item.getName())) {
-        return true;
-      }
-    }
-    return false;
+    return factoryType.hasRecipeFor(item);
   }
 
   /**
@@ -78,6 +73,17 @@ public class FactoryBuilding extends Building {
     return remainingLatency;
   }
 
+  @Override
+  Building copyFor(Simulation simulation) {
+    return new FactoryBuilding(factoryType, getName(), new ArrayList<>(), simulation);
+  }
+
+  @Override
+  void copyStateFrom(Building original, Map<Building, Building> copies) {
+    super.copyStateFrom(original, copies);
+    remainingLatency = ((FactoryBuilding) original).remainingLatency;
+  }
+
   /**
    * Converts the factory building to a JSON object.
    *
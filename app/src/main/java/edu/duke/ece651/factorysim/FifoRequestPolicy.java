@@ -1,13 +1,11 @@
 package edu.duke.ece651.factorysim;
 
-import java.util.List;
-
 /**
  * Implements FIFO (First In, First Out) request policy.
  */
 public class FifoRequestPolicy extends RequestPolicy {
   @Override
-  public Request selectRequest(Building producer, List<Request> requests) {
+  public Request selectRequest(Building producer, RequestQueue requests) {
     if (requests.isEmpty()) {
       return null;
     }
@@ -0,0 +1,165 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.*;
+
+/**
+ * Counts the items in a building's storage, in two parallel int arrays: the
+ * ids of the items held (see `ItemRegistry`) and their counts. Unlike a map of
+ * boxed counts, changing a count does not allocate.<br/>
+ * The arrays only grow with the number of different items the building holds,
+ * not with the ids, which are shared by every simulation in the process. A
+ * building holds few kinds of items, so looking one up scans them.<br/>
+ * An item can be in the inventory with a count of 0, e.g. after adding 0 of it,
+ * which is different from not being in it at all.<br/>
+ * Items are listed in the order they were added, like a `LinkedHashMap`, so
+ * the order only depends on what happened to this inventory, not on the ids
+ * the registry happened to give out.
+ */
+final class Inventory {
+  // the ids of the items in the inventory, in the order they were added, and
+  // the count of each
+  private int[] ids = new int[0];
+  private int[] counts = new int[0];
+  private int size = 0;
+
+  /**
+   * Constructs an empty inventory.
+   */
+  Inventory() {
+  }
+
+  /**
+   * Replaces the contents of this inventory with those of another one.
+   *
+   * @param original is the inventory to copy.
+   */
+  void copyFrom(Inventory original) {
+    this.ids = Arrays.copyOf(original.ids, original.size);
+    this.counts = Arrays.copyOf(original.counts, original.size);
+    this.size = original.size;
+  }
+
+  private int indexOf(int id) {
+    for (int i = 0; i < size; i++) {
+      if (ids[i] == id) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the count of an item.
+   *
+   * @param id is the id of the item.
+   * @return the count, or -1 if the item is not in the inventory.
+   */
+  int get(int id) {
+    int i = indexOf(id);
+    return i == -1 ? -1 : counts[i];
+  }
+
+  /**
+   * Checks if an item is in the inventory.
+   *
+   * @param id is the id of the item.
+   * @return true if the item is in the inventory, even with a count of 0.
+   */
+  boolean contains(int id) {
+    return indexOf(id) != -1;
+  }
+
+  /**
+   * Sets the count of an item, adding it to the inventory if needed.
+   *
+   * @param id    is the id of the item.
+   * @param count is the new count.
+   */
+  void put(int id, int count) {
+    int i = indexOf(id);
+    if (i == -1) {
+      if (size == ids.length) {
+        int capacity = Math.max(4, size * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+      }
+      i = size++;
+      ids[i] = id;
+    }
+    counts[i] = count;
+  }
+
+  /**
+   * Removes an item from the inventory.
+   *
+   * @param id is the id of the item.
+   */
+  void remove(int id) {
+    int i = indexOf(id);
+    if (i != -1) {
+      System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+      System.arraycopy(counts, i + 1, counts, i, size - i - 1);
+      size--;
+    }
+  }
+
+  /**
+   * Gets a read-only map view of the inventory, in the order the items were
+   * added.
+   *
+   * @return the map view.
+   */
+  Map<Item, Integer> asMap() {
+    return new AbstractMap<Item, Integer>() {
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+        return key instanceof Item && contains(((Item) key).getId());
+      }
+
+      @Override
+      public Integer get(Object key) {
+        if (!(key instanceof Item)) {
+          return null;
+        }
+        int i = indexOf(((Item) key).getId());
+        return i == -1 ? null : counts[i];
+      }
+
+      @Override
+      public Set<Map.Entry<Item, Integer>> entrySet() {
+        return new AbstractSet<Map.Entry<Item, Integer>>() {
+          @Override
+          public int size() {
+            return size;
+          }
+
+          @Override
+          public Iterator<Map.Entry<Item, Integer>> iterator() {
+            return new Iterator<Map.Entry<Item, Integer>>() {
+              private int next = 0;
+
+              @Override
+              public boolean hasNext() {
+                return next < size;
+              }
+
+              @Override
+              public Map.Entry<Item, Integer> next() {
+                if (!hasNext()) {
+                  throw new NoSuchElementException();
+                }
+                int i = next++;
+                return Map.entry(ItemRegistry.getItem(ids[i]), counts[i]);
+              }
+            };
+          }
+        };
+      }
+    };
+  }
+}
@@ -5,6 +5,8 @@ package edu.duke.ece651.factorysim;
  */
 public class Item {
   private final String name;
+  // the dense id of the name, see `ItemRegistry`
+  private final int id;
 
   /**
    * Constructs an item with given name.
@@ -17,6 +19,7 @@ public class Item {
       throw new IllegalArgumentException("Item name cannot contain " + Utils.notAllowedInName + ", but is: " + name);
     }
     this.name = name;
+    this.id = ItemRegistry.getId(name);
   }
 
   @Override
@@ -36,9 +39,8 @@ public class Item {
     if (getClass() != obj.getClass())
       return false;
     Item other = (Item) obj;
-    if (!name.equals(other.name))
-      return false;
-    return true;
+    // items with the same name have the same id
+    return id == other.id;
   }
 
   /**
@@ -49,4 +51,14 @@ public class Item {
   public String getName() {
     return name;
   }
+
+  /**
+   * Gets the dense id of the item, which is the same for all items with the
+   * same name.
+   *
+   * @return the id of the item.
+   */
+  int getId() {
+    return id;
+  }
 }
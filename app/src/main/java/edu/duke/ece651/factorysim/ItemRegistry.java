@@ -0,0 +1,76 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every item name a dense int id, so that items can be compared and
+ * looked up in int arrays (e.g. a building's storage) without comparing
+ * names.<br/>
+ * Ids are handed out in the order names are first seen and never change, so
+ * two items with the same name always have the same id. The registry also keeps
+ * one shared `Item` per name, which `WorldBuilder` uses so that all the items of
+ * a world are interned.<br/>
+ * The registry lives as long as the process and is shared by every simulation
+ * in it, so it keeps one entry per different item name ever seen, and the ids
+ * a world gets depend on what was loaded before it. Nothing per building or
+ * per world is therefore sized by the ids: storage and the other per-item data
+ * only grow with the items actually used, and no output depends on the ids.
+ */
+final class ItemRegistry {
+  private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<String, Item> items = new ConcurrentHashMap<>();
+  private static final List<String> names = new ArrayList<>();
+
+  private ItemRegistry() {
+  }
+
+  /**
+   * Gets the id of an item name, giving it the next id if it has none yet.
+   *
+   * @param name is the item name.
+   * @return the id of the name.
+   */
+  static int getId(String name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    synchronized (names) {
+      return ids.computeIfAbsent(name, key -> {
+        names.add(key);
+        return names.size() - 1;
+      });
+    }
+  }
+
+  /**
+   * Gets the shared item with a given name.
+   *
+   * @param name is the item name.
+   * @return the shared item.
+   * @throws IllegalArgumentException if the name is not valid.
+   */
+  static Item intern(String name) {
+    Item item = items.get(name);
+    if (item == null) {
+      item = items.computeIfAbsent(name, Item::new);
+    }
+    return item;
+  }
+
+  /**
+   * Gets the shared item with a given id.
+   *
+   * @param id is the item id.
+   * @return the shared item.
+   * @throws IndexOutOfBoundsException if no name has that id.
+   */
+  static Item getItem(int id) {
+    String name;
+    synchronized (names) {
+      name = names.get(id);
+    }
+    return intern(name);
+  }
+}
@@ -58,6 +58,11 @@ public class MineBuilding extends Building {
     return miningRecipe;
   }
 
+  @Override
+  Building copyFor(Simulation simulation) {
+    return new MineBuilding(miningRecipe, getName(), simulation);
+  }
+
   /**
    * Checks if this mine can produce a given item.
    * 
@@ -65,10 +70,7 @@ public class MineBuilding extends Building {
    * @return true if this mine can produce this item, false otherwise.
    */
   public boolean canProduce(Item item) {
-    if (miningRecipe.getOutput().getName().equals(item.getName())) {
-      return true;
-    }
-    return false;
+    return resource.equals(item);
   }
 
   @Override
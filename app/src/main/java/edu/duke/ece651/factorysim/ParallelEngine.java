@@ -0,0 +1,48 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Engine that splits every time step into a parallel and a serial phase. The
+ * awake buildings first work out which request they would select and whether
+ * it is ready, all at once on a `ForkJoinPool`. Then they step one by one in
+ * world order, so requests, deliveries and storage changes between buildings
+ * happen in the same order as with `TickEngine`, and so do the logs. A building
+ * changed by an earlier one in the same time step plans again when it steps.
+ */
+public class ParallelEngine implements Engine {
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a parallel engine running on the common pool.
+   */
+  public ParallelEngine() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a parallel engine running on the given pool.
+   *
+   * @param pool is the pool to run on.
+   */
+  public ParallelEngine(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public String getName() {
+    return "parallel";
+  }
+
+  @Override
+  public void step(Simulation simulation, int n) {
+    for (int i = 0; i < n; i++) {
+      simulation.tick(pool);
+    }
+  }
+
+  @Override
+  public void stepToNextEvent(Simulation simulation) {
+    simulation.tick(pool);
+  }
+}
@@ -24,6 +24,375 @@ public class PathFinder {
         }
     }
 
+    // x and y offsets of the directions 0=up, 1=right, 2=down, 3=left
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {-1, 0, 1, 0};
+
+    private static final ThreadLocal<Search> SEARCH = ThreadLocal.withInitial(Search::new);
+
+    /**
+     * The state of an A* search, kept per thread and reused by the next search
+     * so that searching allocates nothing but the resulting path.<br/>
+     * Tiles reached by the search are numbered 0, 1, ... in the order they are
+     * reached, through an open-addressing table from packed coordinates, so the
+     * per-tile arrays only grow with the tiles explored, not the board.
+     */
+    private static final class Search {
+        // tiles by number
+        int[] xs = new int[64];
+        int[] ys = new int[64];
+        int[] costs = new int[64];
+        int[] estimates = new int[64];
+        int[] parents = new int[64];
+        // index of each tile in the heap, or -1 if not in it
+        int[] heapIndexes = new int[64];
+        int numOfTiles = 0;
+        final BitSet closed = new BitSet();
+
+        // binary heap of tile numbers by estimate, then cost (higher first), then number
+        int[] heap = new int[64];
+        int heapSize = 0;
+
+        // open-addressing table from packed coordinate to tile number; a slot is
+        // only in use if its stamp is the current one, so clearing is O(1)
+        long[] keys = new long[256];
+        int[] values = new int[256];
+        int[] stamps = new int[256];
+        int stamp = 0;
+
+        void reset() {
+            numOfTiles = 0;
+            heapSize = 0;
+            closed.clear();
+            stamp++;
+            if (stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+        }
+
+        /** Gets the number of a tile, numbering it if it was not reached before. */
+        int getTile(int x, int y) {
+            if (numOfTiles * 2 >= keys.length) {
+                growTable();
+            }
+            long key = (long) x << 32 | (y & 0xffffffffL);
+            int mask = keys.length - 1;
+            int slot = slotOf(key, mask);
+            while (stamps[slot] == stamp) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            int tile = numOfTiles++;
+            if (tile == xs.length) {
+                growTiles();
+            }
+            keys[slot] = key;
+            values[slot] = tile;
+            stamps[slot] = stamp;
+            xs[tile] = x;
+            ys[tile] = y;
+            costs[tile] = Integer.MAX_VALUE;
+            parents[tile] = -1;
+            heapIndexes[tile] = -1;
+            return tile;
+        }
+
+        private static int slotOf(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        }
+
+        private void growTable() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            int[] oldStamps = stamps;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            stamps = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldStamps[i] == stamp) {
+                    int slot = slotOf(oldKeys[i], mask);
+                    while (stamps[slot] == stamp) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    stamps[slot] = stamp;
+                }
+            }
+        }
+
+        /**
+         * Copies the packed coordinates of the tiles reached by the last search
+         * into a new open-addressing table, with -1 in the empty slots.
+         */
+        long[] copyReached() {
+            int length = 2;
+            while (length < numOfTiles * 2) {
+                length <<= 1;
+            }
+            long[] reached = new long[length];
+            Arrays.fill(reached, -1);
+            int mask = length - 1;
+            for (int i = 0; i < keys.length; i++) {
+                if (stamps[i] == stamp) {
+                    int slot = slotOf(keys[i], mask);
+                    while (reached[slot] != -1) {
+                        slot = (slot + 1) & mask;
+                    }
+                    reached[slot] = keys[i];
+                }
+            }
+            return reached;
+        }
+
+        private void growTiles() {
+            int n = xs.length * 2;
+            xs = Arrays.copyOf(xs, n);
+            ys = Arrays.copyOf(ys, n);
+            costs = Arrays.copyOf(costs, n);
+            estimates = Arrays.copyOf(estimates, n);
+            parents = Arrays.copyOf(parents, n);
+            heapIndexes = Arrays.copyOf(heapIndexes, n);
+            heap = Arrays.copyOf(heap, n);
+        }
+
+        private boolean isBefore(int a, int b) {
+            if (estimates[a] != estimates[b]) {
+                return estimates[a] < estimates[b];
+            }
+            // among equal estimates, the one closer to the destination first
+            if (costs[a] != costs[b]) {
+                return costs[a] > costs[b];
+            }
+            return a < b;
+        }
+
+        /** Adds a tile to the heap, or moves it up after its estimate got lower. */
+        void push(int tile) {
+            int i = heapIndexes[tile];
+            if (i == -1) {
+                i = heapSize++;
+            }
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (!isBefore(tile, heap[parent])) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                heapIndexes[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = tile;
+            heapIndexes[tile] = i;
+        }
+
+        int pop() {
+            int top = heap[0];
+            heapIndexes[top] = -1;
+            int last = heap[--heapSize];
+            if (heapSize > 0) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= heapSize) {
+                        break;
+                    }
+                    if (child + 1 < heapSize && isBefore(heap[child + 1], heap[child])) {
+                        child++;
+                    }
+                    if (!isBefore(heap[child], last)) {
+                        break;
+                    }
+                    heap[i] = heap[child];
+                    heapIndexes[heap[i]] = i;
+                    i = child;
+                }
+                heap[i] = last;
+                heapIndexes[last] = i;
+            }
+            return top;
+        }
+    }
+
+    /**
+     * A path found by `findRouteAStar`, along with the tiles its search looked
+     * at. The search only reads the type and flows of the tiles it reaches (and
+     * the type of buildings, which adding paths does not change), so searching
+     * again on a map where none of those tiles changed finds the same path.
+     */
+    static final class Route {
+        private final Path path;
+        // open-addressing table of the packed coordinates of the reached tiles
+        private final long[] reached;
+        private final int numOfReached;
+
+        private Route(Path path, long[] reached, int numOfReached) {
+            this.path = path;
+            this.reached = reached;
+            this.numOfReached = numOfReached;
+        }
+
+        /**
+         * Gets the path found.
+         *
+         * @return the path, or null if there was none
+         */
+        Path getPath() {
+            return path;
+        }
+
+        /**
+         * Gets the number of tiles the search looked at.
+         *
+         * @return the number of reached tiles
+         */
+        int getNumOfReached() {
+            return numOfReached;
+        }
+
+        /**
+         * Checks whether the search looked at any of some tiles.
+         *
+         * @param tiles the tiles to check
+         * @return true if any of the tiles was reached by the search
+         */
+        boolean hasReachedAny(Collection<Coordinate> tiles) {
+            int mask = reached.length - 1;
+            for (Coordinate tile : tiles) {
+                long key = (long) tile.getX() << 32 | (tile.getY() & 0xffffffffL);
+                int slot = Search.slotOf(key, mask);
+                while (reached[slot] != -1) {
+                    if (reached[slot] == key) {
+                        return true;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Finds the same path as `findPathAStar`, and remembers which tiles the
+     * search looked at, so that the path can be found on an unchanged map and
+     * checked to still hold after other paths are added.
+     *
+     * @param source the starting coordinate
+     * @param destination the ending coordinate
+     * @param tileMap the tile map with current layout of buildings and roads
+     * @return the route, whose path is null if no path exists
+     */
+    static Route findRouteAStar(Coordinate source, Coordinate destination, TileMap tileMap) {
+        Search search = SEARCH.get();
+        Path path = findPathAStar(search, source, destination, tileMap);
+        return new Route(path, search.copyReached(), search.numOfTiles);
+    }
+
+    /**
+     * Finds a path of the same minimal cost as `findPath`, with an A* search.
+     * The Manhattan distance to the destination never overestimates the cost
+     * (every step costs at least 1), so the search only explores tiles that
+     * could be on a cheapest path, instead of every tile cheaper to reach than
+     * the destination. When several paths have the minimal cost, the path found
+     * may differ from the one `findPath` finds.
+     *
+     * @param source the starting coordinate
+     * @param destination the ending coordinate
+     * @param tileMap the tile map with current layout of buildings and roads
+     * @return a Path object representing the found path, or null if no path exists
+     */
+    public static Path findPathAStar(Coordinate source, Coordinate destination, TileMap tileMap) {
+        return findPathAStar(SEARCH.get(), source, destination, tileMap);
+    }
+
+    private static Path findPathAStar(Search search, Coordinate source, Coordinate destination, TileMap tileMap) {
+        search.reset();
+        int destX = destination.getX();
+        int destY = destination.getY();
+        int start = search.getTile(source.getX(), source.getY());
+        search.costs[start] = 0;
+        search.estimates[start] = Math.abs(destX - source.getX()) + Math.abs(destY - source.getY());
+        search.push(start);
+
+        while (search.heapSize > 0) {
+            int current = search.pop();
+            search.closed.set(current);
+            int x = search.xs[current];
+            int y = search.ys[current];
+            if (x == destX && y == destY) {
+                return buildPath(search, current, tileMap);
+            }
+
+            for (int dir = 0; dir < 4; dir++) {
+                int nextX = x + DX[dir];
+                int nextY = y + DY[dir];
+                if (nextX < 0 || nextX >= tileMap.getWidth() || nextY < 0 || nextY >= tileMap.getHeight()) {
+                    continue;
+                }
+                TileType nextTileType = tileMap.getTileType(nextX, nextY);
+                if (nextTileType == TileType.BUILDING) {
+                    // if the next tile is a building and not the destination, skip it
+                    if (nextX != destX || nextY != destY) {
+                        continue;
+                    }
+                } else if (tileMap.getFlow(x, y, dir) == -1) {
+                    // if current tile corresponding dir is already flow in, skip it
+                    continue;
+                }
+
+                int next = search.getTile(nextX, nextY);
+                if (search.closed.get(next)) {
+                    continue;
+                }
+                int cost = search.costs[current] + 1 + (nextTileType == TileType.ROAD ? 1 : 0);
+                if (cost < search.costs[next]) {
+                    search.costs[next] = cost;
+                    search.estimates[next] = cost + Math.abs(destX - nextX) + Math.abs(destY - nextY);
+                    search.parents[next] = current;
+                    search.push(next);
+                }
+            }
+        }
+
+        // No path found
+        return null;
+    }
+
+    /**
+     * Builds a Path object from the destination tile of an A* search by tracing
+     * back through the parents.
+     */
+    private static Path buildPath(Search search, int end, TileMap tileMap) {
+        int length = 0;
+        for (int tile = end; tile != -1; tile = search.parents[tile]) {
+            length++;
+        }
+        int[] tiles = new int[length];
+        int i = length;
+        for (int tile = end; tile != -1; tile = search.parents[tile]) {
+            tiles[--i] = tile;
+        }
+
+        Path path = new Path();
+        for (i = 0; i < length; i++) {
+            int x = search.xs[tiles[i]];
+            int y = search.ys[tiles[i]];
+            boolean isNew = tileMap.getTileType(x, y) == TileType.ROAD;
+            int dir = -1;
+            if (i + 1 < length) {
+                int dx = search.xs[tiles[i + 1]] - x;
+                int dy = search.ys[tiles[i + 1]] - y;
+                dir = dy == -1 ? 0 : dx == 1 ? 1 : dy == 1 ? 2 : 3;
+            }
+            path.emplaceBack(new Coordinate(x, y), isNew, dir);
+        }
+        return path;
+    }
+
     /**
      * Attempts to find a valid path between the source and destination coordinates on the given tile map.
      * The path is built to avoid buildings, reuse roads, and minimize the total cost (steps + new tiles).
@@ -0,0 +1,68 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The routes of a batch of connections, all searched for in parallel on the
+ * map as it was before any of them was made.<br/>
+ * As the connections are then made in order, each path added to the map is
+ * noted. A planned route is only handed out if none of the tiles its search
+ * looked at changed since, because searching again would then find the same
+ * path; otherwise the connection has to search again on the current map. This
+ * way the paths are the same as making the connections one by one.
+ */
+final class PlannedRoutes {
+  private final Map<Tuple<Coordinate, Coordinate>, PathFinder.Route> routes = new HashMap<>();
+  // the tiles changed by the paths added since the routes were searched for
+  private final List<Coordinate> changed = new ArrayList<>();
+
+  private PlannedRoutes() {
+  }
+
+  /**
+   * Searches for the routes between pairs of coordinates in parallel.
+   *
+   * @param ends    is the pairs of coordinates to connect.
+   * @param tileMap is the map to search on, which must not change meanwhile.
+   * @param pool    is the pool to search on.
+   * @return the planned routes.
+   */
+  static PlannedRoutes plan(List<Tuple<Coordinate, Coordinate>> ends, TileMap tileMap, ForkJoinPool pool) {
+    PathFinder.Route[] found = new PathFinder.Route[ends.size()];
+    pool.submit(() -> IntStream.range(0, found.length).parallel()
+        .forEach(i -> found[i] = PathFinder.findRouteAStar(ends.get(i).first(), ends.get(i).second(), tileMap)))
+        .join();
+    PlannedRoutes planned = new PlannedRoutes();
+    for (int i = 0; i < found.length; i++) {
+      planned.routes.putIfAbsent(ends.get(i), found[i]);
+    }
+    return planned;
+  }
+
+  /**
+   * Takes the planned route between two coordinates, if it is still the one a
+   * search would find on the current map.
+   *
+   * @param from is the coordinate to connect from.
+   * @param to   is the coordinate to connect to.
+   * @return the route, or null if there is none or it may have changed.
+   */
+  PathFinder.Route take(Coordinate from, Coordinate to) {
+    PathFinder.Route route = routes.remove(new Tuple<>(from, to));
+    if (route == null || route.hasReachedAny(changed)) {
+      return null;
+    }
+    return route;
+  }
+
+  /**
+   * Notes that a path was added to the map.
+   *
+   * @param path is the added path.
+   */
+  void onPathAdded(Path path) {
+    changed.addAll(path.getSteps());
+  }
+}
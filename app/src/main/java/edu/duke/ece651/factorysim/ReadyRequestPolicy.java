@@ -6,20 +6,87 @@ import java.util.*;
  * Request policy that selects the oldest request that can be done with the current
  * storage. A request is ready whenever the building's storage has the required ingredients
  * for that recipe. Note that selecting an older ready request may make newer ready
- * requests unready by consuming shared ingredients.
+ * requests unready by consuming shared ingredients.<br/>
+ * Whether a request is ready only depends on its recipe, so each queue keeps its
+ * requests grouped by recipe, oldest first. Which recipes are ready is only worked
+ * out again when the building's storage changes, so selecting takes O(number of
+ * recipes) instead of checking every request.
  */
 public class ReadyRequestPolicy extends RequestPolicy {
-  @Override
-  public Request selectRequest(Building producer, List<Request> requests) {
-    // Find the first (oldest) ready request
-    for (Request request : requests) {
-      if (producer.hasAllIngredientsFor(request.getRecipe())) {
-        return request;
+  /**
+   * The requests of a queue grouped by recipe, and the recipes that were ready
+   * the last time the storage was checked.
+   */
+  static final class ReadySet implements RequestQueue.Listener {
+    private final Map<Recipe, TreeSet<Request>> requestsByRecipe = new IdentityHashMap<>();
+    private final List<Recipe> readyRecipes = new ArrayList<>();
+    private boolean isChecked = false;
+    private Building checkedProducer = null;
+    private int checkedStorageVersion = 0;
+
+    ReadySet(RequestQueue queue) {
+      for (Request request : queue) {
+        onAdded(request);
+      }
+    }
+
+    @Override
+    public void onAdded(Request request) {
+      TreeSet<Request> requests = requestsByRecipe.get(request.getRecipe());
+      if (requests == null) {
+        requests = new TreeSet<>(RequestQueue.IN_QUEUE_ORDER);
+        requestsByRecipe.put(request.getRecipe(), requests);
+        // a new recipe has not been checked yet
+        isChecked = false;
+      }
+      requests.add(request);
+    }
+
+    @Override
+    public void onRemoved(Request request) {
+      TreeSet<Request> requests = requestsByRecipe.get(request.getRecipe());
+      requests.remove(request);
+      if (requests.isEmpty()) {
+        requestsByRecipe.remove(request.getRecipe());
+        readyRecipes.remove(request.getRecipe());
       }
     }
-    
-    // If no ready requests, return null
-    return null;
+
+    /**
+     * Gets the oldest ready request.
+     *
+     * @param producer is the building whose storage to check.
+     * @return the oldest ready request, or null if none is ready.
+     */
+    Request getOldestReady(Building producer) {
+      if (!isChecked || producer != checkedProducer || producer.getStorageVersion() != checkedStorageVersion) {
+        readyRecipes.clear();
+        for (Recipe recipe : requestsByRecipe.keySet()) {
+          if (producer.hasAllIngredientsFor(recipe)) {
+            readyRecipes.add(recipe);
+          }
+        }
+        isChecked = true;
+        checkedProducer = producer;
+        checkedStorageVersion = producer.getStorageVersion();
+      }
+      Request oldest = null;
+      for (Recipe recipe : readyRecipes) {
+        Request first = requestsByRecipe.get(recipe).first();
+        if (oldest == null || RequestQueue.IN_QUEUE_ORDER.compare(first, oldest) < 0) {
+          oldest = first;
+        }
+      }
+      return oldest;
+    }
+  }
+
+  @Override
+  public Request selectRequest(Building producer, RequestQueue requests) {
+    if (requests.isEmpty()) {
+      return null;
+    }
+    return requests.getView(ReadySet.class, ReadySet::new).getOldestReady(producer);
   }
 
   @Override
@@ -14,6 +14,33 @@ public class Recipe {
   private final LinkedHashMap<Item, Integer> ingredients;
   private final int latency;
   private final LinkedHashMap<Item, Integer> wasteByProducts;
+  // the compiled form of the ingredients, see `compile`
+  private Compiled compiled = null;
+
+  /**
+   * The ingredients of a recipe as parallel arrays, in the order of
+   * `getIngredients`, so that they can be checked against a building's storage
+   * without map lookups or allocation.
+   */
+  static final class Compiled {
+    final Item[] items;
+    final int[] ids;
+    final int[] quantities;
+
+    private Compiled(Map<Item, Integer> ingredients) {
+      int n = ingredients.size();
+      items = new Item[n];
+      ids = new int[n];
+      quantities = new int[n];
+      int i = 0;
+      for (Map.Entry<Item, Integer> entry : ingredients.entrySet()) {
+        items[i] = entry.getKey();
+        ids[i] = entry.getKey().getId();
+        quantities[i] = entry.getValue();
+        i++;
+      }
+    }
+  }
 
   /**
    * Constructs a recipe.
@@ -99,6 +126,23 @@ public class Recipe {
     return latency;
   }
 
+  /**
+   * Gets the compiled form of the ingredients. `WorldBuilder` compiles every
+   * recipe it builds up front; other recipes are compiled on first use. The
+   * ingredients must not change afterwards.
+   *
+   * @return the compiled ingredients.
+   */
+  Compiled compile() {
+    // the fields of Compiled are final, so sharing it between threads is safe
+    Compiled result = compiled;
+    if (result == null) {
+      result = new Compiled(ingredients);
+      compiled = result;
+    }
+    return result;
+  }
+
   /**
    * Checks if the recipe produces waste byproducts.
    *
@@ -2,13 +2,15 @@ package edu.duke.ece651.factorysim;
 
 import com.google.gson.JsonObject;
 
+import java.util.Map;
+
 /**
  * Represents a request for an item in the simulation.
  * The request can either come from user to a building, or from a building to
  * another building.
  */
 public class Request {
-  private final int orderNum;
+  private int orderNum;
   private final Item item;
   private final Recipe recipe;
   private final Building producer;
@@ -16,6 +18,12 @@ public class Request {
   private int remainingSteps;
   private String status;
 
+  // the links of the request queue this request is in, see `RequestQueue`
+  RequestQueue queue = null;
+  Request previousInQueue = null;
+  Request nextInQueue = null;
+  long positionInQueue = 0;
+
   /**
    * Constructs a request.
    *
@@ -46,6 +54,29 @@ public class Request {
     return orderNum;
   }
 
+  /**
+   * Replaces the temporary order number a request got while its component was
+   * stepping on its own thread.
+   *
+   * @param orderNum is the final order number.
+   */
+  void setOrderNum(int orderNum) {
+    this.orderNum = orderNum;
+  }
+
+  /**
+   * Copies this request for a copy of the simulation.
+   *
+   * @param copies is the copy of each building of the original simulation.
+   * @return the copy of this request, between the copied buildings.
+   */
+  Request copyFor(Map<Building, Building> copies) {
+    Request copy = new Request(orderNum, item, recipe, copies.get(producer), copies.get(deliverTo));
+    copy.remainingSteps = remainingSteps;
+    copy.status = status;
+    return copy;
+  }
+
   /**
    * Gets the requested item.
    *
@@ -1,21 +1,18 @@
 package edu.duke.ece651.factorysim;
 
-import java.util.*;
-
 /**
  * Defines a policy for selecting a request to pop.
  */
 public abstract class RequestPolicy implements Policy {
   /**
-   * Pops a request from the given list based on the policy.<br/>
-   * Note that the method should pop and return the request by modifying the
-   * <code>requests</code> list.
+   * Selects the request to be processed next from the given queue based on the
+   * policy. The request is not removed from the queue.
    *
    * @param producer the building that handles the request.
-   * @param requests the request list reference for modification.
-   * @return the popped request based on the policy.
+   * @param requests the pending request queue of the building.
+   * @return the selected request, or null if none can be selected.
    */
-  public abstract Request selectRequest(Building producer, List<Request> requests);
+  public abstract Request selectRequest(Building producer, RequestQueue requests);
 
   /**
    * Gets the policy type's name.
@@ -0,0 +1,277 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * The queue of pending requests of a building, oldest first.<br/>
+ * The queue is linked through the requests themselves, so removing a request
+ * takes O(1) instead of searching the queue for it. As a consequence, a request
+ * can only be in one queue at a time.<br/>
+ * Listeners are told about every request added to or removed from the queue,
+ * so that request policies and buildings can keep their own orderings and
+ * counts of the same requests on top of it. Such orderings can break ties with
+ * `IN_QUEUE_ORDER`, which orders the requests the way they are in the queue.
+ */
+public class RequestQueue extends AbstractList<Request> {
+  /**
+   * Gets notified when requests join or leave a queue.
+   */
+  public interface Listener {
+    /**
+     * Indicates a request was added to the queue.
+     *
+     * @param request is the added request.
+     */
+    void onAdded(Request request);
+
+    /**
+     * Indicates a request was removed from the queue.
+     *
+     * @param request is the removed request.
+     */
+    void onRemoved(Request request);
+  }
+
+  /**
+   * Orders the requests of a queue the way they are in the queue.
+   */
+  static final Comparator<Request> IN_QUEUE_ORDER = Comparator.comparingLong(request -> request.positionInQueue);
+
+  private Request head = null;
+  private Request tail = null;
+  private int size = 0;
+  private long nextPosition = 0;
+  private final List<Listener> listeners = new ArrayList<>();
+  private final Map<Class<?>, Listener> views = new HashMap<>();
+
+  /**
+   * Constructs an empty request queue.
+   */
+  public RequestQueue() {
+  }
+
+  /**
+   * Adds a listener that gets notified about every request added or removed
+   * from now on.
+   *
+   * @param listener is the listener to add.
+   */
+  public void addListener(Listener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener added by `addListener`.
+   *
+   * @param listener is the listener to remove.
+   */
+  public void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Gets the view of a given kind that is kept on top of this queue, e.g. a
+   * request policy's own ordering of the requests. The view is created from the
+   * current requests on first use, and is then kept up to date as a listener.
+   *
+   * @param <T>     is the kind of view.
+   * @param kind    is the class of the view.
+   * @param factory creates the view for this queue.
+   * @return the view of this queue.
+   */
+  public <T extends Listener> T getView(Class<T> kind, Function<RequestQueue, T> factory) {
+    Listener view = views.get(kind);
+    if (view == null) {
+      view = factory.apply(this);
+      views.put(kind, view);
+      addListener(view);
+    }
+    return kind.cast(view);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the request at an index. This walks the queue from its closer end, so
+   * it only takes O(1) for the oldest and the newest request.
+   *
+   * @param index is the index of the request.
+   * @return the request at that index.
+   * @throws IndexOutOfBoundsException if the index is out of range.
+   */
+  @Override
+  public Request get(int index) {
+    return getNode(index);
+  }
+
+  private Request getNode(int index) {
+    Objects.checkIndex(index, size);
+    Request node;
+    if (index < size / 2) {
+      node = head;
+      for (int i = 0; i < index; i++) {
+        node = node.nextInQueue;
+      }
+    } else {
+      node = tail;
+      for (int i = size - 1; i > index; i--) {
+        node = node.previousInQueue;
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Adds a request to the end of the queue.
+   *
+   * @param request is the request to add.
+   * @return true.
+   * @throws IllegalArgumentException if the request is already in a queue.
+   */
+  @Override
+  public boolean add(Request request) {
+    linkBefore(request, null);
+    return true;
+  }
+
+  @Override
+  public void add(int index, Request request) {
+    if (index == size) {
+      linkBefore(request, null);
+    } else {
+      linkBefore(request, getNode(index));
+    }
+  }
+
+  private void linkBefore(Request request, Request next) {
+    if (request.queue != null) {
+      throw new IllegalArgumentException("Request " + request.getOrderNum() + " is already in a queue");
+    }
+    Request previous = next == null ? tail : next.previousInQueue;
+    request.queue = this;
+    request.previousInQueue = previous;
+    request.nextInQueue = next;
+    if (previous == null) {
+      head = request;
+    } else {
+      previous.nextInQueue = request;
+    }
+    if (next == null) {
+      tail = request;
+      request.positionInQueue = nextPosition++;
+    } else {
+      next.previousInQueue = request;
+      // renumbering keeps the order of the others, so the views stay valid
+      nextPosition = 0;
+      for (Request node = head; node != null; node = node.nextInQueue) {
+        node.positionInQueue = nextPosition++;
+      }
+    }
+    size++;
+    modCount++;
+    for (Listener listener : listeners) {
+      listener.onAdded(request);
+    }
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return o instanceof Request && ((Request) o).queue == this;
+  }
+
+  /**
+   * Removes a request from the queue in O(1).
+   *
+   * @param o is the request to remove.
+   * @return true if the request was in this queue, false otherwise.
+   */
+  @Override
+  public boolean remove(Object o) {
+    if (!contains(o)) {
+      return false;
+    }
+    unlink((Request) o);
+    return true;
+  }
+
+  @Override
+  public Request remove(int index) {
+    Request request = getNode(index);
+    unlink(request);
+    return request;
+  }
+
+  private void unlink(Request request) {
+    Request previous = request.previousInQueue;
+    Request next = request.nextInQueue;
+    if (previous == null) {
+      head = next;
+    } else {
+      previous.nextInQueue = next;
+    }
+    if (next == null) {
+      tail = previous;
+    } else {
+      next.previousInQueue = previous;
+    }
+    request.queue = null;
+    request.previousInQueue = null;
+    request.nextInQueue = null;
+    size--;
+    modCount++;
+    for (Listener listener : listeners) {
+      listener.onRemoved(request);
+    }
+  }
+
+  @Override
+  public void clear() {
+    while (head != null) {
+      unlink(head);
+    }
+  }
+
+  @Override
+  public Iterator<Request> iterator() {
+    return new Iterator<Request>() {
+      private Request next = head;
+      private Request last = null;
+      private int expectedModCount = modCount;
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public Request next() {
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        last = next;
+        next = next.nextInQueue;
+        return last;
+      }
+
+      @Override
+      public void remove() {
+        if (last == null) {
+          throw new IllegalStateException();
+        }
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        unlink(last);
+        last = null;
+        expectedModCount = modCount;
+      }
+    };
+  }
+}
@@ -0,0 +1,25 @@
+package edu.duke.ece651.factorysim;
+
+/**
+ * Usage: <code>restore name</code>
+ */
+public class RestoreCommand implements Command {
+  @Override
+  public String getName() {
+    return "restore";
+  }
+
+  @Override
+  public void execute(String[] args, Simulation sim) {
+    // Check argument count
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Invalid 'restore' command: illegal number of arguments");
+    }
+    // Make sure the first argument is "restore"
+    if (!args[0].equals(getName())) {
+      throw new IllegalArgumentException("Invalid 'restore' command: command name doesn't match");
+    }
+    // Operate on the simulation
+    sim.restoreSnapshot(args[1]);
+  }
+}
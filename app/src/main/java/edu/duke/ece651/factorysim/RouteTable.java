@@ -0,0 +1,145 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.*;
+
+/**
+ * The paths between buildings, in the order they were added, indexed by the
+ * coordinates they start and end at.<br/>
+ * Looking up the path between two buildings, or the index of a path, takes
+ * O(1) instead of checking every path with `Path.isMatch`. If several paths
+ * have the same ends, lookups find the first of them, like a scan would.
+ * Paths must not change after they are added.
+ */
+public class RouteTable extends AbstractList<Path> implements RandomAccess {
+  /**
+   * The coordinates a path starts and ends at.
+   */
+  private static final class Ends {
+    final Coordinate from;
+    final Coordinate to;
+
+    Ends(Coordinate from, Coordinate to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof Ends)) {
+        return false;
+      }
+      Ends ends = (Ends) object;
+      return from.equals(ends.from) && to.equals(ends.to);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * from.hashCode() + to.hashCode();
+    }
+  }
+
+  private final List<Path> paths = new ArrayList<>();
+  private final Map<Ends, Path> byEnds = new HashMap<>();
+  private final Map<Path, Integer> indexes = new IdentityHashMap<>();
+
+  /**
+   * Constructs an empty route table.
+   */
+  public RouteTable() {
+  }
+
+  private static Ends endsOf(Path path) {
+    List<Coordinate> steps = path.getSteps();
+    if (steps.isEmpty()) {
+      return null;
+    }
+    return new Ends(steps.getFirst(), steps.getLast());
+  }
+
+  /**
+   * Gets the first path from one coordinate to another.
+   *
+   * @param from is the coordinate the path starts at.
+   * @param to   is the coordinate the path ends at.
+   * @return the path, or null if there is none.
+   */
+  public Path get(Coordinate from, Coordinate to) {
+    if (from == null || to == null) {
+      return null;
+    }
+    return byEnds.get(new Ends(from, to));
+  }
+
+  @Override
+  public Path get(int index) {
+    return paths.get(index);
+  }
+
+  @Override
+  public int size() {
+    return paths.size();
+  }
+
+  @Override
+  public int indexOf(Object o) {
+    Integer index = indexes.get(o);
+    return index == null ? -1 : index;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return indexes.containsKey(o);
+  }
+
+  @Override
+  public void add(int index, Path path) {
+    if (index == paths.size()) {
+      paths.add(path);
+      indexes.putIfAbsent(path, index);
+      Ends ends = endsOf(path);
+      if (ends != null) {
+        byEnds.putIfAbsent(ends, path);
+      }
+    } else {
+      paths.add(index, path);
+      reindex();
+    }
+    modCount++;
+  }
+
+  @Override
+  public Path set(int index, Path path) {
+    Path old = paths.set(index, path);
+    reindex();
+    return old;
+  }
+
+  @Override
+  public Path remove(int index) {
+    Path path = paths.remove(index);
+    reindex();
+    modCount++;
+    return path;
+  }
+
+  @Override
+  public void clear() {
+    paths.clear();
+    byEnds.clear();
+    indexes.clear();
+    modCount++;
+  }
+
+  private void reindex() {
+    byEnds.clear();
+    indexes.clear();
+    for (int i = 0; i < paths.size(); i++) {
+      Path path = paths.get(i);
+      indexes.putIfAbsent(path, i);
+      Ends ends = endsOf(path);
+      if (ends != null) {
+        byEnds.putIfAbsent(ends, path);
+      }
+    }
+  }
+}
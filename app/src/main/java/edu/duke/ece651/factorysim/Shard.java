@@ -0,0 +1,162 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.*;
+
+/**
+ * Collects what the buildings of one connected component do while they step on
+ * their own thread, so it can be merged afterwards as if every building had
+ * stepped one by one in world order.<br/>
+ * Wake-ups stay within the component, so they are tracked here. Log messages,
+ * new deliveries and order numbers are shared by the whole simulation, so they
+ * are kept per stepping building and handed over to the simulation in world
+ * order once all components are done. Completed orders are only counted, and
+ * added to the simulation's count when merging. Order numbers handed out in a component
+ * are temporary: they are larger than any order number in use and increase in
+ * the order they are taken, so comparing them within the component gives the
+ * same result as comparing the final ones.
+ */
+final class Shard {
+  private static final ThreadLocal<Shard> CURRENT = new ThreadLocal<>();
+
+  /**
+   * What a single building did in its step.
+   */
+  static final class Output {
+    final int index;
+    final List<String> messages = new ArrayList<>();
+    final List<Delivery> deliveries = new ArrayList<>();
+    final int firstOrderNum;
+    int numOfOrderNums;
+
+    private Output(int index, int firstOrderNum) {
+      this.index = index;
+      this.firstOrderNum = firstOrderNum;
+    }
+  }
+
+  final List<Building> buildings;
+  final BitSet active = new BitSet();
+  final BitSet changed = new BitSet();
+  final List<Integer> stepped = new ArrayList<>();
+  final List<Output> outputs = new ArrayList<>();
+  final int baseOrderNum;
+  int numOfOrderNums;
+  int numOfCompletedOrders;
+  RuntimeException error;
+  int errorIndex;
+
+  // the index of the building stepping right now
+  private int index = -1;
+
+  /**
+   * Constructs a shard for a component.
+   *
+   * @param buildings    is the buildings of the component, in world order.
+   * @param baseOrderNum is the next order number of the simulation.
+   */
+  Shard(List<Building> buildings, int baseOrderNum) {
+    this.buildings = buildings;
+    this.baseOrderNum = baseOrderNum;
+  }
+
+  /**
+   * Gets the shard being stepped on the current thread.
+   *
+   * @return the current shard, or null if the thread is not stepping one.
+   */
+  static Shard current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Makes this shard the one being stepped on the current thread, or clears it.
+   *
+   * @param shard is the shard being stepped, or null when done.
+   */
+  static void setCurrent(Shard shard) {
+    if (shard == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(shard);
+    }
+  }
+
+  /**
+   * Starts collecting the output of the building at an index.
+   *
+   * @param index is the index of the building about to step.
+   */
+  void startStep(int index) {
+    this.index = index;
+  }
+
+  /**
+   * Keeps the error the stepping building failed with.
+   *
+   * @param error is the error.
+   */
+  void fail(RuntimeException error) {
+    this.error = error;
+    this.errorIndex = index;
+  }
+
+  private Output getOutput() {
+    Output last = outputs.isEmpty() ? null : outputs.get(outputs.size() - 1);
+    if (last == null || last.index != index) {
+      last = new Output(index, numOfOrderNums);
+      outputs.add(last);
+    }
+    return last;
+  }
+
+  /**
+   * Keeps a log message of the stepping building.
+   *
+   * @param message is the message.
+   */
+  void log(String message) {
+    getOutput().messages.add(message);
+  }
+
+  /**
+   * Keeps a delivery sent by the stepping building.
+   *
+   * @param delivery is the delivery.
+   */
+  void addDelivery(Delivery delivery) {
+    getOutput().deliveries.add(delivery);
+  }
+
+  /**
+   * Gets the delivery sent last by the stepping building.
+   *
+   * @return the delivery, or null if the building sent none yet.
+   */
+  Delivery getLastDelivery() {
+    if (outputs.isEmpty()) {
+      return null;
+    }
+    Output last = outputs.get(outputs.size() - 1);
+    if (last.index != index || last.deliveries.isEmpty()) {
+      return null;
+    }
+    return last.deliveries.get(last.deliveries.size() - 1);
+  }
+
+  /**
+   * Hands out a temporary order number to the stepping building.
+   *
+   * @return the temporary order number.
+   */
+  int getOrderNum() {
+    getOutput().numOfOrderNums++;
+    return baseOrderNum + numOfOrderNums++;
+  }
+
+  /**
+   * Counts an order completed by the stepping building.
+   */
+  void completeOrder() {
+    numOfCompletedOrders++;
+  }
+}
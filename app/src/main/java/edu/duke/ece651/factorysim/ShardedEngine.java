@@ -0,0 +1,47 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An engine that steps every connected component of the world on its own
+ * thread. Components share no sources, requests, waste disposals or drone
+ * ports, so they can step at the same time; what they log, deliver and order
+ * is merged in world order, so the result is the same as with the `tick`
+ * engine.
+ */
+public class ShardedEngine implements Engine {
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a sharded engine running on the common pool.
+   */
+  public ShardedEngine() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a sharded engine running on the given pool.
+   *
+   * @param pool is the pool to run on.
+   */
+  public ShardedEngine(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public String getName() {
+    return "sharded";
+  }
+
+  @Override
+  public void step(Simulation simulation, int n) {
+    for (int i = 0; i < n; i++) {
+      simulation.tickSharded(pool);
+    }
+  }
+
+  @Override
+  public void stepToNextEvent(Simulation simulation) {
+    simulation.tickSharded(pool);
+  }
+}
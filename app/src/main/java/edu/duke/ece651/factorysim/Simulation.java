@@ -4,6 +4,8 @@ import com.google.gson.*;
 import edu.duke.ece651.factorysim.db.SessionDAO;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -11,23 +13,36 @@ import java.util.stream.Collectors;
  * Runs the factory simulation, managing buildings and item production.
  */
 public class Simulation {
+  // the number of connections searched for at once per thread of a pool
+  private static final int CONNECTIONS_PER_THREAD = 8;
+
   private World world;
   private final Map<String, RequestPolicy> requestPolicies = new HashMap<>();
   private final Map<String, SourcePolicy> sourcePolicies = new HashMap<>();
   private RequestPolicy defaultRequestPolicy = new FifoRequestPolicy();
   private SourcePolicy defaultSourcePolicy = new QLenSourcePolicy();
+  private Engine engine = new TickEngine();
 
   private int currentTime;
   private boolean finished = false;
   private int nextOrderNum = 0;
+  private int numOfCompletedOrders = 0;
   private int boardWidth = 1000;
   private int boardHeight = 100;
 
   private int verbosity;
 
   private Logger logger;
-  private final List<Path> pathList = new ArrayList<>();
+  private final RouteTable pathList = new RouteTable();
+  // the routes searched for ahead by a batch of connections being made
+  private PlannedRoutes plannedRoutes = null;
   DeliverySchedule deliverySchedule = new DeliverySchedule();
+  private final BuildingScheduler scheduler = new BuildingScheduler();
+  // connected components of the world, rebuilt when buildings or sources change
+  private BuildingComponents components;
+  // the drone ports covering each part of the world, rebuilt when buildings change
+  private DronePortIndex dronePorts;
+  private final Map<String, Simulation> snapshots = new HashMap<>();
 
   // Event
   private final EventHandler<Building> onBuildingRemoved = new EventHandler<>();
@@ -58,9 +73,21 @@ public class Simulation {
    * @param logger       the injected logger.
    */
   public Simulation(String jsonFilePath, int verbosity, Logger logger) {
+    this(JsonLoader.loadConfigData(jsonFilePath), verbosity, logger);
+  }
+
+  /**
+   * Creates a simulation from an already parsed configuration, so that many
+   * simulations can be built from a single parse. The configuration is only
+   * read, never changed.
+   *
+   * @param configData the parsed configuration.
+   * @param verbosity  the initial verbosity.
+   * @param logger     the injected logger.
+   */
+  public Simulation(ConfigData configData, int verbosity, Logger logger) {
     this.currentTime = 0;
     // this.finished = false;
-    ConfigData configData = JsonLoader.loadConfigData(jsonFilePath);
     this.world = WorldBuilder.buildWorld(configData, this);
     // this.nextOrderNum = 0;
     this.verbosity = verbosity;
@@ -224,6 +251,35 @@ public class Simulation {
     return sourcePolicies.getOrDefault(building, defaultSourcePolicy);
   }
 
+  /**
+   * Sets the engine used to advance the simulation through time.
+   *
+   * @param name the name of the engine, such as "tick", "event", "parallel" or
+   *             "sharded".
+   * @throws IllegalArgumentException if the engine name is unknown.
+   */
+  public void setEngine(String name) {
+    this.engine = EngineFactory.createEngine(name);
+  }
+
+  /**
+   * Sets the engine used to advance the simulation through time.
+   *
+   * @param engine the engine to use.
+   */
+  public void setEngine(Engine engine) {
+    this.engine = engine;
+  }
+
+  /**
+   * Gets the engine used to advance the simulation through time.
+   *
+   * @return the current engine.
+   */
+  public Engine getEngine() {
+    return engine;
+  }
+
   /**
    * Working on the simulation for n steps.
    *
@@ -234,17 +290,233 @@ public class Simulation {
     if (n < 1 || n == Integer.MAX_VALUE) {
       throw new IllegalArgumentException("The number of step must be positive and not too large.");
     }
-    for (int i = 0; i < n; i++) {
-      deliverySchedule.step(pathList);
-      for (Building building : world.getBuildings()) {
-        building.step();
-      }
-      currentTime++;
-    }
+    engine.step(this, n);
     // check if any pending removals can be completed
     checkPendingRemovals();
   }
 
+  /**
+   * Simulates exactly one time step: deliveries move first, then every awake
+   * building steps in world order.
+   */
+  void tick() {
+    tick(null);
+  }
+
+  /**
+   * Simulates exactly one time step, using a pool to plan the buildings' steps
+   * and check which buildings can sleep in parallel. The buildings still step
+   * one by one in world order, so the result is the same as without a pool.
+   *
+   * @param pool is the pool to run on, or null to run serially.
+   */
+  void tick(ForkJoinPool pool) {
+    deliverySchedule.step(pathList);
+    scheduler.step(world, currentTime, pool);
+    currentTime++;
+    scheduler.sleepIdleBuildings(currentTime, pool);
+  }
+
+  /**
+   * Simulates exactly one time step, stepping each connected component of the
+   * world on its own thread of the pool. Within a component the buildings
+   * still step in world order, and the log messages, deliveries and order
+   * numbers of all components are merged in world order afterwards, so the
+   * result is the same as stepping every building one by one. If a building
+   * fails, the other components have still stepped, and the error of the first
+   * failing building in world order is thrown once everything is merged.
+   *
+   * @param pool is the pool to run on.
+   */
+  void tickSharded(ForkJoinPool pool) {
+    deliverySchedule.step(pathList);
+    Logger serialLogger = logger;
+    logger = message -> {
+      Shard shard = Shard.current();
+      if (shard != null) {
+        shard.log(message);
+      } else {
+        serialLogger.log(message);
+      }
+    };
+    // built up front, since the components look it up concurrently
+    getDronePorts();
+    List<Shard> shards;
+    try {
+      shards = scheduler.stepShards(world, currentTime, pool, getComponents(), nextOrderNum);
+    } finally {
+      logger = serialLogger;
+    }
+    mergeShards(shards);
+    currentTime++;
+    scheduler.sleepIdleBuildings(currentTime, pool);
+  }
+
+  /**
+   * Hands over what the buildings of each shard did to the simulation, in world
+   * order: log messages are logged, deliveries are scheduled, completed orders
+   * are counted and temporary order numbers are replaced by the ones serial
+   * stepping would have given.
+   *
+   * @param shards is the shards that stepped on their own threads.
+   * @throws RuntimeException the error of the first failing building in world
+   *                          order, if any.
+   */
+  private void mergeShards(List<Shard> shards) {
+    List<Shard.Output> outputs = new ArrayList<>();
+    Map<Shard.Output, Shard> shardOf = new IdentityHashMap<>();
+    for (Shard shard : shards) {
+      outputs.addAll(shard.outputs);
+      for (Shard.Output output : shard.outputs) {
+        shardOf.put(output, shard);
+      }
+    }
+    outputs.sort(Comparator.comparingInt(output -> output.index));
+
+    Map<Shard, int[]> orderNums = new IdentityHashMap<>();
+    for (Shard.Output output : outputs) {
+      for (String message : output.messages) {
+        logger.log(message);
+      }
+      for (Delivery delivery : output.deliveries) {
+        deliverySchedule.adopt(delivery);
+      }
+      Shard shard = shardOf.get(output);
+      int[] nums = orderNums.computeIfAbsent(shard, s -> new int[s.numOfOrderNums]);
+      for (int i = 0; i < output.numOfOrderNums; i++) {
+        nums[output.firstOrderNum + i] = nextOrderNum++;
+      }
+    }
+
+    RuntimeException error = null;
+    int errorIndex = Integer.MAX_VALUE;
+    for (Shard shard : shards) {
+      numOfCompletedOrders += shard.numOfCompletedOrders;
+      if (shard.numOfOrderNums > 0) {
+        int[] nums = orderNums.get(shard);
+        for (Building building : shard.buildings) {
+          for (Request request : building.getPendingRequests()) {
+            renumber(request, shard.baseOrderNum, nums);
+          }
+          renumber(building.getCurrentRequest(), shard.baseOrderNum, nums);
+        }
+      }
+      if (shard.error != null && shard.errorIndex < errorIndex) {
+        errorIndex = shard.errorIndex;
+        error = shard.error;
+      }
+    }
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  /**
+   * Replaces a temporary order number given out while stepping a shard.
+   *
+   * @param request      is the request to renumber, may be null.
+   * @param baseOrderNum is the first temporary order number.
+   * @param orderNums    is the final order number for each temporary one.
+   */
+  private static void renumber(Request request, int baseOrderNum, int[] orderNums) {
+    if (request != null && request.getOrderNum() >= baseOrderNum) {
+      request.setOrderNum(orderNums[request.getOrderNum() - baseOrderNum]);
+    }
+  }
+
+  /**
+   * Gets the connected components of the world, rebuilding them if the
+   * buildings or their sources changed.
+   *
+   * @return the connected components.
+   */
+  BuildingComponents getComponents() {
+    if (components == null || !components.isUpToDate(world)) {
+      components = new BuildingComponents(world);
+    }
+    return components;
+  }
+
+  /**
+   * Gets the index of the world's drone ports, rebuilding it if the buildings
+   * changed.
+   *
+   * @return the drone port index.
+   */
+  DronePortIndex getDronePorts() {
+    if (dronePorts == null || !dronePorts.isUpToDate(world)) {
+      dronePorts = new DronePortIndex(world);
+    }
+    return dronePorts;
+  }
+
+  /**
+   * Called when the sources of a building change, which may connect two
+   * components.
+   */
+  void onSourcesChanged() {
+    components = null;
+  }
+
+  /**
+   * Gets the buildings a stepping building may interact with. While components
+   * step on their own threads, this is only the component of the building, so
+   * that other components are never looked at concurrently.
+   *
+   * @return the buildings to look at, in world order.
+   */
+  List<Building> getReachableBuildings() {
+    Shard shard = Shard.current();
+    return shard == null ? getWorld().getBuildings() : shard.buildings;
+  }
+
+  /**
+   * Gets the number of upcoming time steps in which nothing happens except
+   * countdowns, so they can be skipped with `skip`.
+   *
+   * @return the number of idle steps, or Integer.MAX_VALUE if nothing will ever
+   *         happen again.
+   */
+  int getIdleSteps() {
+    int steps = Math.min(deliverySchedule.getStepsToNextEvent(),
+        scheduler.getStepsToNextEvent(world, currentTime));
+    return steps == Integer.MAX_VALUE ? steps : steps - 1;
+  }
+
+  /**
+   * Skips n idle time steps by applying all countdowns at once.
+   * Precondition: n <= getIdleSteps()
+   *
+   * @param n the number of steps to skip.
+   */
+  void skip(int n) {
+    if (n == 0) {
+      return;
+    }
+    deliverySchedule.advance(n, pathList);
+    scheduler.skip(world, currentTime, n);
+    currentTime += n;
+  }
+
+  /**
+   * Wakes up a building so that it steps again, because something happened to
+   * it (e.g. it got a request or received items).
+   *
+   * @param building is the building to wake up.
+   */
+  void wakeUp(Building building) {
+    scheduler.wakeUp(building);
+  }
+
+  /**
+   * Gets the scheduler that decides which buildings step in each time step.
+   *
+   * @return the building scheduler.
+   */
+  public BuildingScheduler getScheduler() {
+    return scheduler;
+  }
+
   /**
    * Requests a building to produce an item with no delivery target (because it's
    * a user request).
@@ -256,14 +528,8 @@ public class Simulation {
    *                                  building is not found.
    */
   public void makeUserRequest(String itemName, String buildingName) {
-    Building producer = null;
-    for (Building building : world.getBuildings()) {
-      if (building.getName().equals(buildingName)) {
-        producer = building;
-        break;
-      }
-    }
-    Item item = new Item(itemName);
+    Building producer = world.getBuildingFromName(buildingName);
+    Item item = ItemRegistry.intern(itemName);
     // check if the recipe exists
     Recipe recipe = world.getRecipeForItem(item);
     if (recipe == null) {
@@ -287,26 +553,42 @@ public class Simulation {
    */
   public void finish() {
     while (!allRequestsFinished()) {
-      step(1);
+      engine.stepToNextEvent(this);
+      checkPendingRemovals();
     }
     logger.log("Simulation completed at time-step " + currentTime);
     finished = true;
   }
 
   /**
-   * Checks if all building completed all their request.
+   * Finishes all requests like `finish`, but gives up once the time step
+   * reaches a limit, e.g. when the policies in use can never finish.
    *
-   * @return true if all buildings are done, false otherwise.
+   * @param timeLimit is the time step at which to give up.
+   * @return true if all requests finished, false if the limit was reached.
    */
-  public boolean allRequestsFinished() {
-    for (Building building : world.getBuildings()) {
-      if (!building.isFinished()) {
+  public boolean finish(int timeLimit) {
+    while (!allRequestsFinished()) {
+      if (currentTime >= timeLimit) {
         return false;
       }
+      engine.stepToNextEvent(this);
+      checkPendingRemovals();
     }
+    logger.log("Simulation completed at time-step " + currentTime);
+    finished = true;
     return true;
   }
 
+  /**
+   * Checks if all building completed all their request.
+   *
+   * @return true if all buildings are done, false otherwise.
+   */
+  public boolean allRequestsFinished() {
+    return scheduler.allFinished(world, currentTime);
+  }
+
   /**
    * Checks if the simulation is finished.
    *
@@ -341,7 +623,17 @@ public class Simulation {
    * @return the order number.
    */
   public int getOrderNum() {
-    return nextOrderNum++;
+    Shard shard = Shard.current();
+    return shard == null ? nextOrderNum++ : shard.getOrderNum();
+  }
+
+  /**
+   * Gets the number of user requests completed so far.
+   *
+   * @return the number of completed orders.
+   */
+  public int getNumOfCompletedOrders() {
+    return numOfCompletedOrders;
   }
 
   /**
@@ -351,6 +643,8 @@ public class Simulation {
    */
   public void setVerbosity(int n) {
     this.verbosity = n;
+    // verbosity decides whether waiting buildings have anything to log
+    scheduler.wakeUpAll();
   }
 
   /**
@@ -396,6 +690,12 @@ public class Simulation {
    * @param completed the completed request instance.
    */
   public void onRequestCompleted(Request completed) {
+    Shard shard = Shard.current();
+    if (shard == null) {
+      numOfCompletedOrders++;
+    } else {
+      shard.completeOrder();
+    }
     if (verbosity < 0) {
       return;
     }
@@ -491,9 +791,10 @@ public class Simulation {
 
     // Log each request's information
     int selectedIndex = 0;
-    for (int i = 0; i < requests.size(); i++) {
+    int i = 0;
+    for (Request request : requests) {
       // Get selected index
-      if (requests.get(i) == selectedRequest) {
+      if (request == selectedRequest) {
         selectedIndex = i;
       }
 
@@ -522,6 +823,7 @@ public class Simulation {
         s.append("}");
       }
       logger.log(s.toString());
+      i++;
     }
 
     // Log selected request
@@ -624,6 +926,93 @@ public class Simulation {
     return gson.toJson(getGameState());
   }
 
+  /**
+   * Creates an independent copy of this simulation in memory, which can be
+   * stepped, connected or changed without affecting this one. Unlike saving
+   * and loading, nothing is parsed and no path is searched for again: the
+   * buildings, their storage and requests, the deliveries and the drones are
+   * copied, while the paths, recipes, types and policies, which never change,
+   * are shared.
+   *
+   * @param logger is the logger of the copy.
+   * @return the copy.
+   */
+  public Simulation fork(Logger logger) {
+    Simulation fork = new Simulation((World) null, verbosity, logger);
+    fork.copyStateFrom(this);
+    return fork;
+  }
+
+  /**
+   * Keeps an in-memory copy of the current state under a name, to go back to
+   * it later with `restoreSnapshot`. A snapshot with the same name is
+   * replaced.
+   *
+   * @param name is the name of the snapshot.
+   */
+  public void saveSnapshot(String name) {
+    snapshots.put(name, fork(message -> {
+    }));
+    logger.log("Snapshot " + name + " taken at time-step " + currentTime);
+  }
+
+  /**
+   * Replaces the current state by a copy of a snapshot. The snapshot is kept,
+   * so it can be restored again.
+   *
+   * @param name is the name of the snapshot.
+   * @throws IllegalArgumentException if there is no snapshot with that name.
+   */
+  public void restoreSnapshot(String name) {
+    Simulation snapshot = snapshots.get(name);
+    if (snapshot == null) {
+      throw new IllegalArgumentException("No snapshot named " + name);
+    }
+    copyStateFrom(snapshot);
+    logger.log("Snapshot " + name + " restored at time-step " + currentTime);
+  }
+
+  /**
+   * Replaces the state of this simulation by a copy of another one's. The
+   * logger, listeners and snapshots of this simulation are kept.
+   *
+   * @param original is the simulation to copy.
+   */
+  private void copyStateFrom(Simulation original) {
+    // sleeping buildings apply their countdowns lazily, so bring them up to date
+    original.scheduler.catchUpAll(original.world, original.currentTime);
+
+    requestPolicies.clear();
+    requestPolicies.putAll(original.requestPolicies);
+    sourcePolicies.clear();
+    sourcePolicies.putAll(original.sourcePolicies);
+    defaultRequestPolicy = original.defaultRequestPolicy;
+    defaultSourcePolicy = original.defaultSourcePolicy;
+    engine = original.engine;
+    currentTime = original.currentTime;
+    finished = original.finished;
+    nextOrderNum = original.nextOrderNum;
+    numOfCompletedOrders = original.numOfCompletedOrders;
+    boardWidth = original.boardWidth;
+    boardHeight = original.boardHeight;
+    verbosity = original.verbosity;
+
+    Map<Building, Building> copies = new IdentityHashMap<>();
+    for (Building building : original.world.getBuildings()) {
+      copies.put(building, building.copyFor(this));
+    }
+    for (Building building : original.world.getBuildings()) {
+      copies.get(building).copyStateFrom(building, copies);
+    }
+    world = original.world.copyFor(copies);
+    components = null;
+
+    pathList.clear();
+    pathList.addAll(original.pathList);
+    deliverySchedule.clear();
+    deliverySchedule.addCopiesOf(original.deliverySchedule, copies);
+  }
+
   /**
    * Saves the current simulation state to a file.
    *
@@ -694,21 +1083,13 @@ public class Simulation {
     JsonElement connectionsElement = state.get("connections");
     if (connectionsElement != null && !connectionsElement.isJsonNull()) {
       JsonArray connectionsArray = connectionsElement.getAsJsonArray();
+      List<ConnectionDTO> connections = new ArrayList<>();
       for (JsonElement element : connectionsArray) {
         JsonObject connection = element.getAsJsonObject();
-        String source = connection.get("source").getAsString();
-        String destination = connection.get("destination").getAsString();
-
-        try {
-          connectBuildings(source, destination);
-        } catch (IllegalArgumentException e) {
-          // Log error but continue with other connections
-          if (verbosity > 0) {
-            logger.log("Failed to establish connection from " + source +
-                " to " + destination + ": " + e.getMessage());
-          }
-        }
+        connections.add(new ConnectionDTO(connection.get("source").getAsString(),
+            connection.get("destination").getAsString()));
       }
+      establishConnections(connections);
     }
 
     JsonElement requestsElement = state.get("requests");
@@ -740,7 +1121,7 @@ public class Simulation {
       JsonObject ob = element.getAsJsonObject();
       Building source = world.getBuildingFromName(ob.get("source").getAsString());
       Building destination = world.getBuildingFromName(ob.get("destination").getAsString());
-      Item item = new Item(ob.get("item").getAsString());
+      Item item = ItemRegistry.intern(ob.get("item").getAsString());
       int quantity = ob.get("quantity").getAsInt();
       int deliveryTime = ob.get("deliveryTime").getAsInt();
       int pathIndex = ob.get("pathIndex").getAsInt();
@@ -749,6 +1130,9 @@ public class Simulation {
           ob.get("y").getAsInt());
       Delivery delivery = new Delivery(source, destination, item, quantity, deliveryTime, pathIndex, stepIndex,
           currentCoordinate);
+      if (ob.has("units")) {
+        delivery.numOfUnits = ob.get("units").getAsInt();
+      }
       deliverySchedule.addDelivery(delivery);
     }
   }
@@ -818,7 +1202,7 @@ public class Simulation {
 
       int orderNum = json.get("orderNum").getAsInt();
       String itemName = json.get("item").getAsString();
-      Item item = new Item(itemName);
+      Item item = ItemRegistry.intern(itemName);
 
       String recipeName = json.get("recipe").getAsString();
       Recipe recipe = world.getRecipeFromName(recipeName);
@@ -933,19 +1317,91 @@ public class Simulation {
       return;
     }
 
-    for (ConnectionDTO connection : connections) {
+    connectBuildings(connections, (connection, e) -> {
+      // log error but continue with other connections
+      if (verbosity > 0) {
+        logger.log("Failed to establish connection from " + connection.getSource() +
+            " to " + connection.getDestination() + ": " + e.getMessage());
+      }
+    });
+  }
+
+  /**
+   * Connects the buildings of many connections by name, on the common pool.
+   *
+   * @param connections is the connections to make, in order.
+   * @param onFailure   is told about each connection that fails, in order.
+   * @see #connectBuildings(List, BiConsumer, ForkJoinPool)
+   */
+  public void connectBuildings(List<ConnectionDTO> connections,
+      BiConsumer<ConnectionDTO, IllegalArgumentException> onFailure) {
+    connectBuildings(connections, onFailure, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Connects the buildings of many connections by name, with the same result
+   * as calling `connectBuildings(String, String)` on each in turn, but finding
+   * the paths in parallel.<br/>
+   * The connections are taken a window at a time. The paths of a window are
+   * all searched for in parallel on the map as it is before the window, and
+   * then the connections are made in order, each using its planned path unless
+   * the paths added before it in the window changed a tile its search looked
+   * at, in which case it searches again.
+   *
+   * @param connections is the connections to make, in order.
+   * @param onFailure   is told about each connection that fails, in order,
+   *                    with the exception `connectBuildings` threw.
+   * @param pool        is the pool to search on, or null to search serially.
+   */
+  void connectBuildings(List<ConnectionDTO> connections,
+      BiConsumer<ConnectionDTO, IllegalArgumentException> onFailure, ForkJoinPool pool) {
+    int windowSize = pool == null ? connections.size() : pool.getParallelism() * CONNECTIONS_PER_THREAD;
+    for (int start = 0; start < connections.size(); start += windowSize) {
+      List<ConnectionDTO> window = connections.subList(start, Math.min(start + windowSize, connections.size()));
+      if (pool != null) {
+        plannedRoutes = PlannedRoutes.plan(findEndsToRoute(window), getWorld().tileMap, pool);
+      }
       try {
-        connectBuildings(connection.getSource(), connection.getDestination());
-      } catch (IllegalArgumentException e) {
-        // log error but continue with other connections
-        if (verbosity > 0) {
-          logger.log("Failed to establish connection from " + connection.getSource() +
-              " to " + connection.getDestination() + ": " + e.getMessage());
+        for (ConnectionDTO connection : window) {
+          try {
+            if (getWorld().getBuildingFromName(connection.getSource()) == null) {
+              throw noSuchBuilding("Source", connection.getSource());
+            }
+            if (getWorld().getBuildingFromName(connection.getDestination()) == null) {
+              throw noSuchBuilding("Destination", connection.getDestination());
+            }
+            connectBuildings(connection.getSource(), connection.getDestination());
+          } catch (IllegalArgumentException e) {
+            onFailure.accept(connection, e);
+          }
         }
+      } finally {
+        plannedRoutes = null;
       }
     }
   }
 
+  /**
+   * Finds the locations of the buildings of connections that would need a new
+   * path.
+   */
+  private List<Tuple<Coordinate, Coordinate>> findEndsToRoute(List<ConnectionDTO> connections) {
+    List<Tuple<Coordinate, Coordinate>> ends = new ArrayList<>();
+    for (ConnectionDTO connection : connections) {
+      Building srcBuilding = getWorld().getBuildingFromName(connection.getSource());
+      Building dstBuilding = getWorld().getBuildingFromName(connection.getDestination());
+      if (srcBuilding == null || dstBuilding == null) {
+        continue;
+      }
+      Coordinate src = srcBuilding.getLocation();
+      Coordinate dst = dstBuilding.getLocation();
+      if (src != null && dst != null && pathList.get(src, dst) == null) {
+        ends.add(new Tuple<>(src, dst));
+      }
+    }
+    return ends;
+  }
+
   /**
    * Attempts to connect two buildings using the shortest valid path on the map.
    * If a valid path already exists in the cache, it is reused. Otherwise, a new
@@ -971,19 +1427,19 @@ public class Simulation {
 
     Coordinate src = srcBuilding.getLocation();
     Coordinate dst = dstBuilding.getLocation();
-    for (Path p : pathList) {
-      if (p.isMatch(src, dst)) {
-        // Update destination building's sources when connecting
-        List<Building> sources = new ArrayList<>(dstBuilding.getSources());
-        if (!sources.contains(srcBuilding)) {
-          sources.add(srcBuilding);
-          dstBuilding.updateSources(sources);
-        }
-        return p;
+    Path existing = pathList.get(src, dst);
+    if (existing != null) {
+      // Update destination building's sources when connecting
+      List<Building> sources = new ArrayList<>(dstBuilding.getSources());
+      if (!sources.contains(srcBuilding)) {
+        sources.add(srcBuilding);
+        dstBuilding.updateSources(sources);
       }
+      return existing;
     }
 
-    Path path = PathFinder.findPath(src, dst, world.tileMap);
+    PathFinder.Route route = plannedRoutes == null ? null : plannedRoutes.take(src, dst);
+    Path path = route != null ? route.getPath() : PathFinder.findPathAStar(src, dst, world.tileMap);
     if (path == null) {
       throw new IllegalArgumentException(
           "Cannot connect " + srcBuilding.getName() + " to " + dstBuilding.getName() + ": No valid path.");
@@ -993,6 +1449,9 @@ public class Simulation {
 
       // add the path to the tileMap
       world.tileMap.addPath(path);
+      if (plannedRoutes != null) {
+        plannedRoutes.onPathAdded(path);
+      }
 
       // Update destination building's sources
       List<Building> sources = new ArrayList<>(dstBuilding.getSources());
@@ -1095,28 +1554,20 @@ public class Simulation {
     Coordinate src = srcBuilding.getLocation();
     Coordinate dst = dstBuilding.getLocation();
 
-    Iterator<Path> iterator = pathList.iterator();
-    int index = 0;
-
-    while (iterator.hasNext()) {
-      Path path = iterator.next();
-
-      if (path.isMatch(src, dst)) {
-        if (deliverySchedule.checkUsingPath(path)) {
-          throw new IllegalArgumentException("The path is in use by delivery and cannot be removed.");
-        }
-        if (checkNewTileReuse(index)) {
-          throw new IllegalArgumentException("The path is in use by other path and cannot be removed.");
-        }
-        removePath(path, pathList);
-        iterator.remove();
-
-        return true;
-      }
-      index++;
+    Path path = pathList.get(src, dst);
+    if (path == null) {
+      throw new IllegalArgumentException("The path does not exist.");
     }
-
-    throw new IllegalArgumentException("The path does not exist.");
+    int index = pathList.indexOf(path);
+    if (deliverySchedule.checkUsingPath(path)) {
+      throw new IllegalArgumentException("The path is in use by delivery and cannot be removed.");
+    }
+    if (checkNewTileReuse(index)) {
+      throw new IllegalArgumentException("The path is in use by other path and cannot be removed.");
+    }
+    removePath(path, pathList);
+    pathList.remove(index);
+    return true;
   }
 
   public boolean checkNewTileReuse(int pathIndex) {
@@ -1173,13 +1624,13 @@ public class Simulation {
 
       if (!reused) {
         if (world.tileMap.getTileType(from) != TileType.BUILDING) {
-          world.tileMap.getFlows(from)[dir] = 0;
+          world.tileMap.clearFlow(from, dir);
         }
         if (world.tileMap.getTileType(to) != TileType.BUILDING) {
-          world.tileMap.getFlows(to)[oppDir] = 0;
+          world.tileMap.clearFlow(to, oppDir);
         }
 
-        if (isZeroFlow(world.tileMap.getFlows(from))) {
+        if (world.tileMap.hasNoFlow(from)) {
           world.tileMap.setTileType(from, TileType.ROAD);
         }
         // if (isZeroFlow(world.tileMap.getFlows(to))) {
@@ -1231,15 +1682,19 @@ public class Simulation {
     Building dstBuilding = world.getBuildingFromName(destName);
 
     if (srcBuilding == null) {
-      throw new IllegalArgumentException("Source building '" + sourceName + "' does not exist.");
+      throw noSuchBuilding("Source", sourceName);
     }
     if (dstBuilding == null) {
-      throw new IllegalArgumentException("Destination building '" + destName + "' does not exist.");
+      throw noSuchBuilding("Destination", destName);
     }
 
     return connectBuildings(srcBuilding, dstBuilding) != null;
   }
 
+  private static IllegalArgumentException noSuchBuilding(String role, String name) {
+    return new IllegalArgumentException(role + " building '" + name + "' does not exist.");
+  }
+
   /**
    * Attempts to disconnect two buildings by name.
    * If the path is in use, it cannot be removed.
@@ -1281,7 +1736,8 @@ public class Simulation {
    * possible.
    * Will use drone delivery if both buildings are within range of a drone port
    * that has available drones.
-   * Otherwise, use normal road delivery.
+   * Otherwise, use normal road delivery. A road delivery that leaves right
+   * after another one of the same item between the same buildings joins it.
    *
    * @param src      the source building
    * @param dst      the destination building
@@ -1300,7 +1756,7 @@ public class Simulation {
       Drone drone = dronePort.getAvailableDrone();
       if (drone != null) {
         DroneDelivery droneDelivery = new DroneDelivery(dronePort, drone, src, dst, item, quantity);
-        deliverySchedule.addDelivery(droneDelivery);
+        scheduleDelivery(droneDelivery);
 
         if (verbosity > 0) {
           logger.log("[drone delivery scheduled]: Using drone from " + dronePortBuilding.getName() +
@@ -1312,18 +1768,38 @@ public class Simulation {
     }
 
     // if drone not available, use normal road delivery
-    boolean isConnected = false;
-    for (int i = 0; i < pathList.size(); i++) {
-      if (pathList.get(i).isMatch(src.getLocation(), dst.getLocation())) {
-        Delivery d = new Delivery(src, dst, item, quantity, pathList.get(i).getDeliveryTime(), i);
-        deliverySchedule.addDelivery(d);
-        isConnected = true;
-        break;
-      }
-    }
-    if (!isConnected) {
+    Path path = pathList.get(src.getLocation(), dst.getLocation());
+    if (path == null) {
       throw new IllegalArgumentException("building " + src.getName() + " and " + dst.getName() + " are not connected");
     }
+    Shard shard = Shard.current();
+    if (shard == null) {
+      // joins the last delivery if the unit would arrive right after it
+      deliverySchedule.addRoadDelivery(src, dst, item, quantity, path, pathList.indexOf(path));
+      return;
+    }
+    Delivery last = shard.getLastDelivery();
+    if (last != null && last.canJoin(src, dst, item, quantity, path)) {
+      // the unit would arrive right after the last delivery, so it travels with it
+      last.join(quantity);
+      return;
+    }
+    shard.addDelivery(new Delivery(src, dst, item, quantity, path, pathList.indexOf(path)));
+  }
+
+  /**
+   * Adds a delivery to the schedule, or keeps it in the current shard until
+   * all components have stepped.
+   *
+   * @param delivery is the delivery to add.
+   */
+  private void scheduleDelivery(Delivery delivery) {
+    Shard shard = Shard.current();
+    if (shard != null) {
+      shard.addDelivery(delivery);
+    } else {
+      deliverySchedule.addDelivery(delivery);
+    }
   }
 
   /**
@@ -1336,19 +1812,12 @@ public class Simulation {
    * @return a suitable drone port building, or null if none is available
    */
   private DronePortBuilding findSuitableDronePort(Building src, Building dst) {
-    for (Building building : world.getBuildings()) {
-      if (building instanceof DronePortBuilding) {
-        DronePortBuilding dronePortBuilding = (DronePortBuilding) building;
-        DronePort dronePort = dronePortBuilding.getDronePort();
-
-        if (dronePort.isWithinRadius(src) && dronePort.isWithinRadius(dst) && dronePort.hasAvailableDrone()) {
-          return dronePortBuilding;
-        }
-      }
-    }
-    return null;
+    // a port covering src is in the component of src, so this finds the same
+    // port while components step on their own
+    return getDronePorts().findPort(src, dst);
   }
 
+
   /**
    * Converts the cached list of paths into a JSON array.
    * Each path is serialized with coordinate steps, flow directions, and new
@@ -1375,12 +1844,8 @@ public class Simulation {
    * @return a building name
    */
   public String getBuildingNameByCoordinate(Coordinate coordinate) {
-    for (Building building : world.getBuildings()) {
-      if (building.getLocation().equals(coordinate)) {
-        return building.getName();
-      }
-    }
-    return null;
+    Building building = world.getBuildingAt(coordinate);
+    return building == null ? null : building.getName();
   }
 
   /**
@@ -1,23 +1,46 @@
 package edu.duke.ece651.factorysim;
 
-import java.util.List;
+import java.util.Comparator;
+import java.util.TreeSet;
 
 /**
- * Implements Shortest Job First (SJF) request policy.
+ * Implements Shortest Job First (SJF) request policy.<br/>
+ * Among the requests with the shortest recipe latency, the one that has been
+ * in the queue the longest is selected. Each queue keeps its requests sorted
+ * this way, so selecting takes O(1) and queue changes take O(log n).
  */
 public class SjfRequestPolicy extends RequestPolicy {
+  /**
+   * The requests of a queue, shortest job first.
+   */
+  static final class ShortestFirst implements RequestQueue.Listener {
+    private final TreeSet<Request> requests = new TreeSet<>(
+        Comparator.comparingInt((Request request) -> request.getRecipe().getLatency())
+            .thenComparing(RequestQueue.IN_QUEUE_ORDER));
+
+    ShortestFirst(RequestQueue queue) {
+      for (Request request : queue) {
+        requests.add(request);
+      }
+    }
+
+    @Override
+    public void onAdded(Request request) {
+      requests.add(request);
+    }
+
+    @Override
+    public void onRemoved(Request request) {
+      requests.remove(request);
+    }
+  }
+
   @Override
-  public Request selectRequest(Building producer, List<Request> requests) {
+  public Request selectRequest(Building producer, RequestQueue requests) {
     if (requests.isEmpty()) {
       return null;
     }
-    Request shortestRequest = requests.getFirst();
-    for (Request request : requests) {
-      if (request.getRecipe().getLatency() < shortestRequest.getRecipe().getLatency()) {
-        shortestRequest = request;
-      }
-    }
-    return shortestRequest;
+    return requests.getView(ShortestFirst.class, ShortestFirst::new).requests.first();
   }
 
   @Override
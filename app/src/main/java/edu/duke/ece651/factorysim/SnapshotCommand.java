@@ -0,0 +1,25 @@
+package edu.duke.ece651.factorysim;
+
+/**
+ * Usage: <code>snapshot name</code>
+ */
+public class SnapshotCommand implements Command {
+  @Override
+  public String getName() {
+    return "snapshot";
+  }
+
+  @Override
+  public void execute(String[] args, Simulation sim) {
+    // Check argument count
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Invalid 'snapshot' command: illegal number of arguments");
+    }
+    // Make sure the first argument is "snapshot"
+    if (!args[0].equals(getName())) {
+      throw new IllegalArgumentException("Invalid 'snapshot' command: command name doesn't match");
+    }
+    // Operate on the simulation
+    sim.saveSnapshot(args[1]);
+  }
+}
@@ -1,6 +1,8 @@
 package edu.duke.ece651.factorysim;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
@@ -51,6 +53,20 @@ public class StorageBuilding extends Building {
     return storageItem.equals(item);
   }
 
+  @Override
+  Building copyFor(Simulation simulation) {
+    return new StorageBuilding(getName(), new ArrayList<>(), simulation, storageItem, maxCapacity, priority);
+  }
+
+  @Override
+  void copyStateFrom(Building original, Map<Building, Building> copies) {
+    super.copyStateFrom(original, copies);
+    StorageBuilding storage = (StorageBuilding) original;
+    outstandingRequestNum = storage.outstandingRequestNum;
+    arrivingItemNum = storage.arrivingItemNum;
+    currentStockNum = storage.currentStockNum;
+  }
+
   /**
    * Converts the current status of building into JSON.
    * 
@@ -106,6 +122,7 @@ public class StorageBuilding extends Building {
 
     arrivingItemNum += quantity;
     outstandingRequestNum = Math.max(0, outstandingRequestNum - quantity);
+    getSimulation().wakeUp(this);
   }
 
   /**
@@ -139,7 +156,8 @@ public class StorageBuilding extends Building {
     // can give away many at a time, and use fifo only to choose request
 
     while (!getPendingRequest().isEmpty() && currentStockNum > 0) {
-      Request request = getPendingRequests().remove(0); // use fifo only
+      Request request = getPendingRequests().get(0); // use fifo only
+      removePendingRequest(request);
       if (request.isUserRequest()) {
         takeFromStorage(storageItem, 1);
         getSimulation().onRequestCompleted(request);
@@ -155,12 +173,10 @@ public class StorageBuilding extends Building {
     arrivingItemNum = 0;
 
     // periodically make refill requests from sources
-    int pendingRequestsCount = getPendingRequests().size();
-    int R = maxCapacity - currentStockNum - outstandingRequestNum + pendingRequestsCount;
+    int R = getRefillDeficit();
 
     if (R > 0) {
-      int T = maxCapacity;
-      int F = (int) Math.ceil((double) (T * T) / (R * priority));
+      int F = getRefillInterval(R);
       int currentTime = getSimulation().getCurrentTime();
 
       if (currentTime % F == 0) {
@@ -185,6 +201,70 @@ public class StorageBuilding extends Building {
     }
   }
 
+  /**
+   * Gets the number of items the storage is missing, counting outstanding refill
+   * requests as already arriving and pending requests as still to be given away.
+   *
+   * @return the refill deficit R.
+   */
+  private int getRefillDeficit() {
+    int pendingRequestsCount = getPendingRequests().size();
+    return maxCapacity - currentStockNum - outstandingRequestNum + pendingRequestsCount;
+  }
+
+  /**
+   * Gets how often a refill request is made for a given deficit.
+   *
+   * @param R is the refill deficit, which must be positive.
+   * @return the refill interval F in time steps.
+   */
+  private int getRefillInterval(int R) {
+    int T = maxCapacity;
+    return (int) Math.ceil((double) (T * T) / (R * priority));
+  }
+
+  /**
+   * Gets the number of time steps until this storage next gives away stock,
+   * receives arriving items or makes a refill request.
+   *
+   * @return the number of steps until the next event (at least 1), or
+   *         Integer.MAX_VALUE if the storage will stay idle.
+   */
+  @Override
+  public int getStepsToNextEvent() {
+    if ((!getPendingRequests().isEmpty() && currentStockNum > 0) || arrivingItemNum > 0) {
+      return 1;
+    }
+    int R = getRefillDeficit();
+    if (R <= 0 || getAvailableSourcesForItem(storageItem).isEmpty()) {
+      return Integer.MAX_VALUE;
+    }
+    int F = getRefillInterval(R);
+    if (F <= 0) {
+      return 1;
+    }
+    // the next refill happens on the first step whose time is a multiple of F
+    return Math.floorMod(-getSimulation().getCurrentTime(), F) + 1;
+  }
+
+  /**
+   * Storage buildings always give away stock in FIFO order without a request
+   * policy, so there is nothing to plan.
+   */
+  @Override
+  public void planStep() {
+  }
+
+  /**
+   * Storage buildings never process a current request, so there is nothing to
+   * count down.
+   *
+   * @param steps is the number of steps to skip.
+   */
+  @Override
+  public void advance(int steps) {
+  }
+
   /**
    * Gets the current storage number of an item.
    * 
@@ -0,0 +1,88 @@
+package edu.duke.ece651.factorysim;
+
+/**
+ * The result of running one variant of a parameter sweep.
+ */
+public class SweepResult {
+  private final String name;
+  private final boolean finished;
+  private final int makespan;
+  private final int completedOrders;
+  private final long wallTimeMillis;
+  private final String error;
+
+  /**
+   * Constructs a result.
+   *
+   * @param name            is the name of the variant.
+   * @param finished        is whether all requests finished.
+   * @param makespan        is the time step the run stopped at.
+   * @param completedOrders is the number of user requests completed.
+   * @param wallTimeMillis  is how long the run took, in milliseconds.
+   * @param error           is the reason the run failed, or null.
+   */
+  public SweepResult(String name, boolean finished, int makespan, int completedOrders, long wallTimeMillis,
+      String error) {
+    this.name = name;
+    this.finished = finished;
+    this.makespan = makespan;
+    this.completedOrders = completedOrders;
+    this.wallTimeMillis = wallTimeMillis;
+    this.error = error;
+  }
+
+  /**
+   * Gets the name of the variant.
+   *
+   * @return the name.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Checks if all requests finished within the time limit.
+   *
+   * @return true if all requests finished, false otherwise.
+   */
+  public boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * Gets the time step at which all requests finished, or at which the run
+   * stopped if they did not.
+   *
+   * @return the makespan.
+   */
+  public int getMakespan() {
+    return makespan;
+  }
+
+  /**
+   * Gets the number of user requests completed.
+   *
+   * @return the number of completed orders.
+   */
+  public int getCompletedOrders() {
+    return completedOrders;
+  }
+
+  /**
+   * Gets how long the run took.
+   *
+   * @return the wall time in milliseconds.
+   */
+  public long getWallTimeMillis() {
+    return wallTimeMillis;
+  }
+
+  /**
+   * Gets the reason the run failed.
+   *
+   * @return the error message, or null if the run did not fail.
+   */
+  public String getError() {
+    return error;
+  }
+}
@@ -0,0 +1,143 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many variants of the same simulation at once, e.g. to compare policies.
+ * The configuration is parsed only once, and every variant gets its own
+ * `Simulation` built from it, so the runs share nothing and can run on any
+ * executor. Each run applies the variant's commands, then the workload (such
+ * as `request` commands), then finishes all requests with the event engine,
+ * giving up at a time limit.
+ */
+public class SweepRunner {
+  private final ConfigData configData;
+  private final List<String> workload;
+  private final int timeLimit;
+
+  /**
+   * Constructs a sweep runner from a JSON configuration file.
+   *
+   * @param jsonFilePath is the path to the JSON file.
+   * @param workload     is the commands every variant runs.
+   * @param timeLimit    is the time step at which unfinished runs give up.
+   */
+  public SweepRunner(String jsonFilePath, List<String> workload, int timeLimit) {
+    this(JsonLoader.loadConfigData(jsonFilePath), workload, timeLimit);
+  }
+
+  /**
+   * Constructs a sweep runner from a parsed configuration.
+   *
+   * @param configData is the parsed configuration.
+   * @param workload   is the commands every variant runs.
+   * @param timeLimit  is the time step at which unfinished runs give up.
+   */
+  public SweepRunner(ConfigData configData, List<String> workload, int timeLimit) {
+    this.configData = configData;
+    this.workload = new ArrayList<>(workload);
+    this.timeLimit = timeLimit;
+  }
+
+  /**
+   * Runs all variants on virtual threads.
+   *
+   * @param variants is the variants to run.
+   * @return the results, in the same order as the variants.
+   */
+  public List<SweepResult> run(List<SweepVariant> variants) {
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      return run(variants, executor);
+    }
+  }
+
+  /**
+   * Runs all variants on an executor, e.g. a fixed pool to bound the number of
+   * runs at the same time.
+   *
+   * @param variants is the variants to run.
+   * @param executor is the executor to run on.
+   * @return the results, in the same order as the variants.
+   */
+  public List<SweepResult> run(List<SweepVariant> variants, ExecutorService executor) {
+    List<Future<SweepResult>> futures = new ArrayList<>();
+    for (SweepVariant variant : variants) {
+      futures.add(executor.submit(() -> runVariant(variant)));
+    }
+    List<SweepResult> results = new ArrayList<>();
+    try {
+      for (Future<SweepResult> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("The sweep was interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A sweep run failed", e.getCause());
+    }
+    return results;
+  }
+
+  /**
+   * Runs a single variant on the current thread. A run that fails, e.g.
+   * because of a bad command or because it cannot make any more progress, gives
+   * a result with the error instead of throwing.
+   *
+   * @param variant is the variant to run.
+   * @return the result of the run.
+   */
+  public SweepResult runVariant(SweepVariant variant) {
+    long start = System.nanoTime();
+    Simulation sim = null;
+    try {
+      sim = new Simulation(configData, 0, message -> {
+      });
+      sim.setEngine("event");
+      CommandHandler handler = new CommandHandler(sim);
+      for (String command : variant.getCommands()) {
+        handler.execute(command);
+      }
+      for (String command : workload) {
+        handler.execute(command);
+      }
+      boolean finished = sim.finish(timeLimit);
+      return new SweepResult(variant.getName(), finished, sim.getCurrentTime(), sim.getNumOfCompletedOrders(),
+          getMillisSince(start), null);
+    } catch (RuntimeException e) {
+      return new SweepResult(variant.getName(), false, sim == null ? 0 : sim.getCurrentTime(),
+          sim == null ? 0 : sim.getNumOfCompletedOrders(), getMillisSince(start), e.getMessage());
+    }
+  }
+
+  private static long getMillisSince(long start) {
+    return (System.nanoTime() - start) / 1_000_000;
+  }
+
+  /**
+   * Formats sweep results as a table with one row per run.
+   *
+   * @param results is the results to format.
+   * @return the table.
+   */
+  public static String formatTable(List<SweepResult> results) {
+    int width = "variant".length();
+    for (SweepResult result : results) {
+      width = Math.max(width, result.getName().length());
+    }
+    String format = "%-" + width + "s  %10s  %10s  %10s  %s%n";
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format(format, "variant", "makespan", "completed", "wall ms", "status"));
+    for (SweepResult result : results) {
+      String status = result.getError() != null ? "error: " + result.getError()
+          : result.isFinished() ? "finished" : "time limit";
+      sb.append(String.format(format, result.getName(), result.getMakespan(), result.getCompletedOrders(),
+          result.getWallTimeMillis(), status));
+    }
+    return sb.toString();
+  }
+}
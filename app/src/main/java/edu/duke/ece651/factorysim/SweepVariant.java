@@ -0,0 +1,74 @@
+package edu.duke.ece651.factorysim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One variant of a parameter sweep: a name and the commands that set it up,
+ * such as `set policy request 'sjf' on *`. The commands run on a fresh
+ * simulation before the sweep's workload, so a variant can set policies for
+ * all buildings or for single ones.
+ */
+public class SweepVariant {
+  private final String name;
+  private final List<String> commands;
+
+  /**
+   * Constructs a variant.
+   *
+   * @param name     is the name of the variant, shown in the results.
+   * @param commands is the commands that set up the variant.
+   */
+  public SweepVariant(String name, List<String> commands) {
+    this.name = name;
+    this.commands = new ArrayList<>(commands);
+  }
+
+  /**
+   * Gets the name of the variant.
+   *
+   * @return the name.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the commands that set up the variant.
+   *
+   * @return the commands.
+   */
+  public List<String> getCommands() {
+    return commands;
+  }
+
+  /**
+   * Builds a variant for every combination of a request policy and a source
+   * policy, each applied to all buildings.
+   *
+   * @param requestPolicies is the request policies, e.g. "fifo".
+   * @param sourcePolicies  is the source policies, e.g. "qlen".
+   * @return the variants, request policy first.
+   */
+  public static List<SweepVariant> policyGrid(List<String> requestPolicies, List<String> sourcePolicies) {
+    List<SweepVariant> variants = new ArrayList<>();
+    for (String requestPolicy : requestPolicies) {
+      for (String sourcePolicy : sourcePolicies) {
+        variants.add(new SweepVariant(requestPolicy + "/" + sourcePolicy, List.of(
+            "set policy request '" + requestPolicy + "' on *",
+            "set policy source '" + sourcePolicy + "' on *")));
+      }
+    }
+    return variants;
+  }
+
+  /**
+   * Builds a variant for every combination of the built-in request and source
+   * policies.
+   *
+   * @return the variants.
+   */
+  public static List<SweepVariant> policyGrid() {
+    return policyGrid(List.of("fifo", "sjf", "ready"), List.of("qlen", "simplelat", "recursivelat"));
+  }
+}
@@ -0,0 +1,23 @@
+package edu.duke.ece651.factorysim;
+
+/**
+ * Engine that steps every delivery and building on every time step.
+ */
+public class TickEngine implements Engine {
+  @Override
+  public String getName() {
+    return "tick";
+  }
+
+  @Override
+  public void step(Simulation simulation, int n) {
+    for (int i = 0; i < n; i++) {
+      simulation.tick();
+    }
+  }
+
+  @Override
+  public void stepToNextEvent(Simulation simulation) {
+    simulation.tick();
+  }
+}
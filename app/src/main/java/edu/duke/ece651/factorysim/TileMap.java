@@ -4,6 +4,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
 import java.util.*;
+import java.util.stream.LongStream;
 
 /**
  * Represents the grid-based map used in the factory simulation.
@@ -12,11 +13,28 @@ import java.util.*;
  */
 public class TileMap {
 
-    private final Map<Coordinate, TileType> tileMap;
+    /**
+     * How the tiles of a map are stored.
+     */
+    public enum Storage {
+        /** Every tile up front, for boards of ordinary size. */
+        DENSE,
+        /** Only the chunks of the board where buildings or paths are, for very large boards. */
+        CHUNKED
+    }
+
+    // boards with more tiles than this are chunked unless asked otherwise
+    static final long MAX_DEFAULT_DENSE_TILES = 1L << 24;
+
+    // tile type codes are the index in TYPES, so a new storage is all ROAD
+    private static final TileType[] TYPES = {TileType.ROAD, TileType.PATH, TileType.BUILDING};
     // directions: 0 = up, 1 = right, 2 = down, 3 = left
     // flow: -1 = flow in, 0 = no flow, 1 = flow out, 2 = flow both ways
     // [-1, 0, 1, 0] means flow in from up, no flow from right, flow out to down, no flow from left
-    private final Map<Coordinate, int[]> pathFlows;
+    // the 4 flows of a tile are packed into a byte, 2 bits per direction (see `encodeFlow`),
+    // so a new storage has no flow anywhere
+    private final TileStorage tiles;
+    private final Storage storage;
     private final int width;
     private final int height;
 
@@ -30,22 +48,57 @@ public class TileMap {
         return height;
     }
 
+    /** @return how the tiles of the map are stored */
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Creates a tile map with ROAD type tiles and no flow, stored densely
+     * unless the board has more than 2^24 tiles.
+     *
+     * @param width the width of the map
+     * @param height the height of the map
+     */
     public TileMap(int width, int height) {
+        this(width, height, (long) width * height > MAX_DEFAULT_DENSE_TILES ? Storage.CHUNKED : Storage.DENSE);
+    }
+
+    /**
+     * Creates a tile map with ROAD type tiles and no flow.
+     *
+     * @param width the width of the map
+     * @param height the height of the map
+     * @param storage how the tiles are stored
+     * @throws IllegalArgumentException if the board is too large for the storage
+     */
+    public TileMap(int width, int height, Storage storage) {
         this.width = width;
         this.height = height;
-        this.tileMap = new HashMap<>();
-        this.pathFlows = new HashMap<>();
-        initializeTileMap();
+        this.storage = storage;
+        this.tiles = storage == Storage.CHUNKED ? new ChunkedTileStorage(width, height)
+                : new DenseTileStorage(width, height);
     }
 
-    /** Initializes the tile map with ROAD type tiles and no flow. */
-    private void initializeTileMap() {
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                tileMap.put(new Coordinate(x, y), TileType.ROAD);
-                pathFlows.put(new Coordinate(x, y), new int[]{0, 0, 0, 0});
-            }
-        }
+    /**
+     * Creates a copy of another tile map, for a copy of the simulation.
+     *
+     * @param original the tile map to copy
+     */
+    public TileMap(TileMap original) {
+        this.width = original.width;
+        this.height = original.height;
+        this.storage = original.storage;
+        this.tiles = original.tiles.copy();
+    }
+
+    private static int encodeFlow(int flow) {
+        // -1 becomes 3, the rest stay as they are
+        return flow & 3;
+    }
+
+    private static int decodeFlow(int code) {
+        return code == 3 ? -1 : code;
     }
 
     /**
@@ -65,7 +118,22 @@ public class TileMap {
      * @return tile type, or null if out of bounds
      */
     public TileType getTileType(Coordinate c) {
-        return tileMap.getOrDefault(c, null);
+        if (!isInsideMap(c)) {
+            return null;
+        }
+        return TYPES[tiles.getType(c.getX(), c.getY())];
+    }
+
+    /**
+     * Returns the type of a tile, without checking the bounds or making a
+     * coordinate, for searches that walk the map.
+     *
+     * @param x the x of a tile inside the map
+     * @param y the y of a tile inside the map
+     * @return tile type
+     */
+    TileType getTileType(int x, int y) {
+        return TYPES[tiles.getType(x, y)];
     }
 
     /**
@@ -73,13 +141,28 @@ public class TileMap {
      *
      * @param c coordinate of the tile
      * @param type tile type to set
-     * @throws IllegalArgumentException if coordinate is out of bounds
+     * @throws IllegalArgumentException if coordinate is out of bounds or type is null
      */
     public void setTileType(Coordinate c, TileType type) {
         if (!isInsideMap(c)) {
             throw new IllegalArgumentException("Coordinate out of bounds: " + c);
         }
-        tileMap.put(c, type);
+        if (type == null) {
+            throw new IllegalArgumentException("Tile type cannot be null");
+        }
+        byte code;
+        switch (type) {
+            case ROAD:
+                code = 0;
+                break;
+            case PATH:
+                code = 1;
+                break;
+            default:
+                code = 2;
+                break;
+        }
+        tiles.setType(c.getX(), c.getY(), code);
     }
 
     /**
@@ -110,7 +193,7 @@ public class TileMap {
                 } else if (type == TileType.PATH) {
                     center = 'P';
                 }
-                int[] flows = pathFlows.get(c);
+                int[] flows = getFlows(c);
                 char arrowUp =      flows[0] == 2 ? '|' : (flows[0] == 1 ? '^' : (flows[0] == -1 ? 'v' : ' '));
                 char arrowRight =   flows[1] == 2 ? '=' : (flows[1] == 1 ? '>' : (flows[1] == -1 ? '<' : ' '));
                 char arrowDown =    flows[2] == 2 ? '|' : (flows[2] == 1 ? 'v' : (flows[2] == -1 ? '^' : ' '));
@@ -161,11 +244,26 @@ public class TileMap {
         if (!isInsideMap(coord)) {
             throw new IllegalArgumentException("Coordinate out of bounds: " + coord);
         }
-        return pathFlows.get(coord)[directionIndex];
+        Objects.checkIndex(directionIndex, 4);
+        return decodeFlow(tiles.getFlows(coord.getX(), coord.getY()) >> (2 * directionIndex) & 3);
+    }
+
+    /**
+     * Retrieves the flow value for a given direction at a tile, without checking
+     * the bounds or making a coordinate, for searches that walk the map.
+     *
+     * @param x the x of a tile inside the map
+     * @param y the y of a tile inside the map
+     * @param directionIndex direction index (0=up, ..., 3=left)
+     * @return flow value
+     */
+    int getFlow(int x, int y, int directionIndex) {
+        return decodeFlow(tiles.getFlows(x, y) >> (2 * directionIndex) & 3);
     }
 
     /**
      * Retrieves all flow values for a given direction at a coordinate.
+     * The array is a copy, use `setFlow` or `clearFlow` to change them.
      *
      * @param coord the coordinate to inspect.
      * @return flow values.
@@ -175,7 +273,26 @@ public class TileMap {
       if (!isInsideMap(coord)) {
         throw new IllegalArgumentException("Coordinate out of bounds: " + coord);
       }
-      return pathFlows.get(coord);
+      int packed = tiles.getFlows(coord.getX(), coord.getY());
+      int[] flows = new int[4];
+      for (int dir = 0; dir < 4; dir++) {
+        flows[dir] = decodeFlow(packed >> (2 * dir) & 3);
+      }
+      return flows;
+    }
+
+    /**
+     * Checks whether a coordinate has no flow in any direction.
+     *
+     * @param coord the coordinate to inspect.
+     * @return true if all flows are 0, false otherwise.
+     * @throws IllegalArgumentException if coordinate is out of bounds.
+     */
+    public boolean hasNoFlow(Coordinate coord) {
+      if (!isInsideMap(coord)) {
+        throw new IllegalArgumentException("Coordinate out of bounds: " + coord);
+      }
+      return tiles.getFlows(coord.getX(), coord.getY()) == 0;
     }
 
     /**
@@ -187,14 +304,34 @@ public class TileMap {
      * @throws IllegalArgumentException if conflicting flow already exists
      */
     public void setFlow(Coordinate c, int dir, int flow) {
+        if (flow < -1 || flow > 2) {
+            throw new IllegalArgumentException("Invalid flow: " + flow);
+        }
         int existing = getFlow(c, dir);
         if (existing != 0 && existing != flow) {
             throw new IllegalArgumentException("Flow conflict at " + c + " dir=" + dir +
                     ": existing=" + existing + ", new=" + flow);
         }
         if (existing == 0) {
-            pathFlows.get(c)[dir] = flow;
+            int packed = tiles.getFlows(c.getX(), c.getY());
+            tiles.setFlows(c.getX(), c.getY(), packed | encodeFlow(flow) << (2 * dir));
+        }
+    }
+
+    /**
+     * Removes the flow in a particular direction at a given coordinate.
+     *
+     * @param c the coordinate
+     * @param dir direction (0=up, ..., 3=left)
+     * @throws IllegalArgumentException if coordinate is out of bounds
+     */
+    public void clearFlow(Coordinate c, int dir) {
+        if (!isInsideMap(c)) {
+            throw new IllegalArgumentException("Coordinate out of bounds: " + c);
         }
+        Objects.checkIndex(dir, 4);
+        int packed = tiles.getFlows(c.getX(), c.getY());
+        tiles.setFlows(c.getX(), c.getY(), packed & ~(3 << (2 * dir)));
     }
 
     /**
@@ -245,7 +382,9 @@ public class TileMap {
 
     /**
      * Serializes the current tile map to a JSON object.
-     * Includes width, height, tile types, and flow data.
+     * Includes width, height, tile types, and flow data. Only the tiles that
+     * are not ROAD with no flow are listed, so a tile that is missing is ROAD
+     * with no flow.
      *
      * @return a JsonObject representing the map
      */
@@ -254,14 +393,21 @@ public class TileMap {
         json.addProperty("width", width);
         json.addProperty("height", height);
 
+        // the storage lists its tiles in its own order, so they are sorted by
+        // coordinate, x first, to be the same however the map is stored
+        LongStream.Builder set = LongStream.builder();
+        tiles.forEachSet((x, y) -> set.add((long) x << 32 | y));
+        long[] keys = set.build().toArray();
+        Arrays.sort(keys);
+
         JsonArray tileArr=new JsonArray();
-        for(Map.Entry<Coordinate,TileType>entry:tileMap.entrySet()) {
-            Coordinate c= entry.getKey();
+        for (long key : keys) {
+            Coordinate c = new Coordinate((int) (key >>> 32), (int) key);
             JsonObject tileObj=new JsonObject();
             tileObj.addProperty("x", c.getX());
             tileObj.addProperty("y",c.getY());
-            tileObj.addProperty("type", entry.getValue().toString());
-            int[]flow=pathFlows.get(c);
+            tileObj.addProperty("type", getTileType(c).toString());
+            int[]flow=getFlows(c);
             JsonArray flowArr=new JsonArray();
             for (int j : flow) {
                 flowArr.add(j);
@@ -0,0 +1,73 @@
+package edu.duke.ece651.factorysim;
+
+/**
+ * Stores the tiles of a `TileMap`: a tile type code and the packed flows of
+ * every tile, both as small non-negative ints. A tile that was never set has
+ * code 0 and flows 0, which `TileMap` uses for ROAD with no flow.<br/>
+ * Coordinates are checked by `TileMap` before they get here.
+ */
+interface TileStorage {
+  /**
+   * Is told about the tiles a storage lists.
+   */
+  interface TileVisitor {
+    /**
+     * Visits a tile.
+     *
+     * @param x is the x of the tile.
+     * @param y is the y of the tile.
+     */
+    void visit(int x, int y);
+  }
+
+  /**
+   * Gets the type code of a tile.
+   *
+   * @param x is the x of the tile.
+   * @param y is the y of the tile.
+   * @return the type code.
+   */
+  int getType(int x, int y);
+
+  /**
+   * Sets the type code of a tile.
+   *
+   * @param x    is the x of the tile.
+   * @param y    is the y of the tile.
+   * @param code is the type code, which fits in a byte.
+   */
+  void setType(int x, int y, int code);
+
+  /**
+   * Gets the packed flows of a tile.
+   *
+   * @param x is the x of the tile.
+   * @param y is the y of the tile.
+   * @return the packed flows.
+   */
+  int getFlows(int x, int y);
+
+  /**
+   * Sets the packed flows of a tile.
+   *
+   * @param x     is the x of the tile.
+   * @param y     is the y of the tile.
+   * @param flows is the packed flows, which fit in a byte.
+   */
+  void setFlows(int x, int y, int flows);
+
+  /**
+   * Lists the tiles that are not at code 0 with no flow, in no particular
+   * order.
+   *
+   * @param visitor is told about each such tile.
+   */
+  void forEachSet(TileVisitor visitor);
+
+  /**
+   * Creates an independent copy of this storage.
+   *
+   * @return the copy.
+   */
+  TileStorage copy();
+}
@@ -3,6 +3,7 @@ package edu.duke.ece651.factorysim;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -11,6 +12,27 @@ import java.util.List;
 public class Type {
   private final String name;
   private final List<Recipe> recipes;
+  // the items the recipes output, see `hasRecipeFor`
+  private Outputs outputs = null;
+
+  /**
+   * The sorted ids of the items output by the recipes, for as many recipes as
+   * there were when it was made. Its size depends on the recipes only, not on
+   * how large the ids have grown.
+   */
+  private static final class Outputs {
+    final int numOfRecipes;
+    final int[] ids;
+
+    Outputs(List<Recipe> recipes) {
+      numOfRecipes = recipes.size();
+      ids = new int[numOfRecipes];
+      for (int i = 0; i < numOfRecipes; i++) {
+        ids[i] = recipes.get(i).getOutput().getId();
+      }
+      Arrays.sort(ids);
+    }
+  }
 
   /**
    * Constructs a factory type.
@@ -45,6 +67,24 @@ public class Type {
     return recipes;
   }
 
+  /**
+   * Checks if one of the recipes outputs an item, by item id instead of
+   * comparing names. The outputs are worked out again whenever the number of
+   * recipes changes.
+   *
+   * @param item is the item to check.
+   * @return true if a recipe of this type outputs the item, false otherwise.
+   */
+  boolean hasRecipeFor(Item item) {
+    // the fields of Outputs are final, so sharing it between threads is safe
+    Outputs result = outputs;
+    if (result == null || result.numOfRecipes != recipes.size()) {
+      result = new Outputs(recipes);
+      outputs = result;
+    }
+    return Arrays.binarySearch(result.ids, item.getId()) >= 0;
+  }
+
   /**
    * Converts the Type object to a JSON representation.
    *
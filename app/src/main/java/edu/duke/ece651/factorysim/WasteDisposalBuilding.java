@@ -93,6 +93,7 @@ public class WasteDisposalBuilding extends Building {
     }
     int currentReserved = reservedCapacityMap.getOrDefault(wasteType, 0);
     reservedCapacityMap.put(wasteType, currentReserved + quantity);
+    getSimulation().wakeUp(this);
     return true;
   }
 
@@ -105,6 +106,7 @@ public class WasteDisposalBuilding extends Building {
   public void releaseReservedCapacity(Item wasteType, int quantity) {
     int currentReserved = reservedCapacityMap.getOrDefault(wasteType, 0);
     reservedCapacityMap.put(wasteType, Math.max(0, currentReserved - quantity));
+    getSimulation().wakeUp(this);
   }
 
   /**
@@ -121,6 +123,43 @@ public class WasteDisposalBuilding extends Building {
     }
   }
 
+  /**
+   * Gets the number of time steps until this building next starts or finishes
+   * disposing a batch of waste, or does something with its requests.
+   *
+   * @return the number of steps until the next event (at least 1), or
+   *         Integer.MAX_VALUE if the building will stay idle.
+   */
+  @Override
+  public int getStepsToNextEvent() {
+    int steps = super.getStepsToNextEvent();
+    for (Item wasteType : maxCapacityMap.keySet()) {
+      if (processingWasteMap.get(wasteType) > 0) {
+        int remaining = totalDisposalTimeStepsNeededMap.get(wasteType) - currentDisposalProgressMap.get(wasteType);
+        steps = Math.min(steps, Math.max(1, remaining));
+      } else if (getStorageNumberOf(wasteType) > 0) {
+        return 1;
+      }
+    }
+    return steps;
+  }
+
+  /**
+   * Skips the given number of idle steps, moving forward the progress of every
+   * batch being disposed.
+   *
+   * @param steps is the number of steps to skip.
+   */
+  @Override
+  public void advance(int steps) {
+    super.advance(steps);
+    for (Item wasteType : maxCapacityMap.keySet()) {
+      if (processingWasteMap.get(wasteType) > 0) {
+        currentDisposalProgressMap.put(wasteType, currentDisposalProgressMap.get(wasteType) + steps);
+      }
+    }
+  }
+
   /**
    * Process a specific waste type item.
    * The processing follows this pattern:
@@ -216,6 +255,21 @@ public class WasteDisposalBuilding extends Building {
     return totalDisposalTimeStepsNeededMap.getOrDefault(wasteType, -1);
   }
 
+  @Override
+  Building copyFor(Simulation simulation) {
+    return new WasteDisposalBuilding(getName(), maxCapacityMap, disposalRateMap, totalDisposalTimeStepsNeededMap,
+        simulation);
+  }
+
+  @Override
+  void copyStateFrom(Building original, Map<Building, Building> copies) {
+    super.copyStateFrom(original, copies);
+    WasteDisposalBuilding disposal = (WasteDisposalBuilding) original;
+    currentDisposalProgressMap.putAll(disposal.currentDisposalProgressMap);
+    processingWasteMap.putAll(disposal.processingWasteMap);
+    reservedCapacityMap.putAll(disposal.reservedCapacityMap);
+  }
+
   /**
    * Converts the waste disposal building to a JSON object.
    *
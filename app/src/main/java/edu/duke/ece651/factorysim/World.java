@@ -1,6 +1,8 @@
 package edu.duke.ece651.factorysim;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Represents a world in the simulation which holds all the information.
@@ -14,6 +16,121 @@ public class World {
 
   public Map<String, WasteDisposalDTO.WasteConfig> wasteConfigMap;
 
+  private int version = 0;
+
+  // indexes by name, see `NameIndex`
+  private volatile NameIndex<Building> buildingIndex = null;
+  private volatile NameIndex<Type> typeIndex = null;
+  private volatile NameIndex<Recipe> recipeIndex = null;
+  private volatile ProducerIndex producerIndex = null;
+  private volatile LocationIndex locationIndex = null;
+
+  /**
+   * Maps names to the first element of a list with that name.<br/>
+   * An index is only used while it is up to date, i.e. it was built for the
+   * same list, with the same size and world version. Otherwise, e.g. after the
+   * list was replaced or changed without going through the world, it is built
+   * again on the next lookup. Lookups may happen on several threads while
+   * stepping, so an index is only changed in place by `tryAddBuilding` and
+   * `removeBuildingFromWorld`, which never run while stepping.
+   */
+  private static final class NameIndex<T> {
+    final List<T> list;
+    final Map<String, T> byName = new HashMap<>();
+    int size;
+    int version;
+    boolean hasDuplicates = false;
+
+    NameIndex(List<T> list, int version, Function<T, String> nameOf) {
+      this.list = list;
+      this.size = list.size();
+      this.version = version;
+      for (T element : list) {
+        add(nameOf.apply(element), element);
+      }
+    }
+
+    boolean isUpToDate(List<T> list, int version) {
+      return list == this.list && list.size() == size && version == this.version;
+    }
+
+    void add(String name, T element) {
+      if (byName.putIfAbsent(name, element) != null) {
+        hasDuplicates = true;
+      }
+    }
+  }
+
+  /**
+   * Maps items to the buildings that can produce them, in world order.<br/>
+   * What a building can produce never changes, so the index is up to date as
+   * long as the buildings are, the same way as `NameIndex`. The producers of
+   * each item are only worked out on first lookup, which may happen on several
+   * threads at once.
+   */
+  private static final class ProducerIndex {
+    final List<Building> list;
+    final int size;
+    final int version;
+    final Map<Item, List<Building>> byItem = new ConcurrentHashMap<>();
+
+    ProducerIndex(List<Building> list, int version) {
+      this.list = list;
+      this.size = list.size();
+      this.version = version;
+    }
+
+    boolean isUpToDate(List<Building> list, int version) {
+      return list == this.list && list.size() == size && version == this.version;
+    }
+
+    List<Building> get(Item item) {
+      return byItem.computeIfAbsent(item, key -> {
+        List<Building> producers = new ArrayList<>();
+        for (Building building : list) {
+          if (building.canProduce(key)) {
+            producers.add(building);
+          }
+        }
+        return Collections.unmodifiableList(producers);
+      });
+    }
+  }
+
+  /**
+   * Maps locations to the buildings at them, as in `locationMap`.<br/>
+   * Like `NameIndex`, the index is only used while it was built for the same
+   * map with the same size, and is otherwise built again on the next lookup.
+   * It is only changed in place by `tryAddBuilding` and
+   * `removeBuildingFromWorld`.
+   */
+  private static final class LocationIndex {
+    final Map<Building, Coordinate> map;
+    final Map<Coordinate, Building> byLocation = new HashMap<>();
+    int size;
+    boolean hasDuplicates = false;
+
+    LocationIndex(Map<Building, Coordinate> map) {
+      this.map = map;
+      this.size = map.size();
+      for (Map.Entry<Building, Coordinate> entry : map.entrySet()) {
+        add(entry.getValue(), entry.getKey());
+      }
+    }
+
+    boolean isUpToDate(Map<Building, Coordinate> map) {
+      return map == this.map && map.size() == size;
+    }
+
+    void add(Coordinate location, Building building) {
+      if (byLocation.containsKey(location)) {
+        hasDuplicates = true;
+      } else {
+        byLocation.put(location, building);
+      }
+    }
+  }
+
   /**
    * Constructs an empty world.
    */
@@ -53,6 +170,16 @@ public class World {
     return recipes;
   }
 
+  /**
+   * Gets the version of the building list, which changes every time a building
+   * is added or removed through the world.
+   *
+   * @return the version of the building list.
+   */
+  public int getVersion() {
+    return version;
+  }
+
   /**
    * Sets the buildings in the world.
 
@@ -60,6 +187,7 @@ public class World {
    */
   public void setBuildings(List<Building> buildings) {
     this.buildings = buildings;
+    version++;
   }
 
   /**
@@ -86,12 +214,32 @@ public class World {
    * @return the building with name if the building exists, null otherwise.
    */
   public Building getBuildingFromName(String name) {
-    for (Building building : buildings) {
-      if (building.getName().equals(name)) {
-        return building;
-      }
+    return getBuildingIndex().byName.get(name);
+  }
+
+  private NameIndex<Building> getBuildingIndex() {
+    NameIndex<Building> index = buildingIndex;
+    if (index == null || !index.isUpToDate(buildings, version)) {
+      index = new NameIndex<>(buildings, version, Building::getName);
+      buildingIndex = index;
     }
-    return null;
+    return index;
+  }
+
+  /**
+   * Gets the buildings that can produce an item.
+   *
+   * @param item is the item to produce.
+   * @return the unmodifiable list of buildings that can produce the item, in
+   *         world order.
+   */
+  public List<Building> getProducers(Item item) {
+    ProducerIndex index = producerIndex;
+    if (index == null || !index.isUpToDate(buildings, version)) {
+      index = new ProducerIndex(buildings, version);
+      producerIndex = index;
+    }
+    return index.get(item);
   }
 
   /**
@@ -100,12 +248,7 @@ public class World {
    * @return the recipe if exists, null otherwise.
    */
   public Recipe getRecipeForItem(Item item) {
-    for (Recipe recipe : recipes) {
-      if (recipe.getOutput().getName().equals(item.getName())) {
-        return recipe;
-      }
-    }
-    return null;
+    return getRecipeFromName(item.getName());
   }
 
   /**
@@ -115,12 +258,7 @@ public class World {
    * @return true if the building exists, false otherwise
    */
   public boolean hasBuilding(String name) {
-    for (Building building : buildings) {
-      if (building.getName().equals(name)) {
-        return true;
-      }
-    }
-    return false;
+    return getBuildingFromName(name) != null;
   }
 
   /**
@@ -130,12 +268,12 @@ public class World {
    * @return The Type object, or null if not found.
    */
   public Type getTypeFromName(String name) {
-    for (Type type : types) {
-      if (type.getName().equals(name)) {
-        return type;
-      }
+    NameIndex<Type> index = typeIndex;
+    if (index == null || !index.isUpToDate(types, 0)) {
+      index = new NameIndex<>(types, 0, Type::getName);
+      typeIndex = index;
     }
-    return null;
+    return index.byName.get(name);
   }
 
   /**
@@ -145,12 +283,34 @@ public class World {
    * @return The Recipe object, or null if not found.
    */
   public Recipe getRecipeFromName(String name) {
-    for (Recipe recipe : recipes) {
-      if (recipe.getOutput().getName().equals(name)) {
-        return recipe;
-      }
+    NameIndex<Recipe> index = recipeIndex;
+    if (index == null || !index.isUpToDate(recipes, 0)) {
+      index = new NameIndex<>(recipes, 0, recipe -> recipe.getOutput().getName());
+      recipeIndex = index;
     }
-    return null;
+    return index.byName.get(name);
+  }
+
+  /**
+   * Creates a copy of this world made of copied buildings, for a copy of the
+   * simulation. Types and recipes never change, so they are shared.
+   *
+   * @param copies is the copy of each building of this world.
+   * @return the copy of this world.
+   */
+  World copyFor(Map<Building, Building> copies) {
+    World copy = new World();
+    copy.types = types;
+    copy.recipes = recipes;
+    copy.wasteConfigMap = new HashMap<>(wasteConfigMap);
+    copy.tileMap = new TileMap(tileMap);
+    List<Building> copiedBuildings = new ArrayList<>();
+    for (Building building : buildings) {
+      copiedBuildings.add(copies.get(building));
+    }
+    copy.setBuildings(copiedBuildings);
+    copy.generateLocationMap();
+    return copy;
   }
 
   /**
@@ -160,6 +320,8 @@ public class World {
     for (Building building : buildings) {
       locationMap.put(building, building.getLocation());
     }
+    // locations may have been replaced without changing the size
+    locationIndex = null;
   }
 
   public void updateTileMap() {
@@ -173,7 +335,8 @@ public class World {
   }
 
   /**
-   * Sets the dimensions of the tile map.
+   * Sets the dimensions of the tile map. Its tiles are stored densely, unless
+   * the board is too large for that.
    *
    * @param width  is the width of the board.
    * @param height is the height of the board.
@@ -182,6 +345,19 @@ public class World {
     this.tileMap = new TileMap(width, height);
   }
 
+  /**
+   * Sets the dimensions of the tile map, choosing how its tiles are stored.
+   * Chunked storage makes boards of billions of tiles possible, as long as
+   * most of the board stays empty road.
+   *
+   * @param width   is the width of the board.
+   * @param height  is the height of the board.
+   * @param storage is how the tiles are stored.
+   */
+  public void setTileMapDimensions(int width, int height, TileMap.Storage storage) {
+    this.tileMap = new TileMap(width, height, storage);
+  }
+
   /**
    * Check if a location is occupied by any building in the world.
    *
@@ -189,7 +365,36 @@ public class World {
    * @return whether the location is occupied by any building in the world.
    */
   public boolean isOccupied(Coordinate c) {
-    return locationMap.containsValue(c);
+    return getLocationIndex().byLocation.containsKey(c);
+  }
+
+  /**
+   * Gets the building at a location.
+   *
+   * @param c is the location to look at.
+   * @return the building at the location, or null if there is none. If several
+   *         buildings are at the location, the first in world order.
+   */
+  public Building getBuildingAt(Coordinate c) {
+    LocationIndex index = getLocationIndex();
+    if (!index.hasDuplicates) {
+      return index.byLocation.get(c);
+    }
+    for (Building building : buildings) {
+      if (c.equals(locationMap.get(building))) {
+        return building;
+      }
+    }
+    return null;
+  }
+
+  private LocationIndex getLocationIndex() {
+    LocationIndex index = locationIndex;
+    if (index == null || !index.isUpToDate(locationMap)) {
+      index = new LocationIndex(locationMap);
+      locationIndex = index;
+    }
+    return index;
   }
 
   /**
@@ -203,8 +408,27 @@ public class World {
     if (isOccupied(location)) {
       return false;
     }
+    NameIndex<Building> index = buildingIndex;
+    boolean isIndexed = index != null && index.isUpToDate(buildings, version);
     buildings.add(building);
-    locationMap.put(building, location);
+    version++;
+    if (isIndexed) {
+      index.add(building.getName(), building);
+      index.size++;
+      index.version = version;
+    }
+    LocationIndex locations = getLocationIndex();
+    Coordinate previous = locationMap.put(building, location);
+    if (previous != null && locations.hasDuplicates) {
+      // the building moved, and another one may still be at its old location
+      locationIndex = null;
+    } else {
+      if (previous != null) {
+        locations.byLocation.remove(previous, building);
+      }
+      locations.add(location, building);
+      locations.size = locationMap.size();
+    }
     if (tileMap != null) {
       tileMap.setTileType(location, TileType.BUILDING);
     }
@@ -235,8 +459,24 @@ public class World {
    * @param building is the building to remove.
    */
   public void removeBuildingFromWorld(Building building) {
-    buildings.remove(building);
-    locationMap.remove(building);
+    NameIndex<Building> index = buildingIndex;
+    boolean isIndexed = index != null && index.isUpToDate(buildings, version) && !index.hasDuplicates;
+    boolean isRemoved = buildings.remove(building);
+    version++;
+    if (isIndexed) {
+      if (isRemoved) {
+        index.byName.remove(building.getName(), building);
+        index.size--;
+      }
+      index.version = version;
+    }
+    LocationIndex locations = locationIndex;
+    boolean isLocated = locations != null && locations.isUpToDate(locationMap) && !locations.hasDuplicates;
+    Coordinate location = locationMap.remove(building);
+    if (isLocated && location != null) {
+      locations.byLocation.remove(location, building);
+      locations.size--;
+    }
     if (building.getLocation() != null) {
       tileMap.setTileType(building.getLocation(), TileType.ROAD);
     }
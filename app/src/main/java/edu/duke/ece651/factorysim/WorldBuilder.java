@@ -128,36 +128,23 @@ public class WorldBuilder {
       return;
     }
 
-    for (ConnectionDTO connectionDTO : connectionDTOs) {
+    World world = simulation.getWorld();
+    simulation.connectBuildings(connectionDTOs, (connectionDTO, e) -> {
+      if (verbosity == 0) {
+        return;
+      }
       String sourceName = connectionDTO.getSource();
       String destName = connectionDTO.getDestination();
-
-      try {
-        World world = simulation.getWorld();
-        Building sourceBuilding = world.getBuildingFromName(sourceName);
-        Building destBuilding = world.getBuildingFromName(destName);
-        if (sourceBuilding == null) {
-          if (verbosity > 0) {
-            logger.log("Failed to create connection: Source building '" + sourceName + "' does not exist.");
-          }
-          continue;
-        }
-        if (destBuilding == null) {
-          if (verbosity > 0) {
-            logger.log("Failed to create connection: Destination building '" + destName + "' does not exist.");
-          }
-          continue;
-        }
-        // both buildings exist, try to connect them
-        simulation.connectBuildings(sourceName, destName);
-      } catch (IllegalArgumentException e) {
+      if (world.getBuildingFromName(sourceName) == null) {
+        logger.log("Failed to create connection: Source building '" + sourceName + "' does not exist.");
+      } else if (world.getBuildingFromName(destName) == null) {
+        logger.log("Failed to create connection: Destination building '" + destName + "' does not exist.");
+      } else {
         // log the error but continue with other connections
-        if (verbosity > 0) {
-          logger.log("Failed to create connection from " + sourceName +
-              " to " + destName + ": " + e.getMessage());
-        }
+        logger.log("Failed to create connection from " + sourceName +
+            " to " + destName + ": " + e.getMessage());
       }
-    }
+    });
   }
 
   /**
@@ -179,12 +166,12 @@ public class WorldBuilder {
       Utils.validLatency(recipeDTO.latency);
 
       // Create the output item
-      Item output = new Item(recipeDTO.output);
+      Item output = ItemRegistry.intern(recipeDTO.output);
 
       // Create the ingredients map
       LinkedHashMap<Item, Integer> ingredients = new LinkedHashMap<>();
       for (Map.Entry<String, Integer> entry : recipeDTO.ingredients.entrySet()) {
-        Item ingredient = new Item(entry.getKey());
+        Item ingredient = ItemRegistry.intern(entry.getKey());
         ingredients.put(ingredient, entry.getValue());
       }
 
@@ -192,7 +179,7 @@ public class WorldBuilder {
       LinkedHashMap<Item, Integer> wasteByProducts = new LinkedHashMap<>();
       if (recipeDTO.waste != null) {
         for (Map.Entry<String, Integer> entry : recipeDTO.waste.entrySet()) {
-          Item wasteItem = new Item(entry.getKey());
+          Item wasteItem = ItemRegistry.intern(entry.getKey());
           wasteByProducts.put(wasteItem, entry.getValue());
         }
       }
@@ -204,6 +191,7 @@ public class WorldBuilder {
       } else {
         recipe = new Recipe(output, ingredients, recipeDTO.latency, wasteByProducts);
       }
+      recipe.compile();
 
       recipes.put(recipeDTO.output, recipe);
     }
@@ -295,7 +283,7 @@ public class WorldBuilder {
         building = new StorageBuilding(buildingDTO.name,
             new ArrayList<>(),
             simulation,
-            new Item(buildingDTO.stores),
+            ItemRegistry.intern(buildingDTO.stores),
             buildingDTO.capacity,
             buildingDTO.priority);
       } else if (buildingDTO.mine != null) {
@@ -339,7 +327,7 @@ public class WorldBuilder {
       // assign storage
       if (buildingDTO.storage != null) {
         for (Map.Entry<String, Integer> entry : buildingDTO.storage.entrySet()) {
-          building.addToStorage(new Item(entry.getKey()), entry.getValue());
+          building.addToStorage(ItemRegistry.intern(entry.getKey()), entry.getValue());
         }
       }
 
@@ -525,7 +513,7 @@ public class WorldBuilder {
       for (Map.Entry<String, WasteDisposalDTO.WasteConfig> entry : dto.wasteTypes.entrySet()) {
         String wasteName = entry.getKey();
         WasteDisposalDTO.WasteConfig config = entry.getValue();
-        Item wasteItem = new Item(wasteName);
+        Item wasteItem = ItemRegistry.intern(wasteName);
         if (config.capacity <= 0) {
           throw new IllegalArgumentException("Waste disposal building '" + dto.name
               + "' has invalid capacity for waste type '" + wasteName + "': " + config.capacity);
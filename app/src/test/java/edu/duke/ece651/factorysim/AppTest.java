@@ -89,6 +89,23 @@ class AppTest {
     });
   }
 
+  @Test
+  void test_runSweep() throws IOException {
+    File workload = App.createTempFile("workload", ".txt", "request 'door' from 'D'\n\nrequest 'door' from 'D'\n");
+    ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+    try {
+      App.runSweep("src/test/resources/inputs/doors_with_connections.json", workload.getAbsolutePath(), 5000,
+          new PrintStream(outContent));
+    } finally {
+      App.deleteTempFile(workload);
+    }
+    String table = outContent.toString();
+    assertTrue(table.startsWith("variant"));
+    assertTrue(table.contains("fifo/qlen"));
+    assertTrue(table.contains("sjf/recursivelat"));
+    assertEquals(10, table.lines().count());
+  }
+
   @Test
   @ResourceLock(value = Resources.SYSTEM_OUT, mode = ResourceAccessMode.READ_WRITE)
   void test_main_with_file_path() throws IOException {
@@ -0,0 +1,74 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class BuildingComponentsTest {
+  private static Simulation makeSimulation(String config) {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    return new Simulation(config, 0, new StreamLogger(new PrintStream(log)));
+  }
+
+  @Test
+  public void test_separate_chains() {
+    Simulation sim = makeSimulation("src/test/resources/inputs/three_chains.json");
+    World world = sim.getWorld();
+    BuildingComponents components = new BuildingComponents(world);
+    assertEquals(3, components.getNumOfComponents());
+    assertTrue(components.isUpToDate(world));
+
+    Building a0 = world.getBuildingFromName("A0");
+    // connected through sources, waste disposal and drone port coverage
+    assertTrue(components.isConnected(a0, world.getBuildingFromName("M0")));
+    assertTrue(components.isConnected(a0, world.getBuildingFromName("X0")));
+    assertTrue(components.isConnected(a0, world.getBuildingFromName("DP0")));
+    assertFalse(components.isConnected(a0, world.getBuildingFromName("A1")));
+    assertFalse(components.isConnected(a0, world.getBuildingFromName("X2")));
+
+    List<Building> first = components.getBuildings(components.getComponentOf(0));
+    assertEquals(world.getBuildings().get(0), first.get(0));
+    for (Building building : first) {
+      assertTrue(components.isConnected(a0, building));
+    }
+  }
+
+  @Test
+  public void test_rebuilt_when_connected() {
+    Simulation sim = makeSimulation("src/test/resources/inputs/three_chains.json");
+    World world = sim.getWorld();
+    BuildingComponents components = sim.getComponents();
+    assertSame(components, sim.getComponents());
+
+    sim.connectBuildings(world.getBuildingFromName("S1"), world.getBuildingFromName("P0"));
+    assertNotSame(components, sim.getComponents());
+    assertEquals(2, sim.getComponents().getNumOfComponents());
+    assertTrue(sim.getComponents().isConnected(world.getBuildingFromName("A0"), world.getBuildingFromName("M1")));
+
+    Building storage = new StorageBuilding("S3", List.of(), sim, new Item("ore2"), 10, 1);
+    storage.setLocation(new Coordinate(80, 80));
+    assertTrue(world.tryAddBuilding(storage));
+    assertFalse(components.isUpToDate(world));
+    assertEquals(3, sim.getComponents().getNumOfComponents());
+    assertFalse(sim.getComponents().isConnected(storage, null));
+  }
+
+  @Test
+  public void test_pending_requests_connect() {
+    Simulation sim = makeSimulation("src/test/resources/inputs/doors_with_connections.json");
+    World world = sim.getWorld();
+    Building hinge = world.getBuildingFromName("Hi");
+    Building handle = world.getBuildingFromName("Ha");
+    hinge.updateSources(List.of());
+    handle.updateSources(List.of());
+    Recipe recipe = sim.getRecipeForItem(new Item("hinge"));
+    // a loaded request may deliver to a building that is not a source
+    hinge.appendPendingRequest(new Request(0, new Item("hinge"), recipe, hinge, handle));
+    BuildingComponents components = new BuildingComponents(world);
+    assertTrue(components.isConnected(hinge, handle));
+  }
+}
@@ -0,0 +1,158 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class BuildingSchedulerTest {
+  private static Simulation makeSimulation() {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    return new Simulation("src/test/resources/inputs/doors_with_connections.json", 0,
+        new StreamLogger(new PrintStream(log)));
+  }
+
+  @Test
+  public void test_idle_buildings_sleep() {
+    Simulation sim = makeSimulation();
+    BuildingScheduler scheduler = sim.getScheduler();
+    Building door = sim.getWorld().getBuildingFromName("D");
+    Building mine = sim.getWorld().getBuildingFromName("M");
+
+    sim.step(1);
+    assertEquals(0, scheduler.getNumOfAwakeBuildings());
+    assertFalse(scheduler.isAwake(door));
+
+    // a request wakes the producer up, which in turn wakes up its sources
+    sim.makeUserRequest("door", "D");
+    assertTrue(scheduler.isAwake(door));
+    assertTrue(scheduler.isAwake(mine));
+
+    sim.finish();
+    sim.step(1);
+    assertEquals(0, scheduler.getNumOfAwakeBuildings());
+  }
+
+  @Test
+  public void test_waiting_building_sleeps() {
+    Simulation sim = makeSimulation();
+    BuildingScheduler scheduler = sim.getScheduler();
+    Building handle = sim.getWorld().getBuildingFromName("Ha");
+    sim.setPolicy("request", "ready", "Ha");
+    sim.makeUserRequest("handle", "Ha");
+    sim.step(1);
+    // no request is ready, so the handle factory just waits for the metal
+    assertFalse(scheduler.isAwake(handle));
+    sim.setVerbosity(2);
+    assertTrue(scheduler.isAwake(handle));
+    sim.step(1);
+    assertFalse(scheduler.isAwake(handle));
+    while (handle.getPendingRequests().size() > 0) {
+      sim.step(1);
+    }
+    assertTrue(handle.isProcessing());
+    assertTrue(scheduler.isAwake(handle));
+  }
+
+  @Test
+  public void test_storage_wakes_up_for_refill() {
+    Simulation sim = makeSimulation();
+    BuildingScheduler scheduler = sim.getScheduler();
+    Building mine = sim.getWorld().getBuildingFromName("M");
+    List<Building> sources = new ArrayList<>();
+    sources.add(mine);
+    StorageBuilding storage = new StorageBuilding("MS", sources, sim, new Item("metal"), 10, 1);
+    storage.setLocation(new Coordinate(50, 50));
+    assertTrue(sim.getWorld().tryAddBuilding(storage));
+    sim.connectBuildings(mine, storage);
+
+    // R = 10 and F = 10 at time 0: the storage asks for one metal
+    sim.step(1);
+    assertEquals(1, mine.getNumOfPendingRequests() + (mine.isProcessing() ? 1 : 0));
+    // R = 9 and F = 12: the storage sleeps until time 12
+    sim.step(1);
+    assertFalse(scheduler.isAwake(storage));
+    sim.step(10);
+    assertEquals(0, mine.getNumOfPendingRequests() + (mine.isProcessing() ? 1 : 0));
+    sim.step(1);
+    assertEquals(1, mine.getNumOfPendingRequests() + (mine.isProcessing() ? 1 : 0));
+  }
+
+  @Test
+  public void test_all_finished() {
+    Simulation sim = makeSimulation();
+    BuildingScheduler scheduler = sim.getScheduler();
+    assertTrue(scheduler.allFinished(sim.getWorld(), sim.getCurrentTime()));
+
+    sim.makeUserRequest("door", "D");
+    assertFalse(sim.allRequestsFinished());
+    sim.step(1);
+    assertFalse(sim.allRequestsFinished());
+    sim.finish();
+    assertTrue(sim.allRequestsFinished());
+    for (Building building : sim.getWorld().getBuildings()) {
+      assertTrue(building.isFinished());
+    }
+
+    // a request added while the building sleeps is still counted
+    sim.step(1);
+    Building hinge = sim.getWorld().getBuildingFromName("Hi");
+    assertFalse(scheduler.isAwake(hinge));
+    sim.makeUserRequest("hinge", "Hi");
+    assertFalse(sim.allRequestsFinished());
+  }
+
+  @Test
+  public void test_all_finished_with_waste() {
+    Simulation sim = makeSimulation();
+    LinkedHashMap<Item, Integer> capacities = new LinkedHashMap<>();
+    capacities.put(new Item("slag"), 10);
+    LinkedHashMap<Item, Integer> rates = new LinkedHashMap<>();
+    rates.put(new Item("slag"), 5);
+    LinkedHashMap<Item, Integer> timeSteps = new LinkedHashMap<>();
+    timeSteps.put(new Item("slag"), 3);
+    WasteDisposalBuilding disposal = new WasteDisposalBuilding("X", capacities, rates, timeSteps, sim);
+    disposal.setLocation(new Coordinate(50, 50));
+    assertTrue(sim.getWorld().tryAddBuilding(disposal));
+    assertTrue(sim.allRequestsFinished());
+
+    // reserving capacity for incoming waste counts as unfinished work
+    sim.step(1);
+    assertTrue(disposal.reserveCapacity(new Item("slag"), 4));
+    assertFalse(sim.allRequestsFinished());
+    disposal.releaseReservedCapacity(new Item("slag"), 4);
+    assertTrue(sim.allRequestsFinished());
+
+    disposal.addToStorage(new Item("slag"), 4);
+    assertFalse(sim.allRequestsFinished());
+    sim.finish();
+    assertEquals(-1, disposal.getStorageNumberOf(new Item("slag")));
+    assertTrue(sim.allRequestsFinished());
+  }
+
+  @Test
+  public void test_world_changes() {
+    Simulation sim = makeSimulation();
+    BuildingScheduler scheduler = sim.getScheduler();
+    sim.step(1);
+    assertEquals(0, scheduler.getNumOfAwakeBuildings());
+    Building hinge = sim.getWorld().getBuildingFromName("Hi");
+    scheduler.wakeUpAll();
+    assertTrue(scheduler.isAwake(hinge));
+    sim.step(1);
+    assertFalse(scheduler.isAwake(hinge));
+
+    List<Building> buildings = new ArrayList<>(sim.getWorld().getBuildings());
+    buildings.remove(hinge);
+    sim.getWorld().setBuildings(buildings);
+    sim.makeUserRequest("door", "D");
+    sim.step(1);
+    assertFalse(scheduler.isAwake(hinge));
+    assertTrue(scheduler.isAwake(sim.getWorld().getBuildingFromName("W")));
+  }
+}
@@ -0,0 +1,84 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ChunkedTileStorageTest {
+  @Test
+  public void test_chunks_made_and_dropped() {
+    ChunkedTileStorage storage = new ChunkedTileStorage(200, 100);
+    assertEquals(0, storage.getNumOfChunks());
+    assertEquals(0, storage.getType(199, 99));
+    assertEquals(0, storage.getFlows(0, 0));
+
+    // setting the default does not make a chunk
+    storage.setType(10, 10, 0);
+    storage.setFlows(10, 10, 0);
+    assertEquals(0, storage.getNumOfChunks());
+
+    storage.setType(10, 10, 2);
+    storage.setFlows(11, 10, 5);
+    storage.setFlows(199, 99, 255);
+    assertEquals(2, storage.getNumOfChunks());
+    assertEquals(2, storage.getType(10, 10));
+    assertEquals(5, storage.getFlows(11, 10));
+    assertEquals(255, storage.getFlows(199, 99));
+    assertEquals(0, storage.getType(11, 10));
+    assertEquals(0, storage.getFlows(10, 10));
+
+    // a chunk is dropped once all of its tiles are back to the default
+    storage.setType(10, 10, 0);
+    assertEquals(2, storage.getNumOfChunks());
+    storage.setFlows(11, 10, 0);
+    assertEquals(1, storage.getNumOfChunks());
+    assertEquals(0, storage.getFlows(11, 10));
+  }
+
+  @Test
+  public void test_copy() {
+    ChunkedTileStorage storage = new ChunkedTileStorage(100, 100);
+    storage.setType(70, 3, 1);
+    ChunkedTileStorage copy = (ChunkedTileStorage) storage.copy();
+    copy.setType(70, 3, 0);
+    copy.setFlows(0, 0, 1);
+    assertEquals(1, storage.getType(70, 3));
+    assertEquals(0, storage.getFlows(0, 0));
+    assertEquals(1, storage.getNumOfChunks());
+    assertEquals(0, copy.getType(70, 3));
+    assertEquals(1, copy.getNumOfChunks());
+  }
+
+  private static List<String> listSet(TileStorage storage) {
+    List<String> set = new ArrayList<>();
+    storage.forEachSet((x, y) -> set.add(x + "," + y));
+    return set;
+  }
+
+  @Test
+  public void test_forEachSet() {
+    ChunkedTileStorage storage = new ChunkedTileStorage(200, 100);
+    DenseTileStorage dense = new DenseTileStorage(200, 100);
+    assertEquals(List.of(), listSet(storage));
+    for (TileStorage tiles : List.of(storage, dense)) {
+      tiles.setType(130, 70, 2);
+      tiles.setFlows(3, 80, 4);
+      tiles.setType(1, 2, 1);
+      tiles.setFlows(199, 99, 255);
+      tiles.setType(5, 5, 1);
+      tiles.setType(5, 5, 0);
+    }
+    // chunk by chunk, and row by row within a chunk
+    assertEquals(List.of("1,2", "3,80", "130,70", "199,99"), listSet(storage));
+    assertEquals(List.of("1,2", "130,70", "3,80", "199,99"), listSet(dense));
+  }
+
+  @Test
+  public void test_too_large() {
+    assertThrows(IllegalArgumentException.class, () -> new ChunkedTileStorage(Integer.MAX_VALUE, Integer.MAX_VALUE));
+    assertThrows(IllegalArgumentException.class, () -> new DenseTileStorage(50000, 50000));
+  }
+}
@@ -2,6 +2,9 @@ package edu.duke.ece651.factorysim;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.jupiter.api.Test;
 
 public class CoordinateTest {
@@ -49,4 +52,14 @@ public class CoordinateTest {
       c1.getNextCoord(4);
     });
   }
+
+  @Test
+  public void test_hashCode_distinct_on_board() {
+    Set<Integer> hashes = new HashSet<>();
+    for (int x = 0; x < 200; x++) {
+      for (int y = 0; y < 200; y++) {
+        assertTrue(hashes.add(new Coordinate(x, y).hashCode()));
+      }
+    }
+  }
 }
@@ -3,6 +3,9 @@ package edu.duke.ece651.factorysim;
 import com.google.gson.JsonArray;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class DeliveryScheduleTest {
@@ -19,17 +22,17 @@ class DeliveryScheduleTest {
     void addDelivery() {
         Delivery delivery=new Delivery(W, D, metal, 1, 5);
         deliverySchedule.addDelivery(delivery);
-        assertEquals(1, deliverySchedule.deliveryList.size());
-        assertEquals(delivery, deliverySchedule.deliveryList.get(0));
+        assertEquals(1, deliverySchedule.getDeliveries().size());
+        assertEquals(delivery, deliverySchedule.getDeliveries().get(0));
     }
 
     @Test
     void removeDelivery() {
         Delivery delivery=new Delivery(W, D, metal, 1, 5);
         deliverySchedule.addDelivery(delivery);
-        assertEquals(1, deliverySchedule.deliveryList.size());
+        assertEquals(1, deliverySchedule.getDeliveries().size());
         deliverySchedule.removeDelivery(delivery);
-        assertEquals(0, deliverySchedule.deliveryList.size());
+        assertEquals(0, deliverySchedule.getDeliveries().size());
     }
 
     @Test
@@ -41,11 +44,35 @@ class DeliveryScheduleTest {
         deliverySchedule.addDelivery(d2);
         assertEquals(W.getLocation(), deliverySchedule.getCurrentCoordinates().get(0));
         deliverySchedule.step(sim.getPathList());
-        assertEquals(4, delivery.deliveryTime);
-        assertEquals(4, d2.deliveryTime);
+        assertEquals(4, delivery.getDeliveryTime());
+        assertEquals(4, d2.getDeliveryTime());
         assertEquals(2, deliverySchedule.getCurrentCoordinates().size());
         assertEquals(sim.getPathList().get(0).getSteps().get(1), deliverySchedule.getCurrentCoordinates().get(0));
     }
+    @Test
+    void step_keeps_path_of_delivery() {
+        sim.connectBuildings("W", "D");
+        Path path = sim.getPathList().get(0);
+        Delivery delivery = new Delivery(W, D, metal, 1, path, 0);
+        Delivery found = new Delivery(W, D, wood, 1, 5, 0, 0, W.getLocation());
+        Delivery unrouted = new Delivery(W, M, wood, 1, 5, 0, 0, W.getLocation());
+        deliverySchedule.addDelivery(delivery);
+        deliverySchedule.addDelivery(found);
+        deliverySchedule.addDelivery(unrouted);
+        assertEquals(path.getDeliveryTime(), delivery.getDeliveryTime());
+        // a plain list is searched for the path, a route table is looked up
+        deliverySchedule.step(new java.util.ArrayList<>(sim.getPathList()));
+        assertSame(path, found.path);
+        assertNull(unrouted.path);
+        assertEquals(W.getLocation(), unrouted.getCurrentCoordinate());
+        deliverySchedule.step(sim.getPathList());
+        assertEquals(path.getSteps().get(2), delivery.getCurrentCoordinate());
+        assertEquals(path.getSteps().get(2), found.getCurrentCoordinate());
+        // the path is kept even when it is no longer given
+        deliverySchedule.step(java.util.List.of());
+        assertEquals(path.getSteps().get(3), delivery.getCurrentCoordinate());
+    }
+
     @Test
     void test_toJson(){
         Delivery delivery=new Delivery(W, D, metal, 1, 5);
@@ -109,4 +136,319 @@ class DeliveryScheduleTest {
         assertTrue(deliverySchedule.checkUsingPath(sim.getPathList().get(1)));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void step_finishes_due_deliveries_in_added_order() {
+        sim.connectBuildings("W", "D");
+        List<Delivery> finished = new ArrayList<>();
+        deliverySchedule.subscribe(new DeliveryListener() {
+            @Override
+            public void onDeliveryAdded(Delivery delivery) {
+            }
+
+            @Override
+            public void onDeliveryFinished(Delivery delivery) {
+                finished.add(delivery);
+            }
+        });
+        Delivery slow = new Delivery(W, D, metal, 1, 3);
+        Delivery late = new Delivery(W, D, wood, 1, 4);
+        Delivery now = new Delivery(W, D, metal, 1, 0);
+        Delivery fast = new Delivery(W, D, wood, 1, 2);
+        deliverySchedule.addDelivery(slow);
+        deliverySchedule.addDelivery(late);
+        deliverySchedule.addDelivery(now);
+        assertEquals(1, deliverySchedule.getStepsToNextEvent());
+        deliverySchedule.step(sim.getPathList());
+        assertEquals(List.of(now), finished);
+        // added a step later, arriving in the same step as the slower one
+        deliverySchedule.addDelivery(fast);
+        assertEquals(List.of(slow, late, fast), deliverySchedule.getDeliveries());
+        assertEquals(2, deliverySchedule.getStepsToNextEvent());
+        deliverySchedule.step(sim.getPathList());
+        assertEquals(1, slow.getDeliveryTime());
+        assertEquals(2, late.getDeliveryTime());
+        assertEquals(1, fast.getStepIndex());
+        deliverySchedule.step(sim.getPathList());
+        assertEquals(List.of(now, slow, fast), finished);
+        assertEquals(List.of(late), deliverySchedule.getDeliveries());
+        assertEquals(1, late.getDeliveryTime());
+        deliverySchedule.step(sim.getPathList());
+        assertEquals(List.of(now, slow, fast, late), finished);
+        assertTrue(deliverySchedule.getDeliveries().isEmpty());
+        assertEquals(Integer.MAX_VALUE, deliverySchedule.getStepsToNextEvent());
+    }
+
+    @Test
+    void advance_keeps_times_beyond_the_wheel() {
+        Delivery delivery = new Delivery(W, D, metal, 1, 3000);
+        Delivery removed = new Delivery(W, D, wood, 1, 2000);
+        deliverySchedule.addDelivery(delivery);
+        deliverySchedule.addDelivery(removed);
+        deliverySchedule.removeDelivery(removed);
+        assertEquals(List.of(delivery), deliverySchedule.getDeliveries());
+        assertEquals(3000, deliverySchedule.getStepsToNextEvent());
+        deliverySchedule.advance(2500, List.of());
+        assertEquals(500, delivery.getDeliveryTime());
+        assertEquals(2500, delivery.getStepIndex());
+        assertEquals(500, deliverySchedule.getStepsToNextEvent());
+        assertEquals(500, deliverySchedule.toJson().get(0).getAsJsonObject().get("deliveryTime").getAsInt());
+        deliverySchedule.advance(499, List.of());
+        assertEquals(1, delivery.getDeliveryTime());
+        deliverySchedule.step(List.of());
+        assertEquals(0, delivery.getDeliveryTime());
+        assertTrue(deliverySchedule.getDeliveries().isEmpty());
+        // a delivery removed keeps its time, and picks up from it when added back
+        assertEquals(2000, removed.getDeliveryTime());
+        deliverySchedule.addDelivery(removed);
+        assertEquals(2000, deliverySchedule.getStepsToNextEvent());
+    }
+
+    @Test
+    void removed_delivery_added_back_steps_once() {
+        List<Delivery> deliveries = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Delivery delivery = new Delivery(W, D, metal, 1, 2);
+            deliveries.add(delivery);
+            deliverySchedule.addDelivery(delivery);
+        }
+        for (int i = 0; i < 9; i++) {
+            deliverySchedule.removeDelivery(deliveries.get(i));
+        }
+        deliverySchedule.addDelivery(deliveries.get(0));
+        assertEquals(List.of(deliveries.get(9), deliveries.get(0)), deliverySchedule.getDeliveries());
+        deliverySchedule.step(List.of());
+        assertEquals(1, deliveries.get(0).getDeliveryTime());
+        assertEquals(2, deliveries.get(3).getDeliveryTime());
+        deliverySchedule.step(List.of());
+        assertEquals(0, deliveries.get(0).getDeliveryTime());
+        assertTrue(deliverySchedule.getDeliveries().isEmpty());
+        assertEquals(2, D.getStorageNumberOf(metal));
+    }
+
+    @Test
+    void coordinates_follow_elapsed_time_without_updates() {
+        sim.connectBuildings("W", "D");
+        Path path = sim.getPathList().get(0);
+        Delivery delivery = new Delivery(W, D, metal, 1, path, 0);
+        deliverySchedule.addDelivery(delivery);
+        int steps = deliverySchedule.getStepsToNextEvent();
+        assertEquals(path.getSteps().get(0), delivery.getCurrentCoordinate());
+        // advancing looks nothing up, the coordinate follows from the time
+        deliverySchedule.advance(steps - 2, List.of());
+        assertEquals(path.getSteps().get(steps - 2), delivery.getCurrentCoordinate());
+        assertEquals(List.of(path.getSteps().get(steps - 2)), deliverySchedule.getCurrentCoordinates());
+        Coordinate expected = path.getSteps().get(steps - 2);
+        JsonArray json = deliverySchedule.toJson();
+        assertEquals(expected.getX(), json.get(0).getAsJsonObject().get("x").getAsInt());
+        assertEquals(expected.getY(), json.get(0).getAsJsonObject().get("y").getAsInt());
+        deliverySchedule.step(List.of());
+        assertEquals(path.getSteps().get(steps - 1), delivery.getCurrentCoordinate());
+    }
+
+    @Test
+    void road_deliveries_kept_as_data_arrive_like_objects() {
+        sim.connectBuildings("W", "D");
+        Path path = sim.getPathList().get(0);
+        DeliverySchedule objects = new DeliverySchedule();
+        for (int i = 0; i < 3; i++) {
+            deliverySchedule.addRoadDelivery(W, D, i == 1 ? wood : metal, 1, path, 0);
+            objects.addDelivery(new Delivery(W, D, i == 1 ? wood : metal, 1, path, 0));
+        }
+        deliverySchedule.step(List.of());
+        objects.step(List.of());
+        assertEquals(objects.getCurrentCoordinates(), deliverySchedule.getCurrentCoordinates());
+        assertEquals(objects.toJson(), deliverySchedule.toJson());
+        assertEquals(objects.getStepsToNextEvent(), deliverySchedule.getStepsToNextEvent());
+        assertTrue(deliverySchedule.checkUsingPath(path));
+
+        deliverySchedule.advance(deliverySchedule.getStepsToNextEvent() - 1, List.of());
+        assertEquals(path.getSteps().get(path.getDeliveryTime() - 1), deliverySchedule.getCurrentCoordinates().get(0));
+        deliverySchedule.step(List.of());
+        assertEquals(0, deliverySchedule.getDeliveries().size());
+        assertEquals(Integer.MAX_VALUE, deliverySchedule.getStepsToNextEvent());
+        assertEquals(2, D.getStorageNumberOf(metal));
+        assertEquals(1, D.getStorageNumberOf(wood));
+    }
+
+    @Test
+    void road_delivery_joins_last_one_added_in_same_step() {
+        sim.connectBuildings("W", "D");
+        Path path = sim.getPathList().get(0);
+        deliverySchedule.addRoadDelivery(W, D, metal, 1, path, 0);
+        deliverySchedule.addRoadDelivery(W, D, metal, 1, path, 0);
+        deliverySchedule.addRoadDelivery(W, D, metal, 2, path, 0);
+        deliverySchedule.step(List.of());
+        deliverySchedule.addRoadDelivery(W, D, metal, 2, path, 0);
+        List<Delivery> deliveries = deliverySchedule.getDeliveries();
+        assertEquals(3, deliveries.size());
+        assertEquals(2, deliveries.get(0).getNumOfUnits());
+        assertEquals(2, deliveries.get(0).quantity);
+        assertEquals(1, deliveries.get(1).getNumOfUnits());
+        // an object takes over the slot, and a unit can still join it
+        deliverySchedule.addRoadDelivery(W, D, metal, 2, path, 0);
+        assertEquals(4, deliveries.get(2).quantity);
+    }
+
+    @Test
+    void deliveries_asked_for_stay_the_same_objects() {
+        sim.connectBuildings("W", "D");
+        Path path = sim.getPathList().get(0);
+        deliverySchedule.addRoadDelivery(W, D, metal, 1, path, 0);
+        deliverySchedule.step(List.of());
+        Delivery delivery = deliverySchedule.getDeliveries().get(0);
+        assertSame(delivery, deliverySchedule.getDeliveries().get(0));
+        assertEquals(path.getDeliveryTime() - 1, delivery.getDeliveryTime());
+        deliverySchedule.step(List.of());
+        assertEquals(2, delivery.getStepIndex());
+        deliverySchedule.removeDelivery(delivery);
+        assertEquals(0, deliverySchedule.getDeliveries().size());
+        assertEquals(Integer.MAX_VALUE, deliverySchedule.getStepsToNextEvent());
+    }
+
+    @Test
+    void listeners_are_handed_road_deliveries_kept_as_data() {
+        sim.connectBuildings("W", "D");
+        Path path = sim.getPathList().get(0);
+        deliverySchedule.addRoadDelivery(W, D, metal, 1, path, 0);
+        List<Delivery> added = new ArrayList<>();
+        List<Delivery> finished = new ArrayList<>();
+        deliverySchedule.subscribe(new DeliveryListener() {
+            @Override
+            public void onDeliveryAdded(Delivery delivery) {
+                added.add(delivery);
+            }
+
+            @Override
+            public void onDeliveryFinished(Delivery delivery) {
+                finished.add(delivery);
+            }
+        });
+        deliverySchedule.addRoadDelivery(W, D, wood, 1, path, 0);
+        // joining the last delivery adds none
+        deliverySchedule.addRoadDelivery(W, D, wood, 1, path, 0);
+        assertEquals(1, added.size());
+        assertEquals(wood, added.get(0).item);
+        assertEquals(path.getDeliveryTime(), added.get(0).getDeliveryTime());
+        assertEquals(W.getLocation(), added.get(0).getCurrentCoordinate());
+        deliverySchedule.addRoadDelivery(W, D, metal, 1, path, 0);
+        Delivery asked = deliverySchedule.getDeliveries().get(2);
+        for (int i = 0; i < path.getDeliveryTime(); i++) {
+            deliverySchedule.step(List.of());
+        }
+        assertEquals(3, finished.size());
+        assertEquals(metal, finished.get(0).item);
+        assertEquals(0, finished.get(0).getDeliveryTime());
+        assertEquals(path.getDeliveryTime(), finished.get(0).getStepIndex());
+        assertEquals(2, finished.get(1).getNumOfUnits());
+        assertSame(asked, finished.get(2));
+        assertEquals(2, D.getStorageNumberOf(wood));
+    }
+
+    @Test
+    void copies_keep_order_and_times() {
+        sim.connectBuildings("W", "D");
+        Path path = sim.getPathList().get(0);
+        deliverySchedule.addRoadDelivery(W, D, metal, 1, path, 0);
+        deliverySchedule.step(List.of());
+        deliverySchedule.addDelivery(new Delivery(W, D, wood, 1, path, 0));
+        deliverySchedule.addRoadDelivery(W, D, metal, 1, path, 0);
+        DeliverySchedule copy = new DeliverySchedule();
+        copy.addCopiesOf(deliverySchedule, java.util.Map.of(W, W, D, D));
+        assertEquals(deliverySchedule.toJson(), copy.toJson());
+        assertEquals(deliverySchedule.getStepsToNextEvent(), copy.getStepsToNextEvent());
+
+        // copies of the delivery objects asked for, onto other buildings
+        deliverySchedule.step(List.of());
+        deliverySchedule.getDeliveries();
+        DeliverySchedule moved = new DeliverySchedule();
+        moved.addCopiesOf(deliverySchedule, java.util.Map.of(W, Hi, D, M));
+        JsonArray json = moved.toJson();
+        assertEquals(deliverySchedule.toJson().size(), json.size());
+        for (int i = 0; i < json.size(); i++) {
+            assertEquals("Hi", json.get(i).getAsJsonObject().get("source").getAsString());
+            assertEquals("M", json.get(i).getAsJsonObject().get("destination").getAsString());
+            assertEquals(deliverySchedule.toJson().get(i).getAsJsonObject().get("stepIndex"),
+                    json.get(i).getAsJsonObject().get("stepIndex"));
+        }
+    }
+
+    @Test
+    void removing_most_deliveries_keeps_the_rest_in_order() {
+        sim.connectBuildings("W", "D");
+        Path path = sim.getPathList().get(0);
+        List<Delivery> objects = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            if (i % 3 != 2) {
+                Delivery delivery = new Delivery(W, D, metal, 1, path, 0);
+                objects.add(delivery);
+                deliverySchedule.addDelivery(delivery);
+            } else {
+                deliverySchedule.addRoadDelivery(W, D, wood, 1, path, 0);
+            }
+        }
+        deliverySchedule.step(List.of());
+        // the slots are compacted once most of them are gaps
+        for (int i = 1; i < objects.size(); i++) {
+            deliverySchedule.removeDelivery(objects.get(i));
+        }
+        JsonArray json = deliverySchedule.toJson();
+        assertEquals(11, json.size());
+        assertEquals("metal", json.get(0).getAsJsonObject().get("item").getAsString());
+        for (int i = 1; i < json.size(); i++) {
+            assertEquals("wood", json.get(i).getAsJsonObject().get("item").getAsString());
+            assertEquals(1, json.get(i).getAsJsonObject().get("stepIndex").getAsInt());
+        }
+        int steps = 1;
+        while (deliverySchedule.getStepsToNextEvent() != Integer.MAX_VALUE) {
+            deliverySchedule.step(List.of());
+            steps++;
+        }
+        assertEquals(path.getDeliveryTime(), steps);
+        assertEquals(10, D.getStorageNumberOf(wood));
+        assertEquals(1, D.getStorageNumberOf(metal));
+    }
+
+    @Test
+    void compacting_keeps_what_road_deliveries_refer_to() {
+        sim.connectBuildings("W", "D");
+        sim.connectBuildings("Hi", "D");
+        Path shorter = sim.getPathList().get(0);
+        Path longer = sim.getPathList().get(1);
+        Building slowSource = Hi;
+        if (shorter.getDeliveryTime() > longer.getDeliveryTime()) {
+            shorter = sim.getPathList().get(1);
+            longer = sim.getPathList().get(0);
+            slowSource = W;
+        }
+        Building fastSource = slowSource == W ? Hi : W;
+        assertTrue(shorter.getDeliveryTime() < longer.getDeliveryTime());
+        deliverySchedule.addRoadDelivery(fastSource, D, metal, 1, shorter, 0);
+        deliverySchedule.addRoadDelivery(slowSource, D, wood, 3, longer, 1);
+        List<Delivery> objects = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Delivery delivery = new Delivery(W, D, metal, 1, 1000);
+            objects.add(delivery);
+            deliverySchedule.addDelivery(delivery);
+        }
+        for (int i = 0; i < shorter.getDeliveryTime(); i++) {
+            deliverySchedule.step(List.of());
+        }
+        assertEquals(1, D.getStorageNumberOf(metal));
+        // the remaining road delivery refers to other table entries once compacted
+        for (Delivery delivery : objects) {
+            deliverySchedule.removeDelivery(delivery);
+        }
+        JsonArray json = deliverySchedule.toJson();
+        assertEquals(1, json.size());
+        assertEquals(slowSource.getName(), json.get(0).getAsJsonObject().get("source").getAsString());
+        assertEquals("wood", json.get(0).getAsJsonObject().get("item").getAsString());
+        assertEquals(longer.getSteps().get(shorter.getDeliveryTime()), deliverySchedule.getCurrentCoordinates().get(0));
+        assertTrue(deliverySchedule.checkUsingPath(longer));
+        assertFalse(deliverySchedule.checkUsingPath(shorter));
+        while (deliverySchedule.getStepsToNextEvent() != Integer.MAX_VALUE) {
+            deliverySchedule.step(List.of());
+        }
+        assertEquals(3, D.getStorageNumberOf(wood));
+    }
+}
@@ -284,7 +284,7 @@ public class DroneDeliveryTest {
     // Test each step of the drone delivery lifecycle
     delivery.step(); // Go toward source
     
-    while(delivery.getState() == DroneDelivery.DeliveryState.TO_SOURCE && delivery.deliveryTime > 0) {
+    while(delivery.getState() == DroneDelivery.DeliveryState.TO_SOURCE && delivery.getDeliveryTime() > 0) {
       delivery.step();
     }
     
@@ -292,7 +292,7 @@ public class DroneDeliveryTest {
     assertEquals(DroneDelivery.DeliveryState.TO_DESTINATION, delivery.getState());
     assertEquals(factoryBuilding2.getLocation(), delivery.getTargetCoordinate());
     
-    while(delivery.getState() == DroneDelivery.DeliveryState.TO_DESTINATION && delivery.deliveryTime > 0) {
+    while(delivery.getState() == DroneDelivery.DeliveryState.TO_DESTINATION && delivery.getDeliveryTime() > 0) {
       delivery.step();
     }
     
@@ -0,0 +1,90 @@
+package edu.duke.ece651.factorysim;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DronePortIndexTest {
+  private final World world = WorldBuilder.buildEmptyWorld(200, 200);
+  private final Simulation simulation = new Simulation(world, 0, new StreamLogger(System.out));
+
+  private DronePortBuilding addPort(String name, int x, int y, int numOfDrones) {
+    DronePortBuilding port = new DronePortBuilding(name, new ArrayList<>(), simulation);
+    port.setLocation(new Coordinate(x, y));
+    assertTrue(world.tryAddBuilding(port));
+    for (int i = 0; i < numOfDrones; i++) {
+      port.createDrone();
+    }
+    return port;
+  }
+
+  private DronePortBuilding scan(Building src, Building dst) {
+    for (Building building : world.getBuildings()) {
+      if (building instanceof DronePortBuilding) {
+        DronePort port = ((DronePortBuilding) building).getDronePort();
+        if (port.isWithinRadius(src) && port.isWithinRadius(dst) && port.hasAvailableDrone()) {
+          return (DronePortBuilding) building;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Test
+  void test_getPortsNear() {
+    DronePortBuilding near = addPort("near", 10, 10, 0);
+    DronePortBuilding far = addPort("far", 150, 150, 0);
+    DronePortIndex index = new DronePortIndex(world);
+    assertEquals(List.of(near), index.getPortsNear(new Coordinate(0, 0)));
+    assertEquals(List.of(near), index.getPortsNear(new Coordinate(30, 10)));
+    assertEquals(List.of(far), index.getPortsNear(new Coordinate(140, 160)));
+    assertEquals(List.of(), index.getPortsNear(new Coordinate(90, 90)));
+    assertEquals(List.of(), index.getPortsNear(null));
+  }
+
+  @Test
+  void test_findPort_first_in_world_order() {
+    DronePortBuilding empty = addPort("empty", 20, 20, 0);
+    DronePortBuilding first = addPort("first", 25, 20, 1);
+    DronePortBuilding second = addPort("second", 20, 25, 1);
+    DronePortBuilding src = addPort("src", 15, 15, 0);
+    DronePortBuilding dst = addPort("dst", 30, 30, 0);
+    DronePortIndex index = new DronePortIndex(world);
+    assertSame(first, index.findPort(src, dst));
+    first.getDronePort().getAvailableDrone();
+    assertSame(second, index.findPort(src, dst));
+    second.getDronePort().getAvailableDrone();
+    assertNull(index.findPort(src, dst));
+    assertEquals(0, empty.getDroneCount());
+  }
+
+  @Test
+  void test_findPort_same_as_scan() {
+    Random random = new Random(7);
+    for (int i = 0; i < 30; i++) {
+      addPort("port" + i, random.nextInt(200), random.nextInt(200), random.nextInt(2));
+    }
+    DronePortIndex index = new DronePortIndex(world);
+    List<Building> buildings = world.getBuildings();
+    for (Building src : buildings) {
+      for (Building dst : buildings) {
+        assertSame(scan(src, dst), index.findPort(src, dst));
+      }
+    }
+  }
+
+  @Test
+  void test_isUpToDate() {
+    addPort("port", 10, 10, 1);
+    DronePortIndex index = new DronePortIndex(world);
+    assertTrue(index.isUpToDate(world));
+    DronePortBuilding other = addPort("other", 100, 100, 1);
+    assertFalse(index.isUpToDate(world));
+    assertFalse(index.isUpToDate(WorldBuilder.buildEmptyWorld(10, 10)));
+    assertEquals(List.of(other), new DronePortIndex(world).getPortsNear(other.getLocation()));
+  }
+}
@@ -0,0 +1,25 @@
+package edu.duke.ece651.factorysim;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineCommandTest {
+  @Test
+  public void test_execute() {
+    EngineCommand command = new EngineCommand();
+    Simulation sim = new TestUtils.MockSimulation();
+    assertEquals("engine", command.getName());
+    assertEquals("tick", sim.getEngine().getName());
+
+    // Invalid inputs
+    assertThrows(IllegalArgumentException.class, () -> command.execute(new String[] { "engine" }, sim));
+    assertThrows(IllegalArgumentException.class, () -> command.execute(new String[] { "engin", "event" }, sim));
+    assertThrows(IllegalArgumentException.class, () -> command.execute(new String[] { "engine", "fast" }, sim));
+
+    // Valid inputs
+    command.execute(new String[] { "engine", "event" }, sim);
+    assertEquals("event", sim.getEngine().getName());
+    command.execute(new String[] { "engine", "'tick'" }, sim);
+    assertEquals("tick", sim.getEngine().getName());
+  }
+}
@@ -0,0 +1,16 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class EngineFactoryTest {
+  @Test
+  public void test_createEngine() {
+    assertEquals(TickEngine.class, EngineFactory.createEngine("tick").getClass());
+    assertEquals(EventEngine.class, EngineFactory.createEngine("EVENT").getClass());
+    assertEquals(ParallelEngine.class, EngineFactory.createEngine("parallel").getClass());
+    assertEquals(ShardedEngine.class, EngineFactory.createEngine("sharded").getClass());
+    assertThrows(IllegalArgumentException.class, () -> EngineFactory.createEngine("unknown"));
+  }
+}
@@ -0,0 +1,92 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.jupiter.api.Test;
+
+public class EventEngineTest {
+  private static final String CONFIG = "src/test/resources/inputs/doors_with_connections.json";
+
+  private static Simulation makeSimulation(String engine, ByteArrayOutputStream log, int verbosity) {
+    Simulation sim = new Simulation(CONFIG, verbosity, new StreamLogger(new PrintStream(log)));
+    sim.setEngine(engine);
+    return sim;
+  }
+
+  private static String run(String engine, int verbosity) {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    Simulation sim = makeSimulation(engine, log, verbosity);
+    sim.makeUserRequest("door", "D");
+    sim.makeUserRequest("door", "D");
+    sim.step(7);
+    String mid = sim.getGameState().toString();
+    sim.makeUserRequest("hinge", "Hi");
+    sim.finish();
+    sim.step(5);
+    return log + mid + sim.getGameState();
+  }
+
+  @Test
+  public void test_getName() {
+    assertEquals("event", new EventEngine().getName());
+    assertEquals("tick", new TickEngine().getName());
+  }
+
+  @Test
+  public void test_same_result_as_tick() {
+    for (int verbosity = 0; verbosity <= 2; verbosity++) {
+      assertEquals(run("tick", verbosity), run("event", verbosity));
+    }
+  }
+
+  @Test
+  public void test_step_exact() {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    Simulation sim = makeSimulation("event", log, 1);
+    sim.step(10);
+    assertEquals(10, sim.getCurrentTime());
+    sim.makeUserRequest("door", "D");
+    sim.step(3);
+    assertEquals(13, sim.getCurrentTime());
+    sim.finish();
+    assertTrue(sim.isFinished());
+    assertTrue(log.toString().contains("Simulation completed at time-step " + sim.getCurrentTime()));
+  }
+
+  @Test
+  public void test_skips_idle_steps() {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    Simulation sim = makeSimulation("event", log, 0);
+    assertEquals(Integer.MAX_VALUE, sim.getIdleSteps());
+    sim.makeUserRequest("handle", "Ha");
+    assertEquals(0, sim.getIdleSteps());
+    Building handleFactory = sim.getWorld().getBuildingFromName("Ha");
+    while (!handleFactory.isProcessing()) {
+      sim.step(1);
+    }
+    // only countdowns happen until the next event
+    int idleSteps = sim.getIdleSteps();
+    assertTrue(idleSteps > 0);
+    assertTrue(idleSteps < 5);
+    int time = sim.getCurrentTime();
+    sim.skip(idleSteps);
+    assertEquals(time + idleSteps, sim.getCurrentTime());
+    assertEquals(5 - idleSteps, handleFactory.getCurrentRequest().getRemainingSteps());
+    assertEquals(0, sim.getIdleSteps());
+  }
+
+  @Test
+  public void test_stepToNextEvent_no_progress() {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    Simulation sim = makeSimulation("event", log, 0);
+    Building door = sim.getWorld().getBuildingFromName("D");
+    Recipe recipe = sim.getRecipeForItem(new Item("door"));
+    // a request nobody will ever supply ingredients for
+    door.appendPendingRequest(new Request(0, new Item("door"), recipe, door, null));
+    sim.setPolicy("request", "ready", "*");
+    assertThrows(IllegalStateException.class, () -> sim.finish());
+  }
+}
@@ -165,6 +165,61 @@ public class FactoryBuildingTest {
     assertNull(nullRecipe);
   }
 
+  @Test
+  public void test_incoming_requests() {
+    Simulation sim = new Simulation("src/test/resources/inputs/doors_with_connections.json");
+    World world = sim.getWorld();
+    Building door = world.getBuildingFromName("D");
+    sim.makeUserRequest("door", "D");
+    sim.makeUserRequest("door", "D");
+    assertEquals(2, door.getNumOfIncomingRequests(new Item("hinge")));
+    assertEquals(0, door.getNumOfIncomingRequests(new Item("door")));
+
+    // the index always matches the pending requests of all buildings
+    while (!sim.allRequestsFinished()) {
+      sim.step(1);
+      for (Building destination : world.getBuildings()) {
+        HashMap<Item, Integer> expected = new HashMap<>();
+        for (Building building : world.getBuildings()) {
+          for (Request request : building.getPendingRequests()) {
+            if (request.getDeliverTo() == destination) {
+              expected.merge(request.getItem(), 1, Integer::sum);
+            }
+          }
+        }
+        for (Item item : new Item[] { new Item("wood"), new Item("metal"), new Item("hinge"), new Item("handle") }) {
+          assertEquals(expected.getOrDefault(item, 0), destination.getNumOfIncomingRequests(item));
+        }
+      }
+    }
+    assertEquals(0, door.getNumOfIncomingRequests(new Item("hinge")));
+  }
+
+  @Test
+  public void test_ingredients_in_storage() {
+    Item a = new Item("a");
+    Item b = new Item("b");
+    Type factoryType = makeTestFactoryType();
+    FactoryBuilding factory = new FactoryBuilding(factoryType, "F", new ArrayList<>(),
+        new TestUtils.MockSimulation());
+    // {("a", 1), ("b", 2)}
+    Recipe recipe = factoryType.getRecipes().get(0);
+    assertFalse(factory.hasAllIngredientsFor(recipe));
+    assertEquals(List.of(new Tuple<>(a, 1), new Tuple<>(b, 2)), factory.findMissingIngredients(recipe));
+
+    factory.addToStorage(a, 3);
+    factory.addToStorage(b, 1);
+    assertFalse(factory.hasAllIngredientsFor(recipe));
+    assertEquals(List.of(new Tuple<>(b, 1)), factory.findMissingIngredients(recipe));
+
+    factory.addToStorage(b, 1);
+    assertTrue(factory.hasAllIngredientsFor(recipe));
+    assertTrue(factory.findMissingIngredients(recipe).isEmpty());
+    factory.consumeIngredientsFor(recipe);
+    assertEquals(2, factory.getStorageNumberOf(a));
+    assertEquals(-1, factory.getStorageNumberOf(b));
+  }
+
   @Test
   public void test_request_missing_ingredients_from_missing_source() {
     Recipe nonExistingRecipe = TestUtils.makeTestRecipe("test", 2, 5);
@@ -172,6 +227,30 @@ public class FactoryBuildingTest {
     assertThrows(IllegalArgumentException.class, () -> mockBuilding.requestMissingIngredients(nonExistingRecipe));
   }
 
+  @Test
+  public void test_available_sources_follow_sources() {
+    World world = WorldBuilder.buildWorld(TestUtils.loadConfigData("src/test/resources/inputs/doors1.json"), new TestUtils.MockSimulation());
+    Building d = world.getBuildingFromName("D");
+    Building w = world.getBuildingFromName("W");
+    Building m = world.getBuildingFromName("M");
+    Item wood = new Item("wood");
+    Item metal = new Item("metal");
+    assertEquals(List.of(w), d.getAvailableSourcesForItem(wood));
+    assertSame(d.getAvailableSourcesForItem(wood), d.getAvailableSourcesForItem(wood));
+    assertEquals(List.of(), d.getAvailableSourcesForItem(metal));
+
+    d.updateSources(List.of(m, w));
+    assertEquals(List.of(m), d.getAvailableSourcesForItem(metal));
+    assertEquals(List.of(w), d.getAvailableSourcesForItem(wood));
+    // sources changed through getSources are noticed as well
+    d.getSources().remove(w);
+    assertEquals(List.of(), d.getAvailableSourcesForItem(wood));
+    // even when the number of sources stays the same
+    d.getSources().set(0, w);
+    assertEquals(List.of(w), d.getAvailableSourcesForItem(wood));
+    assertEquals(List.of(), d.getAvailableSourcesForItem(metal));
+  }
+
   @Test
   public void test_canBeRemovedImmediately() {
     FactoryBuilding testBuilding = makeTestFactoryBuilding("test", new Item("testItem"));
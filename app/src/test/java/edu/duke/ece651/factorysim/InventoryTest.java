@@ -0,0 +1,88 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+public class InventoryTest {
+  @Test
+  public void test_put_get_and_remove() {
+    Inventory inventory = new Inventory();
+    Item wood = new Item("wood");
+    Item metal = new Item("metal");
+    assertEquals(-1, inventory.get(wood.getId()));
+    assertFalse(inventory.contains(wood.getId()));
+
+    inventory.put(wood.getId(), 0);
+    assertTrue(inventory.contains(wood.getId()));
+    assertEquals(0, inventory.get(wood.getId()));
+    inventory.put(metal.getId(), 3);
+    inventory.put(metal.getId(), 4);
+    assertEquals(4, inventory.get(metal.getId()));
+    assertEquals(2, inventory.asMap().size());
+
+    inventory.remove(wood.getId());
+    inventory.remove(wood.getId());
+    assertFalse(inventory.contains(wood.getId()));
+    assertEquals(1, inventory.asMap().size());
+
+    Inventory copy = new Inventory();
+    copy.copyFrom(inventory);
+    inventory.put(metal.getId(), 1);
+    assertEquals(4, copy.get(metal.getId()));
+    assertEquals(1, copy.asMap().size());
+  }
+
+  @Test
+  public void test_map_view() {
+    Inventory inventory = new Inventory();
+    Item first = new Item("inventory test first");
+    Item second = new Item("inventory test second");
+    Map<Item, Integer> map = inventory.asMap();
+    assertTrue(map.isEmpty());
+    inventory.put(second.getId(), 2);
+    inventory.put(first.getId(), 1);
+
+    assertEquals(2, map.size());
+    assertEquals(1, map.get(first));
+    assertNull(map.get(new Item("inventory test other")));
+    assertNull(map.get("inventory test first"));
+    assertTrue(map.containsKey(second));
+    assertEquals(0, map.getOrDefault(new Item("inventory test other"), 0));
+
+    // in the order added, not by id
+    Iterator<Map.Entry<Item, Integer>> it = map.entrySet().iterator();
+    assertEquals(Map.entry(second, 2), it.next());
+    assertEquals(Map.entry(first, 1), it.next());
+    assertFalse(it.hasNext());
+    assertThrows(NoSuchElementException.class, () -> it.next());
+    assertThrows(UnsupportedOperationException.class, () -> map.put(first, 3));
+  }
+
+  @Test
+  public void test_map_view_order_after_remove() {
+    Inventory inventory = new Inventory();
+    Item[] items = new Item[6];
+    for (int i = 0; i < items.length; i++) {
+      items[i] = new Item("inventory order " + (items.length - i));
+      inventory.put(items[i].getId(), i);
+    }
+    inventory.remove(items[1].getId());
+    inventory.remove(items[4].getId());
+    inventory.put(items[1].getId(), 7);
+    inventory.put(items[3].getId(), 8);
+
+    Inventory copy = new Inventory();
+    copy.copyFrom(inventory);
+    inventory.remove(items[0].getId());
+    assertEquals(List.of(items[2], items[3], items[5], items[1]), new ArrayList<>(inventory.asMap().keySet()));
+    assertEquals(List.of(items[0], items[2], items[3], items[5], items[1]), new ArrayList<>(copy.asMap().keySet()));
+    assertEquals(List.of(0, 2, 8, 5, 7), new ArrayList<>(copy.asMap().values()));
+  }
+}
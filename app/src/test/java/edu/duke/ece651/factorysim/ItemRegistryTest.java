@@ -0,0 +1,27 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class ItemRegistryTest {
+  @Test
+  public void test_ids() {
+    Item a = new Item("registry test a");
+    Item b = new Item("registry test b");
+    assertEquals(a.getId(), new Item("registry test a").getId());
+    assertNotEquals(a.getId(), b.getId());
+    assertEquals(a.getId(), ItemRegistry.getId("registry test a"));
+    assertEquals(a, ItemRegistry.getItem(a.getId()));
+    assertThrows(IndexOutOfBoundsException.class, () -> ItemRegistry.getItem(-1));
+  }
+
+  @Test
+  public void test_intern() {
+    Item a = ItemRegistry.intern("registry test c");
+    assertSame(a, ItemRegistry.intern("registry test c"));
+    assertSame(a, ItemRegistry.getItem(a.getId()));
+    assertEquals(new Item("registry test c"), a);
+    assertThrows(IllegalArgumentException.class, () -> ItemRegistry.intern("bad'name"));
+  }
+}
@@ -0,0 +1,61 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class ParallelEngineTest {
+  private static final String CONFIG = "src/test/resources/inputs/doors_with_connections.json";
+
+  private static String run(Engine engine, String requestPolicy, int verbosity) {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    Simulation sim = new Simulation(CONFIG, verbosity, new StreamLogger(new PrintStream(log)));
+    // plan even the few buildings of this small world in parallel
+    sim.getScheduler().setParallelThreshold(1);
+    sim.setPolicy("request", requestPolicy, "*");
+    sim.setEngine(engine);
+    sim.makeUserRequest("door", "D");
+    sim.makeUserRequest("handle", "Ha");
+    sim.makeUserRequest("door", "D");
+    sim.step(9);
+    String mid = sim.getGameState().toString();
+    sim.makeUserRequest("hinge", "Hi");
+    sim.step(60);
+    return log + mid + sim.getGameState();
+  }
+
+  @Test
+  public void test_getName() {
+    assertEquals("parallel", new ParallelEngine().getName());
+  }
+
+  @Test
+  public void test_same_result_as_tick() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    for (String policy : new String[] { "fifo", "sjf", "ready" }) {
+      for (int verbosity = 0; verbosity <= 2; verbosity++) {
+        assertEquals(run(new TickEngine(), policy, verbosity), run(new ParallelEngine(pool), policy, verbosity));
+      }
+    }
+    pool.shutdown();
+  }
+
+  @Test
+  public void test_plan_dropped_on_change() {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    Simulation sim = new Simulation(CONFIG, 0, new StreamLogger(new PrintStream(log)));
+    Building hinge = sim.getWorld().getBuildingFromName("Hi");
+    Recipe recipe = sim.getRecipeForItem(new Item("hinge"));
+    hinge.appendPendingRequest(new Request(0, new Item("hinge"), recipe, hinge, null));
+    sim.setPolicy("request", "ready", "Hi");
+    // nothing is ready when planning, but metal arrives before the step
+    hinge.planStep();
+    hinge.addToStorage(new Item("metal"), 1);
+    hinge.step();
+    assertTrue(hinge.isProcessing());
+  }
+}
@@ -2,7 +2,9 @@ package edu.duke.ece651.factorysim;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -244,4 +246,150 @@ class PathFinderTest {
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void test_findPathAStar() {
+        tileMap.setTileType(m1,TileType.BUILDING);
+        tileMap.setTileType(f1,TileType.BUILDING);
+
+        Path path = PathFinder.findPathAStar(m1, f1, tileMap);
+        assertNotNull(path);
+        assertEquals(m1, path.getSteps().get(0));
+        assertEquals(f1, path.getSteps().get(path.getSteps().size() - 1));
+        assertEquals(PathFinder.findPath(m1, f1, tileMap).getCost(), path.getCost());
+        // directions lead from each step to the next
+        for (int i = 0; i + 1 < path.getSteps().size(); i++) {
+            assertEquals(path.getSteps().get(i + 1), path.getSteps().get(i).getNextCoord(path.getFlowDirections().get(i)));
+        }
+        assertEquals(-1, path.getFlowDirections().get(path.getSteps().size() - 1));
+
+        // surrounded by buildings
+        tileMap.setTileType(new Coordinate(1, 2), TileType.BUILDING);
+        tileMap.setTileType(new Coordinate(0, 1), TileType.BUILDING);
+        tileMap.setTileType(new Coordinate(0, 3), TileType.BUILDING);
+        assertNull(PathFinder.findPathAStar(m1, f1, tileMap));
+    }
+
+    @Test
+    void test_findPathAStar_same_cost_as_findPath() {
+        Random random = new Random(651);
+        for (int round = 0; round < 40; round++) {
+            TileMap map = new TileMap(30, 20);
+            List<Coordinate> buildings = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                Coordinate c = new Coordinate(random.nextInt(30), random.nextInt(20));
+                if (map.getTileType(c) != TileType.BUILDING) {
+                    map.setTileType(c, TileType.BUILDING);
+                    buildings.add(c);
+                }
+            }
+            // connect random pairs, so later searches reuse and avoid earlier paths
+            for (int i = 0; i < 10; i++) {
+                Coordinate src = buildings.get(random.nextInt(buildings.size()));
+                Coordinate dst = buildings.get(random.nextInt(buildings.size()));
+                Path expected = PathFinder.findPath(src, dst, map);
+                Path actual = PathFinder.findPathAStar(src, dst, map);
+                if (expected == null) {
+                    assertNull(actual);
+                    continue;
+                }
+                assertNotNull(actual);
+                assertEquals(expected.getCost(), actual.getCost());
+                if (!src.equals(dst)) {
+                    map.addPath(actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    void test_findPathAStar_on_wide_chunked_board() {
+        TileMap map = new TileMap(1000, 100, TileMap.Storage.CHUNKED);
+        Coordinate src = new Coordinate(5, 90);
+        Coordinate dst = new Coordinate(990, 10);
+        map.setTileType(src, TileType.BUILDING);
+        map.setTileType(dst, TileType.BUILDING);
+        Path path = PathFinder.findPathAStar(src, dst, map);
+        assertNotNull(path);
+        assertEquals(985 + 80 + 1, path.getTotalLength());
+        assertEquals(PathFinder.findPath(src, dst, map).getCost(), path.getCost());
+    }
+
+    @Test
+    void test_findPathAStar_explores_along_a_long_link() {
+        TileMap map = new TileMap(200, 200);
+        Coordinate src = new Coordinate(5, 100);
+        Coordinate dst = new Coordinate(195, 100);
+        map.setTileType(src, TileType.BUILDING);
+        map.setTileType(dst, TileType.BUILDING);
+        PathFinder.Route route = PathFinder.findRouteAStar(src, dst, map);
+        assertEquals(PathFinder.findPath(src, dst, map).getCost(), route.getPath().getCost());
+        // findPath looks at every tile cheaper to reach than the destination:
+        // all tiles within 190 steps of the source, most of the board. The
+        // estimate leaves out the tiles leading away from the destination.
+        assertTrue(route.getNumOfReached() < 200 * 200 / 2, "reached " + route.getNumOfReached());
+        assertFalse(route.hasReachedAny(List.of(new Coordinate(5, 10), new Coordinate(5, 190),
+                new Coordinate(100, 50), new Coordinate(60, 170))));
+    }
+
+    @Test
+    void test_findRouteAStar() {
+        tileMap.setTileType(m1, TileType.BUILDING);
+        tileMap.setTileType(f1, TileType.BUILDING);
+        PathFinder.Route route = PathFinder.findRouteAStar(m1, f1, tileMap);
+        Path path = PathFinder.findPathAStar(m1, f1, tileMap);
+        assertEquals(path.getSteps(), route.getPath().getSteps());
+        assertEquals(path.getFlowDirections(), route.getPath().getFlowDirections());
+        // the search looked at its own path, but not at the far corner
+        assertTrue(route.hasReachedAny(path.getSteps()));
+        assertTrue(route.hasReachedAny(List.of(new Coordinate(9, 9), f1)));
+        assertFalse(route.hasReachedAny(List.of(new Coordinate(9, 0))));
+        assertFalse(route.hasReachedAny(List.of()));
+
+        tileMap.setTileType(new Coordinate(1, 2), TileType.BUILDING);
+        tileMap.setTileType(new Coordinate(0, 1), TileType.BUILDING);
+        tileMap.setTileType(new Coordinate(0, 3), TileType.BUILDING);
+        PathFinder.Route none = PathFinder.findRouteAStar(m1, f1, tileMap);
+        assertNull(none.getPath());
+        assertTrue(none.hasReachedAny(List.of(m1)));
+        assertFalse(none.hasReachedAny(List.of(new Coordinate(1, 2), f1)));
+    }
+
+    @Test
+    void test_findRouteAStar_same_path_while_reached_tiles_unchanged() {
+        Random random = new Random(568);
+        for (int round = 0; round < 40; round++) {
+            TileMap map = new TileMap(30, 20);
+            List<Coordinate> buildings = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                Coordinate c = new Coordinate(random.nextInt(30), random.nextInt(20));
+                if (map.getTileType(c) != TileType.BUILDING) {
+                    map.setTileType(c, TileType.BUILDING);
+                    buildings.add(c);
+                }
+            }
+            // plan every route ahead, then add paths and check the plans still holding
+            List<PathFinder.Route> routes = new ArrayList<>();
+            List<Coordinate[]> ends = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Coordinate src = buildings.get(random.nextInt(buildings.size()));
+                Coordinate dst = buildings.get(random.nextInt(buildings.size()));
+                ends.add(new Coordinate[] { src, dst });
+                routes.add(PathFinder.findRouteAStar(src, dst, map));
+            }
+            List<Coordinate> changed = new ArrayList<>();
+            for (int i = 0; i < routes.size(); i++) {
+                Path actual = PathFinder.findPathAStar(ends.get(i)[0], ends.get(i)[1], map);
+                if (!routes.get(i).hasReachedAny(changed)) {
+                    Path planned = routes.get(i).getPath();
+                    assertEquals(actual == null ? null : actual.getSteps(),
+                            planned == null ? null : planned.getSteps());
+                }
+                if (actual != null && !ends.get(i)[0].equals(ends.get(i)[1])) {
+                    map.addPath(actual);
+                    changed.addAll(actual.getSteps());
+                }
+            }
+        }
+    }
+}
@@ -15,7 +15,8 @@ public class ReadyRequestPolicyTest {
     // Doable request
     Item steel = new Item("steel");
     Request r1 = new Request(1, steel, steelRecipe, steelMine, null);
-    List<Request> requests = new ArrayList<>(List.of(r1));
+    RequestQueue requests = new RequestQueue();
+    requests.add(r1);
     assertSame(r1, requestPolicy.selectRequest(steelMine, requests));
 
     // Undoable request
@@ -24,10 +25,50 @@ public class ReadyRequestPolicyTest {
     ingredients.put(new Item("wood"), 3);
     Recipe chairRecipe = new Recipe(chair, ingredients, 1);
     Request r2 = new Request(1, chair, chairRecipe, steelMine, null);
-    requests = new ArrayList<>(List.of(r2));
+    requests = new RequestQueue();
+    requests.add(r2);
     assertNull(requestPolicy.selectRequest(steelMine, requests));
   }
 
+  @Test
+  public void test_selection_follows_storage() {
+    RequestPolicy requestPolicy = new ReadyRequestPolicy();
+    Item wood = new Item("wood");
+    Item metal = new Item("metal");
+    HashMap<Item, Integer> chairIngredients = new HashMap<>();
+    chairIngredients.put(wood, 2);
+    Recipe chairRecipe = new Recipe(new Item("chair"), chairIngredients, 1);
+    HashMap<Item, Integer> tableIngredients = new HashMap<>();
+    tableIngredients.put(wood, 1);
+    tableIngredients.put(metal, 1);
+    Recipe tableRecipe = new Recipe(new Item("table"), tableIngredients, 1);
+    ArrayList<Recipe> recipes = new ArrayList<>(List.of(chairRecipe, tableRecipe));
+    FactoryBuilding factory = new FactoryBuilding(new Type("furniture", recipes), "F", new ArrayList<>(),
+        new TestUtils.MockSimulation());
+
+    RequestQueue requests = factory.getPendingRequests();
+    Request table1 = new Request(1, tableRecipe.getOutput(), tableRecipe, factory, null);
+    Request chair2 = new Request(2, chairRecipe.getOutput(), chairRecipe, factory, null);
+    Request chair3 = new Request(3, chairRecipe.getOutput(), chairRecipe, factory, null);
+    requests.add(table1);
+    requests.add(chair2);
+    assertNull(requestPolicy.selectRequest(factory, requests));
+
+    factory.addToStorage(wood, 2);
+    assertSame(chair2, requestPolicy.selectRequest(factory, requests));
+    factory.addToStorage(metal, 1);
+    assertSame(table1, requestPolicy.selectRequest(factory, requests));
+    requests.remove(table1);
+    assertSame(chair2, requestPolicy.selectRequest(factory, requests));
+    requests.remove(chair2);
+    assertNull(requestPolicy.selectRequest(factory, requests));
+    // a recipe not seen before is checked even if the storage did not change
+    requests.add(chair3);
+    assertSame(chair3, requestPolicy.selectRequest(factory, requests));
+    factory.takeFromStorage(wood, 1);
+    assertNull(requestPolicy.selectRequest(factory, requests));
+  }
+
   @Test
   public void test_getName() {
     RequestPolicy requestPolicy = new ReadyRequestPolicy();
@@ -3,6 +3,7 @@ package edu.duke.ece651.factorysim;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 import com.google.gson.JsonObject;
 import org.junit.jupiter.api.Test;
@@ -69,4 +70,20 @@ public class RecipeTest {
     JsonObject wasteJson = json.getAsJsonObject("waste");
     assertEquals(1, wasteJson.get("woodDust").getAsInt());
   }
+
+  @Test
+  public void test_compile() {
+    Item wood = new Item("wood");
+    Item handle = new Item("handle");
+    LinkedHashMap<Item, Integer> ingredients = new LinkedHashMap<>();
+    ingredients.put(wood, 1);
+    ingredients.put(handle, 2);
+    Recipe recipe = new Recipe(new Item("door"), ingredients, 12, new LinkedHashMap<>());
+
+    Recipe.Compiled compiled = recipe.compile();
+    assertSame(compiled, recipe.compile());
+    assertArrayEquals(new Item[] { wood, handle }, compiled.items);
+    assertArrayEquals(new int[] { wood.getId(), handle.getId() }, compiled.ids);
+    assertArrayEquals(new int[] { 1, 2 }, compiled.quantities);
+  }
 }
@@ -0,0 +1,116 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+public class RequestQueueTest {
+  private static Request makeRequest(int orderNum) {
+    Recipe recipe = TestUtils.makeTestRecipe("a", 1, 0);
+    return new Request(orderNum, new Item("a"), recipe, null, null);
+  }
+
+  @Test
+  public void test_add_get_and_remove() {
+    RequestQueue queue = new RequestQueue();
+    assertTrue(queue.isEmpty());
+    assertThrows(IndexOutOfBoundsException.class, () -> queue.get(0));
+    Request r1 = makeRequest(1);
+    Request r2 = makeRequest(2);
+    Request r3 = makeRequest(3);
+    Request r4 = makeRequest(4);
+    queue.add(r1);
+    queue.add(r2);
+    queue.add(r3);
+    queue.add(1, r4);
+    assertEquals(List.of(r1, r4, r2, r3), new ArrayList<>(queue));
+    assertSame(r1, queue.get(0));
+    assertSame(r2, queue.get(2));
+    assertSame(r3, queue.get(3));
+    assertEquals(4, queue.size());
+    assertThrows(IllegalArgumentException.class, () -> queue.add(r1));
+
+    assertTrue(queue.remove(r4));
+    assertFalse(queue.remove(r4));
+    assertFalse(queue.contains(r4));
+    assertFalse(queue.remove("r1"));
+    assertSame(r1, queue.remove(0));
+    assertSame(r3, queue.remove(1));
+    assertEquals(List.of(r2), new ArrayList<>(queue));
+    queue.add(queue.size(), r3);
+    queue.add(0, r1);
+    assertEquals(List.of(r1, r2, r3), new ArrayList<>(queue));
+
+    // a request can join another queue once it is removed
+    RequestQueue other = new RequestQueue();
+    assertThrows(IllegalArgumentException.class, () -> other.add(r2));
+    queue.clear();
+    assertTrue(queue.isEmpty());
+    other.add(r2);
+    assertTrue(other.contains(r2));
+    assertFalse(queue.contains(r2));
+  }
+
+  @Test
+  public void test_iterator() {
+    RequestQueue queue = new RequestQueue();
+    Request r1 = makeRequest(1);
+    Request r2 = makeRequest(2);
+    Request r3 = makeRequest(3);
+    queue.add(r1);
+    queue.add(r2);
+    queue.add(r3);
+
+    Iterator<Request> it = queue.iterator();
+    assertThrows(IllegalStateException.class, () -> it.remove());
+    assertSame(r1, it.next());
+    assertSame(r2, it.next());
+    it.remove();
+    assertThrows(IllegalStateException.class, () -> it.remove());
+    assertSame(r3, it.next());
+    assertFalse(it.hasNext());
+    assertThrows(NoSuchElementException.class, () -> it.next());
+    assertEquals(List.of(r1, r3), new ArrayList<>(queue));
+
+    Iterator<Request> it2 = queue.iterator();
+    it2.next();
+    queue.remove(r3);
+    assertThrows(ConcurrentModificationException.class, () -> it2.next());
+    assertThrows(ConcurrentModificationException.class, () -> it2.remove());
+  }
+
+  @Test
+  public void test_listeners() {
+    RequestQueue queue = new RequestQueue();
+    List<String> events = new ArrayList<>();
+    RequestQueue.Listener listener = new RequestQueue.Listener() {
+      @Override
+      public void onAdded(Request request) {
+        events.add("+" + request.getOrderNum());
+      }
+
+      @Override
+      public void onRemoved(Request request) {
+        events.add("-" + request.getOrderNum());
+      }
+    };
+    queue.addListener(listener);
+    Request r1 = makeRequest(1);
+    Request r2 = makeRequest(2);
+    queue.add(r1);
+    queue.add(r2);
+    queue.remove(r1);
+    queue.clear();
+    assertEquals(List.of("+1", "+2", "-1", "-2"), events);
+
+    queue.removeListener(listener);
+    queue.add(r1);
+    assertEquals(4, events.size());
+  }
+}
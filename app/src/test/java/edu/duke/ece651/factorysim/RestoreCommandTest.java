@@ -0,0 +1,27 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class RestoreCommandTest {
+  @Test
+  public void test_execute() {
+    RestoreCommand command = new RestoreCommand();
+    assertEquals("restore", command.getName());
+    Simulation sim = new Simulation("src/test/resources/inputs/doors_with_connections.json");
+
+    assertThrows(IllegalArgumentException.class, () -> command.execute(new String[] { "restore" }, sim));
+    assertThrows(IllegalArgumentException.class, () -> command.execute(new String[] { "restore", "a", "b" }, sim));
+    assertThrows(IllegalArgumentException.class, () -> command.execute(new String[] { "step", "1" }, sim));
+    assertThrows(IllegalArgumentException.class, () -> command.execute(new String[] { "restore", "base" }, sim));
+
+    CommandHandler handler = new CommandHandler(sim);
+    handler.execute("request 'door' from 'D'");
+    handler.execute("snapshot base");
+    handler.execute("step 5");
+    command.execute(new String[] { "restore", "base" }, sim);
+    assertEquals(0, sim.getCurrentTime());
+    assertEquals(1, sim.getWorld().getBuildingFromName("D").getNumOfPendingRequests());
+  }
+}
@@ -0,0 +1,88 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class RouteTableTest {
+  private static Path makePath(int fromX, int toX) {
+    Path path = new Path();
+    int dir = fromX < toX ? 1 : 3;
+    for (int x = fromX; x != toX; x += fromX < toX ? 1 : -1) {
+      path.emplaceBack(new Coordinate(x, 0), false, dir);
+    }
+    path.emplaceBack(new Coordinate(toX, 0), false, dir);
+    return path;
+  }
+
+  @Test
+  public void test_get_by_ends() {
+    RouteTable table = new RouteTable();
+    Path p1 = makePath(0, 3);
+    Path p2 = makePath(3, 0);
+    Path p3 = makePath(0, 5);
+    table.add(p1);
+    table.add(p2);
+    table.add(p3);
+    assertEquals(3, table.size());
+    assertSame(p1, table.get(new Coordinate(0, 0), new Coordinate(3, 0)));
+    assertSame(p2, table.get(new Coordinate(3, 0), new Coordinate(0, 0)));
+    assertSame(p3, table.get(new Coordinate(0, 0), new Coordinate(5, 0)));
+    assertNull(table.get(new Coordinate(5, 0), new Coordinate(0, 0)));
+    assertNull(table.get(null, new Coordinate(0, 0)));
+    assertSame(p2, table.get(1));
+    assertEquals(2, table.indexOf(p3));
+    assertEquals(-1, table.indexOf(makePath(0, 3)));
+    assertTrue(table.contains(p1));
+    assertFalse(table.contains(makePath(0, 3)));
+  }
+
+  @Test
+  public void test_first_path_wins() {
+    RouteTable table = new RouteTable();
+    Path p1 = makePath(0, 3);
+    Path p2 = makePath(0, 3);
+    table.add(p1);
+    table.add(p2);
+    assertSame(p1, table.get(new Coordinate(0, 0), new Coordinate(3, 0)));
+    table.remove(0);
+    assertSame(p2, table.get(new Coordinate(0, 0), new Coordinate(3, 0)));
+    assertEquals(0, table.indexOf(p2));
+    table.add(0, p1);
+    assertSame(p1, table.get(new Coordinate(0, 0), new Coordinate(3, 0)));
+    assertEquals(1, table.indexOf(p2));
+  }
+
+  @Test
+  public void test_remove_set_and_clear() {
+    RouteTable table = new RouteTable();
+    Path p1 = makePath(0, 3);
+    Path p2 = makePath(1, 4);
+    Path p3 = makePath(2, 5);
+    table.addAll(List.of(p1, p2, p3));
+    assertTrue(table.remove(p2));
+    assertNull(table.get(new Coordinate(1, 0), new Coordinate(4, 0)));
+    assertEquals(1, table.indexOf(p3));
+    assertSame(p3, table.set(1, p2));
+    assertSame(p2, table.get(new Coordinate(1, 0), new Coordinate(4, 0)));
+    assertNull(table.get(new Coordinate(2, 0), new Coordinate(5, 0)));
+    assertEquals(List.of(p1, p2), new ArrayList<>(table));
+    table.clear();
+    assertTrue(table.isEmpty());
+    assertNull(table.get(new Coordinate(0, 0), new Coordinate(3, 0)));
+    assertEquals(-1, table.indexOf(p1));
+  }
+
+  @Test
+  public void test_empty_path() {
+    RouteTable table = new RouteTable();
+    Path empty = new Path();
+    table.add(empty);
+    assertEquals(0, table.indexOf(empty));
+    table.remove(empty);
+    assertTrue(table.isEmpty());
+  }
+}
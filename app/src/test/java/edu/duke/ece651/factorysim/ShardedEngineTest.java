@@ -0,0 +1,96 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class ShardedEngineTest {
+  private static final String CONFIG = "src/test/resources/inputs/three_chains.json";
+
+  private static String run(Engine engine, String requestPolicy, int verbosity) {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    Simulation sim = new Simulation(CONFIG, verbosity, new StreamLogger(new PrintStream(log)));
+    // step even the few buildings of this small world on separate threads
+    sim.getScheduler().setParallelThreshold(1);
+    sim.setPolicy("request", requestPolicy, "*");
+    sim.setEngine(engine);
+    sim.makeUserRequest("product0", "A0");
+    sim.makeUserRequest("product1", "A1");
+    sim.makeUserRequest("part2", "P2");
+    sim.makeUserRequest("handle1", "Q1");
+    sim.step(9);
+    String mid = sim.getGameState().toString();
+    sim.makeUserRequest("product2", "A2");
+    sim.makeUserRequest("product0", "A0");
+    sim.step(120);
+    return log + mid + sim.getGameState();
+  }
+
+  @Test
+  public void test_getName() {
+    assertEquals("sharded", new ShardedEngine().getName());
+  }
+
+  @Test
+  public void test_same_result_as_tick() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    for (String policy : new String[] { "fifo", "sjf", "ready" }) {
+      for (int verbosity = 0; verbosity <= 2; verbosity++) {
+        assertEquals(run(new TickEngine(), policy, verbosity), run(new ShardedEngine(pool), policy, verbosity));
+      }
+    }
+    pool.shutdown();
+  }
+
+  private static int countCompleted(Engine engine) {
+    Simulation sim = new Simulation(CONFIG, 0, new StreamLogger(new PrintStream(new ByteArrayOutputStream())));
+    sim.getScheduler().setParallelThreshold(1);
+    sim.setEngine(engine);
+    for (int i = 0; i < 5; i++) {
+      sim.makeUserRequest("product0", "A0");
+      sim.makeUserRequest("product1", "A1");
+      sim.makeUserRequest("product2", "A2");
+    }
+    sim.step(300);
+    return sim.getNumOfCompletedOrders();
+  }
+
+  @Test
+  public void test_same_completed_orders_as_tick() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    int expected = countCompleted(new TickEngine());
+    assertTrue(expected > 0);
+    assertEquals(expected, countCompleted(new ShardedEngine(pool)));
+    pool.shutdown();
+  }
+
+  private static String runConnected(Engine engine) {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    Simulation sim = new Simulation(CONFIG, 1, new StreamLogger(new PrintStream(log)));
+    sim.getScheduler().setParallelThreshold(1);
+    sim.setEngine(engine);
+    World world = sim.getWorld();
+    sim.makeUserRequest("product0", "A0");
+    sim.step(5);
+    // the storage of the second chain now also supplies the first one
+    sim.connectBuildings(world.getBuildingFromName("S1"), world.getBuildingFromName("P0"));
+    assertTrue(sim.getComponents().isConnected(world.getBuildingFromName("A0"), world.getBuildingFromName("A1")));
+    sim.makeUserRequest("product1", "A1");
+    sim.makeUserRequest("product0", "A0");
+    sim.step(200);
+    return log + sim.getGameState().toString();
+  }
+
+  @Test
+  public void test_connected_chains() {
+    ForkJoinPool pool = new ForkJoinPool(2);
+    String log = runConnected(new ShardedEngine(pool));
+    assertEquals(runConnected(new TickEngine()), log);
+    assertTrue(log.contains("[order complete] Order 0"));
+    pool.shutdown();
+  }
+}
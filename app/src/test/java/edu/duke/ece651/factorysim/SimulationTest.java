@@ -4,6 +4,7 @@ import java.io.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 import com.google.gson.JsonArray;
@@ -49,6 +50,174 @@ public class SimulationTest {
         assertTrue(sim.isFinished());
     }
 
+    @Test
+    public void test_finish_with_time_limit() {
+        Simulation sim = new Simulation("src/test/resources/inputs/doors_with_connections.json", 0, testLogger);
+        sim.makeUserRequest("door", "D");
+        assertFalse(sim.finish(10));
+        assertEquals(10, sim.getCurrentTime());
+        assertFalse(sim.isFinished());
+        assertEquals(0, sim.getNumOfCompletedOrders());
+
+        assertTrue(sim.finish(1000));
+        assertTrue(sim.isFinished());
+        assertEquals(1, sim.getNumOfCompletedOrders());
+    }
+
+    private static Simulation makeForkable(String engine, ByteArrayOutputStream log) {
+        Simulation sim = new Simulation("src/test/resources/inputs/three_chains.json", 1,
+                new StreamLogger(new PrintStream(log)));
+        sim.setEngine(engine);
+        sim.makeUserRequest("product0", "A0");
+        sim.makeUserRequest("product1", "A1");
+        sim.makeUserRequest("part2", "P2");
+        return sim;
+    }
+
+    @Test
+    public void test_fork_steps_like_original() {
+        for (String engine : new String[] { "tick", "event" }) {
+            ByteArrayOutputStream straightLog = new ByteArrayOutputStream();
+            Simulation straight = makeForkable(engine, straightLog);
+            straight.step(30);
+            straight.step(150);
+
+            ByteArrayOutputStream log = new ByteArrayOutputStream();
+            Simulation sim = makeForkable(engine, log);
+            sim.step(30);
+            int forkedAt = log.size();
+            ByteArrayOutputStream forkLog = new ByteArrayOutputStream();
+            Simulation fork = sim.fork(new StreamLogger(new PrintStream(forkLog)));
+            assertEquals(sim.getGameState().toString(), fork.getGameState().toString());
+
+            sim.step(150);
+            fork.step(150);
+            // forking changes nothing in the original
+            assertEquals(straightLog.toString(), log.toString());
+            assertEquals(straight.getGameState().toString(), sim.getGameState().toString());
+            assertEquals(log.toString().substring(forkedAt), forkLog.toString());
+            assertEquals(sim.getGameState().toString(), fork.getGameState().toString());
+            assertEquals(sim.getNumOfCompletedOrders(), fork.getNumOfCompletedOrders());
+        }
+    }
+
+    @Test
+    public void test_fork_is_independent() {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        Simulation sim = makeForkable("tick", log);
+        sim.step(20);
+        Simulation fork = sim.fork(testLogger);
+        World world = sim.getWorld();
+        World forkWorld = fork.getWorld();
+        assertNotSame(world.getBuildingFromName("A0"), forkWorld.getBuildingFromName("A0"));
+        assertSame(forkWorld.getBuildingFromName("M0"), forkWorld.getBuildingFromName("P0").getSources().get(0));
+        assertSame(fork, forkWorld.getBuildingFromName("A0").getSimulation());
+
+        fork.connectBuildings("S1", "P0");
+        assertFalse(world.getBuildingFromName("P0").getSources().contains(world.getBuildingFromName("S1")));
+        assertEquals(TileType.ROAD, sim.checkTile(new Coordinate(30, 12)));
+        fork.makeUserRequest("product2", "A2");
+        assertEquals(0, world.getBuildingFromName("A2").getNumOfPendingRequests());
+        fork.step(10);
+        assertEquals(20, sim.getCurrentTime());
+        assertEquals(30, fork.getCurrentTime());
+    }
+
+    @Test
+    public void test_snapshot_and_restore() {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        Simulation sim = makeForkable("event", log);
+        sim.step(25);
+        sim.saveSnapshot("base");
+        assertTrue(log.toString().contains("Snapshot base taken at time-step 25"));
+        String state = sim.getGameState().toString();
+
+        sim.step(40);
+        String after = sim.getGameState().toString();
+        sim.restoreSnapshot("base");
+        assertEquals(25, sim.getCurrentTime());
+        assertEquals(state, sim.getGameState().toString());
+        assertTrue(log.toString().contains("Snapshot base restored at time-step 25"));
+
+        // the snapshot can be restored again, and steps the same way
+        sim.step(40);
+        assertEquals(after, sim.getGameState().toString());
+        sim.restoreSnapshot("base");
+        assertEquals(state, sim.getGameState().toString());
+        assertThrows(IllegalArgumentException.class, () -> sim.restoreSnapshot("other"));
+    }
+
+    @Test
+    public void test_constructor_with_config_data() {
+        ConfigData configData = JsonLoader.loadConfigData("src/test/resources/inputs/doors_with_connections.json");
+        Simulation first = new Simulation(configData, 0, testLogger);
+        Simulation second = new Simulation(configData, 0, testLogger);
+        assertNotSame(first.getWorld().getBuildingFromName("D"), second.getWorld().getBuildingFromName("D"));
+
+        first.makeUserRequest("door", "D");
+        first.finish();
+        second.makeUserRequest("door", "D");
+        second.finish();
+        assertEquals(first.getCurrentTime(), second.getCurrentTime());
+        assertEquals(first.getGameState().toString(), second.getGameState().toString());
+    }
+
+    /**
+     * Connects every pair of buildings of three_chains.json, plus a missing
+     * one, returning the paths and the failure messages in order.
+     */
+    private List<String> connectAllPairs(ForkJoinPool pool, boolean batched) {
+        ConfigData configData = JsonLoader.loadConfigData("src/test/resources/inputs/three_chains.json");
+        configData.connections = new ArrayList<>();
+        Simulation sim = new Simulation(configData, 0, testLogger);
+        List<ConnectionDTO> connections = new ArrayList<>();
+        for (Building src : sim.getWorld().getBuildings()) {
+            for (Building dst : sim.getWorld().getBuildings()) {
+                connections.add(new ConnectionDTO(src.getName(), dst.getName()));
+            }
+            connections.add(new ConnectionDTO(src.getName(), "X"));
+        }
+        connections.add(new ConnectionDTO("X", "A0"));
+        // connect some again
+        connections.addAll(connections.subList(0, 30));
+
+        List<String> results = new ArrayList<>();
+        if (batched) {
+            sim.connectBuildings(connections, (connection, e) -> results.add(connection.getSource() + "->"
+                    + connection.getDestination() + ": " + e.getMessage()), pool);
+        } else {
+            for (ConnectionDTO connection : connections) {
+                try {
+                    sim.connectBuildings(connection.getSource(), connection.getDestination());
+                } catch (IllegalArgumentException e) {
+                    results.add(connection.getSource() + "->" + connection.getDestination() + ": " + e.getMessage());
+                }
+            }
+        }
+        for (Path path : sim.getPathList()) {
+            results.add(path.getSteps() + " " + path.getFlowDirections());
+        }
+        results.add(sim.getWorld().tileMap.toJson().toString());
+        return results;
+    }
+
+    @Test
+    public void test_connectBuildings_batch_same_as_one_by_one() {
+        List<String> expected = connectAllPairs(null, false);
+        assertTrue(expected.stream().anyMatch(result -> result.contains("does not exist")));
+        assertTrue(expected.stream().anyMatch(result -> result.contains("cannot be used")));
+        assertEquals(expected, connectAllPairs(null, true));
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(expected, connectAllPairs(single, true));
+            assertEquals(expected, connectAllPairs(pool, true));
+        } finally {
+            single.shutdown();
+            pool.shutdown();
+        }
+    }
+
     @Test
     public void test_all_requests_finished() {
         sim.makeUserRequest("door", "D");
@@ -309,7 +478,7 @@ public class SimulationTest {
         Building building = new TestUtils.MockBuilding("TestBuilding");
         RequestPolicy mockPolicy = new RequestPolicy() {
             @Override
-            public Request selectRequest(Building producer, List<Request> requests) {
+            public Request selectRequest(Building producer, RequestQueue requests) {
                 return null;
             }
 
@@ -620,6 +789,42 @@ public class SimulationTest {
         assertThrows(IllegalArgumentException.class, () -> simulation.disconnectBuildings("W", "D"));
     }
 
+    @Test
+    public void test_addDelivery_units_leaving_together_travel_as_one() {
+        Simulation simulation = new Simulation("src/test/resources/inputs/doors1.json", 1, testLogger);
+        Building W = simulation.getWorld().getBuildingFromName("W");
+        Building D = simulation.getWorld().getBuildingFromName("D");
+        Item wood = new Item("wood");
+        Item metal = new Item("metal");
+        simulation.connectBuildings(W, D);
+        simulation.addDelivery(W, D, wood, 1);
+        simulation.addDelivery(W, D, wood, 1);
+        simulation.addDelivery(W, D, metal, 1);
+        // a unit after another item no longer arrives right after the first ones
+        simulation.addDelivery(W, D, wood, 1);
+        List<Delivery> deliveries = simulation.getDeliverySchedule().getDeliveries();
+        assertEquals(3, deliveries.size());
+        assertEquals(2, deliveries.get(0).quantity);
+        assertEquals(2, deliveries.get(0).getNumOfUnits());
+        assertEquals(2, deliveries.get(0).toJson().get("units").getAsInt());
+        assertEquals(2, simulation.fork(testLogger).getDeliverySchedule().getDeliveries().get(0).getNumOfUnits());
+        assertEquals(1, deliveries.get(2).getNumOfUnits());
+
+        simulation.step(1);
+        // units sent in a later step do not join deliveries on their way
+        simulation.addDelivery(W, D, wood, 1);
+        assertEquals(4, simulation.getDeliverySchedule().getDeliveries().size());
+
+        logOutput.reset();
+        simulation.step(simulation.getPathList().get(0).getDeliveryTime() - 1);
+        String delivered = "[ingredient delivered]: %s to D from W on cycle " + (simulation.getCurrentTime() - 1)
+            + System.lineSeparator();
+        assertTrue(logOutput.toString().startsWith(delivered.formatted("wood") + delivered.formatted("wood")
+            + delivered.formatted("metal") + delivered.formatted("wood")), logOutput.toString());
+        assertEquals(3, D.getStorageNumberOf(wood));
+        assertEquals(1, D.getStorageNumberOf(metal));
+    }
+
     @Test
     public void testBuildDeliveries() throws Exception {
         JsonArray deliveries = new JsonArray();
@@ -662,6 +867,12 @@ public class SimulationTest {
         assertEquals(0, deliveryJson.get("stepIndex").getAsInt());
         assertEquals(1, deliveryJson.get("x").getAsInt());
         assertEquals(2, deliveryJson.get("y").getAsInt());
+        assertEquals(1, deliveryJson.get("units").getAsInt());
+
+        d1.addProperty("quantity", 2);
+        d1.addProperty("units", 2);
+        method.invoke(simulation, deliveries);
+        assertEquals(2, schedule.getDeliveries().get(1).getNumOfUnits());
     }
 
     @Test
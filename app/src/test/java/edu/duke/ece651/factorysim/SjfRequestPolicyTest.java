@@ -3,20 +3,18 @@ package edu.duke.ece651.factorysim;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 
 public class SjfRequestPolicyTest {
   private SjfRequestPolicy policy;
   private Building producer;
-  private List<Request> requests;
+  private RequestQueue requests;
 
   @BeforeEach
   public void setUp() {
     policy = new SjfRequestPolicy();
     producer = new TestUtils.MockBuilding("TestBuilding");
-    requests = new ArrayList<>();
+    requests = new RequestQueue();
   }
 
   @Test
@@ -88,6 +86,33 @@ public class SjfRequestPolicyTest {
     assertTrue(requests.contains(request2));
   }
 
+  @Test
+  public void test_selection_follows_queue_changes() {
+    HashMap<Item, Integer> ingredients = new HashMap<>();
+    Recipe slow = new Recipe(new Item("slow"), ingredients, 10);
+    Recipe fast = new Recipe(new Item("fast"), ingredients, 5);
+    Request s1 = new Request(1, slow.getOutput(), slow, producer, null);
+    Request f2 = new Request(2, fast.getOutput(), fast, producer, null);
+    Request f3 = new Request(3, fast.getOutput(), fast, producer, null);
+    Request f4 = new Request(4, fast.getOutput(), fast, producer, null);
+
+    requests.add(s1);
+    assertSame(s1, policy.selectRequest(producer, requests));
+    requests.add(f2);
+    requests.add(f3);
+    assertSame(f2, policy.selectRequest(producer, requests));
+    requests.remove(f2);
+    assertSame(f3, policy.selectRequest(producer, requests));
+    // inserting before f3 makes f4 the older one of the shortest
+    requests.add(1, f4);
+    assertSame(f4, policy.selectRequest(producer, requests));
+    requests.remove(f4);
+    requests.remove(f3);
+    assertSame(s1, policy.selectRequest(producer, requests));
+    requests.clear();
+    assertNull(policy.selectRequest(producer, requests));
+  }
+
   @Test
   public void test_getName() {
     assertEquals("sjf", policy.getName());
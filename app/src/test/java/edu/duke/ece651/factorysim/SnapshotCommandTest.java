@@ -0,0 +1,23 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class SnapshotCommandTest {
+  @Test
+  public void test_execute() {
+    SnapshotCommand command = new SnapshotCommand();
+    assertEquals("snapshot", command.getName());
+    Simulation sim = new Simulation("src/test/resources/inputs/doors_with_connections.json");
+
+    assertThrows(IllegalArgumentException.class, () -> command.execute(new String[] { "snapshot" }, sim));
+    assertThrows(IllegalArgumentException.class, () -> command.execute(new String[] { "snapshot", "a", "b" }, sim));
+    assertThrows(IllegalArgumentException.class, () -> command.execute(new String[] { "step", "1" }, sim));
+
+    command.execute(new String[] { "snapshot", "base" }, sim);
+    sim.step(5);
+    sim.restoreSnapshot("base");
+    assertEquals(0, sim.getCurrentTime());
+  }
+}
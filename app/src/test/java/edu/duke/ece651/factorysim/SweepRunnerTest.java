@@ -0,0 +1,78 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+public class SweepRunnerTest {
+  private static final String CONFIG = "src/test/resources/inputs/doors_with_connections.json";
+  private static final List<String> WORKLOAD = List.of("request 'door' from 'D'", "request 'handle' from 'Ha'",
+      "request 'door' from 'D'");
+
+  @Test
+  public void test_same_result_as_single_simulation() {
+    Simulation sim = new Simulation(CONFIG, 0, message -> {
+    });
+    sim.setPolicy("request", "sjf", "*");
+    sim.setPolicy("source", "simplelat", "*");
+    CommandHandler handler = new CommandHandler(sim);
+    for (String command : WORKLOAD) {
+      handler.execute(command);
+    }
+    sim.finish();
+
+    SweepRunner runner = new SweepRunner(CONFIG, WORKLOAD, 5000);
+    SweepResult result = runner.runVariant(
+        SweepVariant.policyGrid(List.of("sjf"), List.of("simplelat")).get(0));
+    assertEquals("sjf/simplelat", result.getName());
+    assertTrue(result.isFinished());
+    assertNull(result.getError());
+    assertEquals(sim.getCurrentTime(), result.getMakespan());
+    assertEquals(3, result.getCompletedOrders());
+    assertTrue(result.getWallTimeMillis() >= 0);
+  }
+
+  @Test
+  public void test_run_in_parallel() {
+    SweepRunner runner = new SweepRunner(JsonLoader.loadConfigData(CONFIG), WORKLOAD, 5000);
+    List<SweepVariant> variants = SweepVariant.policyGrid();
+    List<SweepResult> results = runner.run(variants);
+    assertEquals(variants.size(), results.size());
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    List<SweepResult> bounded = runner.run(variants, executor);
+    executor.shutdown();
+    for (int i = 0; i < variants.size(); i++) {
+      assertEquals(variants.get(i).getName(), results.get(i).getName());
+      assertEquals(results.get(i).getName(), bounded.get(i).getName());
+      assertEquals(results.get(i).isFinished(), bounded.get(i).isFinished());
+      assertEquals(results.get(i).getMakespan(), bounded.get(i).getMakespan());
+      assertEquals(results.get(i).getCompletedOrders(), bounded.get(i).getCompletedOrders());
+    }
+    assertTrue(results.get(0).isFinished());
+    assertEquals(3, results.get(0).getCompletedOrders());
+  }
+
+  @Test
+  public void test_failed_runs() {
+    SweepRunner runner = new SweepRunner(CONFIG, WORKLOAD, 10);
+    SweepResult limited = runner.runVariant(new SweepVariant("default", List.of()));
+    assertFalse(limited.isFinished());
+    assertNull(limited.getError());
+    assertEquals(10, limited.getMakespan());
+
+    SweepResult bad = runner.runVariant(new SweepVariant("bad", List.of("set policy request 'lifo' on *")));
+    assertFalse(bad.isFinished());
+    assertNotNull(bad.getError());
+    assertEquals(0, bad.getCompletedOrders());
+
+    String table = SweepRunner.formatTable(List.of(limited, bad));
+    assertTrue(table.contains("time limit"));
+    assertTrue(table.contains("error: "));
+    assertEquals(3, table.lines().count());
+  }
+}
@@ -0,0 +1,30 @@
+package edu.duke.ece651.factorysim;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SweepVariantTest {
+  @Test
+  public void test_getters() {
+    SweepVariant variant = new SweepVariant("D on sjf", List.of("set policy request 'sjf' on 'D'"));
+    assertEquals("D on sjf", variant.getName());
+    assertEquals(List.of("set policy request 'sjf' on 'D'"), variant.getCommands());
+  }
+
+  @Test
+  public void test_policyGrid() {
+    List<SweepVariant> variants = SweepVariant.policyGrid(List.of("fifo", "sjf"), List.of("qlen"));
+    assertEquals(2, variants.size());
+    assertEquals("fifo/qlen", variants.get(0).getName());
+    assertEquals(List.of("set policy request 'fifo' on *", "set policy source 'qlen' on *"),
+        variants.get(0).getCommands());
+    assertEquals("sjf/qlen", variants.get(1).getName());
+
+    List<SweepVariant> all = SweepVariant.policyGrid();
+    assertEquals(9, all.size());
+    assertEquals("ready/recursivelat", all.get(8).getName());
+  }
+}
@@ -130,5 +130,10 @@ public class TestUtils {
     public boolean canBeRemovedImmediately() {
       return true;
     }
+
+    @Override
+    Building copyFor(Simulation simulation) {
+      return new MockBuilding(getName());
+    }
   }
 }
@@ -29,6 +29,22 @@ class TileMapTest {
         assertFalse(map.isInsideMap(new Coordinate(-1, 5)));
     }
 
+    @Test
+    public void test_copy() {
+        TileMap map = new TileMap(10, 10);
+        Coordinate coord = new Coordinate(2, 3);
+        map.setTileType(coord, TileType.PATH);
+        map.setFlow(coord, 1, 1);
+        TileMap copy = new TileMap(map);
+        assertEquals(map.toJson(), copy.toJson());
+
+        copy.setTileType(coord, TileType.BUILDING);
+        copy.setFlow(coord, 2, -1);
+        assertEquals(TileType.PATH, map.getTileType(coord));
+        assertEquals(0, map.getFlow(coord, 2));
+        assertEquals(-1, copy.getFlow(coord, 2));
+    }
+
     // getFlow
     @Test
     public void test_get_flow_out_of_bounds() {
@@ -272,12 +288,15 @@ class TileMapTest {
         assertEquals(2, json.get("width").getAsInt());
         assertEquals(2, json.get("height").getAsInt());
 
-        // Check the "tiles" array.
+        // ROAD tiles with no flow are left out
         assertTrue(json.has("tiles"));
-        JsonArray tiles = json.getAsJsonArray("tiles");
-        assertEquals(4, tiles.size());
+        assertEquals(0, json.getAsJsonArray("tiles").size());
 
-        Set<String> foundCoords = new HashSet<>();
+        tm.setTileType(new Coordinate(1, 0), TileType.BUILDING);
+        tm.setTileType(new Coordinate(0, 1), TileType.PATH);
+        tm.setFlow(new Coordinate(0, 1), 2, -1);
+        JsonArray tiles = tm.toJson().getAsJsonArray("tiles");
+        assertEquals(2, tiles.size());
 
         // check each tile object.
         for (JsonElement element : tiles) {
@@ -288,25 +307,42 @@ class TileMapTest {
             assertTrue(tileObj.has("y"));
             assertTrue(tileObj.has("type"));
             assertTrue(tileObj.has("flow"));
+            assertEquals(4, tileObj.getAsJsonArray("flow").size());
+        }
 
-            int x = tileObj.get("x").getAsInt();
-            int y = tileObj.get("y").getAsInt();
-            foundCoords.add(x + "," + y);
-
-            // test road by default
-            String type = tileObj.get("type").getAsString();
-            assertEquals("ROAD", type);
+        JsonObject path = tiles.get(0).getAsJsonObject();
+        assertEquals(0, path.get("x").getAsInt());
+        assertEquals(1, path.get("y").getAsInt());
+        assertEquals("PATH", path.get("type").getAsString());
+        assertEquals(-1, path.getAsJsonArray("flow").get(2).getAsInt());
+        JsonObject building = tiles.get(1).getAsJsonObject();
+        assertEquals(1, building.get("x").getAsInt());
+        assertEquals(0, building.get("y").getAsInt());
+        assertEquals("BUILDING", building.get("type").getAsString());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, building.getAsJsonArray("flow").get(i).getAsInt());
+        }
+    }
 
-            // test flow array are 0s.
-            JsonArray flowArr = tileObj.getAsJsonArray("flow");
-            assertEquals(4, flowArr.size());
-            for (int i = 0; i < 4; i++) {
-                assertEquals(0, flowArr.get(i).getAsInt());
+    @Test
+    public void testToJson_tiles_in_coordinate_order() {
+        for (TileMap.Storage storage : TileMap.Storage.values()) {
+            TileMap tm = new TileMap(150, 100, storage);
+            tm.setTileType(new Coordinate(140, 5), TileType.PATH);
+            tm.setTileType(new Coordinate(2, 90), TileType.BUILDING);
+            tm.setTileType(new Coordinate(140, 2), TileType.PATH);
+            tm.setTileType(new Coordinate(2, 1), TileType.BUILDING);
+            tm.setTileType(new Coordinate(70, 0), TileType.PATH);
+            // set back to the default, so left out again
+            tm.setTileType(new Coordinate(70, 0), TileType.ROAD);
+            JsonArray tiles = tm.toJson().getAsJsonArray("tiles");
+            List<String> coords = new ArrayList<>();
+            for (JsonElement element : tiles) {
+                JsonObject tileObj = element.getAsJsonObject();
+                coords.add(tileObj.get("x").getAsInt() + "," + tileObj.get("y").getAsInt());
             }
+            assertEquals(Arrays.asList("2,1", "2,90", "140,2", "140,5"), coords);
         }
-
-        Set<String> expectedCoords = new HashSet<>(Arrays.asList("0,0", "0,1", "1,0", "1,1"));
-        assertEquals(expectedCoords, foundCoords);
     }
 
     @Test
@@ -316,4 +352,81 @@ class TileMapTest {
         assertThrows(IllegalArgumentException.class, () -> map.getFlows(out));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void test_flows_are_packed_per_direction() {
+        TileMap map = new TileMap(4, 3);
+        Coordinate c = new Coordinate(3, 2);
+        assertTrue(map.hasNoFlow(c));
+        map.setFlow(c, 0, -1);
+        map.setFlow(c, 1, 1);
+        map.setFlow(c, 3, 2);
+        assertArrayEquals(new int[]{-1, 1, 0, 2}, map.getFlows(c));
+        assertFalse(map.hasNoFlow(c));
+        // neighbours are untouched
+        assertTrue(map.hasNoFlow(new Coordinate(2, 2)));
+        assertTrue(map.hasNoFlow(new Coordinate(3, 1)));
+
+        // the flows returned are a copy
+        map.getFlows(c)[0] = 0;
+        assertEquals(-1, map.getFlow(c, 0));
+
+        map.clearFlow(c, 0);
+        assertArrayEquals(new int[]{0, 1, 0, 2}, map.getFlows(c));
+        map.clearFlow(c, 1);
+        map.clearFlow(c, 3);
+        assertTrue(map.hasNoFlow(c));
+
+        assertThrows(IllegalArgumentException.class, () -> map.setFlow(c, 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> map.clearFlow(new Coordinate(4, 0), 0));
+        assertThrows(IllegalArgumentException.class, () -> map.hasNoFlow(new Coordinate(0, 3)));
+    }
+
+    @Test
+    public void test_tile_types_by_coordinate() {
+        TileMap map = new TileMap(4, 3);
+        map.setTileType(new Coordinate(3, 0), TileType.BUILDING);
+        map.setTileType(new Coordinate(0, 1), TileType.PATH);
+        assertEquals(TileType.BUILDING, map.getTileType(new Coordinate(3, 0)));
+        assertEquals(TileType.PATH, map.getTileType(new Coordinate(0, 1)));
+        assertEquals(TileType.ROAD, map.getTileType(new Coordinate(1, 0)));
+        assertNull(map.getTileType(new Coordinate(4, 0)));
+        assertNull(map.getTileType(new Coordinate(0, -1)));
+        assertThrows(IllegalArgumentException.class, () -> map.setTileType(new Coordinate(0, 0), null));
+    }
+
+    @Test
+    public void test_chunked_storage_behaves_like_dense() {
+        TileMap dense = new TileMap(100, 70, TileMap.Storage.DENSE);
+        TileMap chunked = new TileMap(100, 70, TileMap.Storage.CHUNKED);
+        assertEquals(TileMap.Storage.DENSE, dense.getStorage());
+        assertEquals(TileMap.Storage.CHUNKED, chunked.getStorage());
+        for (TileMap map : List.of(dense, chunked)) {
+            map.setTileType(new Coordinate(2, 65), TileType.BUILDING);
+            map.setTileType(new Coordinate(99, 65), TileType.BUILDING);
+            Path path = PathFinder.findPath(new Coordinate(2, 65), new Coordinate(99, 65), map);
+            assertNotNull(path);
+            map.addPath(path);
+        }
+        assertEquals(dense.toJson(), chunked.toJson());
+        assertEquals(dense.toString(), chunked.toString());
+
+        TileMap copy = new TileMap(chunked);
+        assertEquals(TileMap.Storage.CHUNKED, copy.getStorage());
+        assertEquals(chunked.toJson(), copy.toJson());
+    }
+
+    @Test
+    public void test_very_large_board() {
+        TileMap map = new TileMap(50000, 50000);
+        assertEquals(TileMap.Storage.CHUNKED, map.getStorage());
+        Coordinate far = new Coordinate(49999, 49999);
+        assertEquals(TileType.ROAD, map.getTileType(far));
+        assertTrue(map.hasNoFlow(far));
+        map.setTileType(far, TileType.BUILDING);
+        map.setFlow(far, 3, 2);
+        assertEquals(TileType.BUILDING, map.getTileType(far));
+        assertEquals(2, map.getFlow(far, 3));
+        assertEquals(TileMap.Storage.DENSE, new TileMap(25, 25).getStorage());
+    }
+
+}
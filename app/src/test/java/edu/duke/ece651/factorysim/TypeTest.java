@@ -65,4 +65,14 @@ public class TypeTest {
     assertThrows(IllegalArgumentException.class, () -> new Type("Do'or", emptyRecipe));
   }
 
+  @Test
+  public void test_hasRecipeFor() {
+    assertTrue(dollAndBottle.hasRecipeFor(new Item("doll")));
+    assertTrue(dollAndBottle.hasRecipeFor(new Item("bottle")));
+    assertFalse(dollAndBottle.hasRecipeFor(new Item("cotton")));
+    // recipes added later are picked up
+    dollAndBottle.getRecipes().add(TestUtils.makeTestRecipe("cotton", 1, 0));
+    assertTrue(dollAndBottle.hasRecipeFor(new Item("cotton")));
+  }
+
 }
@@ -55,4 +55,119 @@ public class WorldTest {
     assertEquals("deez", world.resolveBuildingNameConflict("deez"));
     assertEquals("D_1", world.resolveBuildingNameConflict("D"));
   }
+
+  @Test
+  public void test_name_indexes_stay_in_sync() {
+    World world = new World();
+    world.setBuildings(new ArrayList<>());
+    world.tileMap = new TileMap(10, 10);
+    Building a = new TestUtils.MockBuilding("A");
+    a.setLocation(new Coordinate(1, 1));
+    assertTrue(world.tryAddBuilding(a));
+    assertSame(a, world.getBuildingFromName("A"));
+    assertFalse(world.hasBuilding("B"));
+
+    Building b = new TestUtils.MockBuilding("B");
+    b.setLocation(new Coordinate(2, 2));
+    assertTrue(world.tryAddBuilding(b));
+    assertSame(b, world.getBuildingFromName("B"));
+    world.removeBuildingFromWorld(a);
+    assertFalse(world.hasBuilding("A"));
+    assertSame(b, world.getBuildingFromName("B"));
+    assertEquals("A", world.resolveBuildingNameConflict("A"));
+    assertEquals("B_1", world.resolveBuildingNameConflict("B"));
+
+    // changes to the list behind the world's back are noticed too
+    world.getBuildings().add(a);
+    assertSame(a, world.getBuildingFromName("A"));
+    world.getBuildings().remove(a);
+    assertNull(world.getBuildingFromName("A"));
+
+    // with duplicate names, the first building wins
+    Building b2 = new TestUtils.MockBuilding("B");
+    b2.setLocation(new Coordinate(3, 3));
+    assertTrue(world.tryAddBuilding(b2));
+    assertSame(b, world.getBuildingFromName("B"));
+    world.removeBuildingFromWorld(b);
+    assertSame(b2, world.getBuildingFromName("B"));
+    world.setBuildings(new ArrayList<>());
+    assertNull(world.getBuildingFromName("B"));
+  }
+
+  @Test
+  public void test_recipe_and_type_indexes() {
+    World world = new World();
+    Recipe door = TestUtils.makeTestRecipe("door", 1, 0);
+    Recipe otherDoor = TestUtils.makeTestRecipe("door", 2, 0);
+    List<Recipe> recipes = new ArrayList<>(List.of(door, otherDoor));
+    world.setRecipes(recipes);
+    assertSame(door, world.getRecipeFromName("door"));
+    assertSame(door, world.getRecipeForItem(new Item("door")));
+    assertNull(world.getRecipeForItem(new Item("hinge")));
+    Recipe hinge = TestUtils.makeTestRecipe("hinge", 1, 0);
+    recipes.add(hinge);
+    assertSame(hinge, world.getRecipeForItem(new Item("hinge")));
+
+    Type type = new Type("doors", List.of(door));
+    world.setTypes(List.of(type));
+    assertSame(type, world.getTypeFromName("doors"));
+    world.setTypes(List.of());
+    assertNull(world.getTypeFromName("doors"));
+  }
+
+  @Test
+  public void test_getProducers() {
+    World world = WorldBuilder.buildWorld(TestUtils.loadConfigData("src/test/resources/inputs/doors1.json"), new TestUtils.MockSimulation());
+    Building m = world.getBuildingFromName("M");
+    assertEquals(List.of(m), world.getProducers(new Item("metal")));
+    assertEquals(List.of(world.getBuildingFromName("D")), world.getProducers(new Item("door")));
+    assertEquals(List.of(), world.getProducers(new Item("chair")));
+    assertThrows(UnsupportedOperationException.class, () -> world.getProducers(new Item("metal")).clear());
+
+    // producers follow buildings being added and removed
+    Building other = new MineBuilding(TestUtils.makeTestRecipe("metal", 1, 0), "M2", new TestUtils.MockSimulation());
+    other.setLocation(new Coordinate(9, 9));
+    assertTrue(world.tryAddBuilding(other));
+    assertEquals(List.of(m, other), world.getProducers(new Item("metal")));
+    world.removeBuildingFromWorld(m);
+    assertEquals(List.of(other), world.getProducers(new Item("metal")));
+  }
+
+  @Test
+  public void test_location_index() {
+    World world = WorldBuilder.buildWorld(TestUtils.loadConfigData("src/test/resources/inputs/doors1.json"), new TestUtils.MockSimulation());
+    Building d = world.getBuildingFromName("D");
+    assertSame(d, world.getBuildingAt(new Coordinate(0, 0)));
+    assertTrue(world.isOccupied(new Coordinate(4, 4)));
+    assertNull(world.getBuildingAt(new Coordinate(5, 5)));
+
+    Building other = new MineBuilding(TestUtils.makeTestRecipe("metal", 1, 0), "M2", new TestUtils.MockSimulation());
+    other.setLocation(new Coordinate(5, 5));
+    assertTrue(world.tryAddBuilding(other));
+    assertSame(other, world.getBuildingAt(new Coordinate(5, 5)));
+    assertFalse(world.tryAddBuilding(other));
+    // adding it again elsewhere moves it
+    other.setLocation(new Coordinate(6, 6));
+    assertTrue(world.tryAddBuilding(other));
+    assertFalse(world.isOccupied(new Coordinate(5, 5)));
+    assertSame(other, world.getBuildingAt(new Coordinate(6, 6)));
+
+    world.removeBuildingFromWorld(d);
+    assertFalse(world.isOccupied(new Coordinate(0, 0)));
+    assertNull(world.getBuildingAt(new Coordinate(0, 0)));
+
+    // changes made to the location map directly are picked up
+    world.locationMap.put(d, new Coordinate(0, 0));
+    assertSame(d, world.getBuildingAt(new Coordinate(0, 0)));
+  }
+
+  @Test
+  public void test_setTileMapDimensions_storage() {
+    World world = new World();
+    world.setTileMapDimensions(10, 20);
+    assertEquals(TileMap.Storage.DENSE, world.getTileMap().getStorage());
+    world.setTileMapDimensions(10, 20, TileMap.Storage.CHUNKED);
+    assertEquals(TileMap.Storage.CHUNKED, world.getTileMap().getStorage());
+    assertEquals(20, world.getTileMap().getHeight());
+  }
 }